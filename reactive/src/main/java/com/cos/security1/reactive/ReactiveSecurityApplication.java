@@ -0,0 +1,19 @@
+package com.cos.security1.reactive;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+
+/**
+ * 리액티브(WebFlux) 버전
+ * 서블릿 버전(Security1Application)과 같은 경로/권한 규칙을 이벤트 루프 스레드 몇 개로 처리한다.
+ * 세션과 권한만 확인하는 게이트웨이 같은 용도에서 동시 요청 수가 스레드 수에 묶이지 않는다.
+ * DB 접근은 R2DBC(논블로킹), bcrypt는 boundedElastic 스레드에서 실행된다.
+ */
+@SpringBootApplication
+public class ReactiveSecurityApplication {
+
+	public static void main(String[] args) {
+		SpringApplication.run(ReactiveSecurityApplication.class, args);
+	}
+
+}
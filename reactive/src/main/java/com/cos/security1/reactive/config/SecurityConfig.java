@@ -0,0 +1,68 @@
+package com.cos.security1.reactive.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.RedirectServerAuthenticationEntryPoint;
+import org.springframework.security.web.server.authentication.RedirectServerAuthenticationFailureHandler;
+import org.springframework.security.web.server.authentication.RedirectServerAuthenticationSuccessHandler;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+
+import java.util.Map;
+
+/**
+ * 서블릿 버전 SecurityConfig와 같은 규칙
+ * /user/** : 로그인 필요, /manager/** : MANAGER 이상, /admin/** : ADMIN, 나머지 : 누구나
+ * 로그인하지 않은 사용자는 /loginForm으로 이동, 폼 로그인은 POST /login, OAuth 로그인 후처리는 PrincipalOauth2UserService (빈으로 등록되어 있으면 자동으로 사용)
+ *
+ * @EnableReactiveMethodSecurity
+ * @PreAuthorize 활성화 (리액티브 메서드 보안은 @Secured를 지원하지 않기 때문에 IndexController는 @PreAuthorize만 사용한다.)
+ */
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class SecurityConfig {
+
+    private static final String BCRYPT = "bcrypt";
+
+    @Bean
+    public SecurityWebFilterChain filterChain(ServerHttpSecurity http) {
+        http.csrf(ServerHttpSecurity.CsrfSpec::disable);
+        http
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers("/user/**").authenticated()
+                        .pathMatchers("/manager/**").hasRole("MANAGER") // ADMIN도 ROLE_MANAGER 권한을 갖고 있다. (RoleAuthorities)
+                        .pathMatchers("/admin/**").hasRole("ADMIN")
+                        .anyExchange().permitAll()
+                )
+                .exceptionHandling(exception -> exception
+                        .authenticationEntryPoint(new RedirectServerAuthenticationEntryPoint("/loginForm"))) // 요청의 Accept 헤더와 상관없이 로그인 페이지로 이동
+                .formLogin(form -> form
+                        .loginPage("/loginForm")
+                        .requiresAuthenticationMatcher(ServerWebExchangeMatchers.pathMatchers(HttpMethod.POST, "/login"))
+                        .authenticationSuccessHandler(new RedirectServerAuthenticationSuccessHandler("/"))
+                        .authenticationFailureHandler(new RedirectServerAuthenticationFailureHandler("/loginForm?error"))
+                )
+                .oauth2Login(oauth2 -> {
+                });
+        return http.build();
+    }
+
+    /**
+     * 서블릿 버전과 같은 형식({bcrypt} 접두어, 접두어가 없는 예전 해시는 bcrypt로 검증)이라 같은 DB를 사용할 수 있다.
+     */
+    @Bean
+    public PasswordEncoder encodePwd() {
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT, Map.of(BCRYPT, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegating;
+    }
+}
@@ -0,0 +1,79 @@
+package com.cos.security1.reactive.config.auth;
+
+import com.cos.security1.reactive.model.User;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 리액티브 버전의 Authentication 안에 들어가는 객체 (서블릿 버전의 PrincipalDetails와 같은 역할)
+ * 일반 로그인(UserDetails), OAuth 로그인(OAuth2User) 모두 이 타입으로 받을 수 있다.
+ * WebSession에는 id, username, role, provider만 남는다. (password는 로그인이 끝나면 지워지고, attributes는 들고 있지 않는다.)
+ */
+@Getter
+@ToString(exclude = "password")
+public class PrincipalDetails implements UserDetails, OAuth2User, CredentialsContainer {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final String username;
+    private final String role;
+    private final String provider;
+
+    private transient String password;
+
+    public PrincipalDetails(User user) {
+        this(user.getId(), user.getUsername(), user.getRole(), user.getProvider(), user.getPassword());
+    }
+
+    public static PrincipalDetails of(Long id, String username, String role, String provider) {
+        return new PrincipalDetails(id, username, role, provider, null);
+    }
+
+    private PrincipalDetails(Long id, String username, String role, String provider, String password) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.provider = provider;
+        this.password = password;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return RoleAuthorities.of(role);
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public Map<String, Object> getAttributes() {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("id", id);
+        attributes.put("username", username);
+        attributes.put("provider", provider);
+        return attributes;
+    }
+
+    @Override
+    public String getName() {
+        return username;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+}
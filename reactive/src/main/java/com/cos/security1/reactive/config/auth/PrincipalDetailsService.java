@@ -0,0 +1,37 @@
+package com.cos.security1.reactive.config.auth;
+
+import com.cos.security1.reactive.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+/**
+ * 폼 로그인(POST /login) 시 호출 (서블릿 버전의 PrincipalDetailsService와 같은 역할)
+ * 비밀번호 검증(bcrypt)은 시큐리티(UserDetailsRepositoryReactiveAuthenticationManager)가 boundedElastic 스레드에서 실행한다. => 이벤트 루프를 막지 않는다.
+ * 저장된 해시가 오래된 형식이면 로그인 성공 시 updatePassword()로 다시 암호화한 값을 저장한다.
+ */
+@Service
+@RequiredArgsConstructor
+public class PrincipalDetailsService implements ReactiveUserDetailsService, ReactiveUserDetailsPasswordService {
+
+    private final UserRepository userRepository;
+
+    @Override
+    public Mono<UserDetails> findByUsername(String username) {
+        return userRepository.findByUsername(username)
+                .map(PrincipalDetails::new); // 없으면 빈 Mono => 시큐리티가 BadCredentialsException 처리
+    }
+
+    @Override
+    public Mono<UserDetails> updatePassword(UserDetails user, String newPassword) {
+        return userRepository.findByUsername(user.getUsername())
+                .flatMap(entity -> {
+                    entity.setPassword(newPassword);
+                    return userRepository.save(entity);
+                })
+                .map(PrincipalDetails::new);
+    }
+}
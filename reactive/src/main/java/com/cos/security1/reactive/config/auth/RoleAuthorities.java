@@ -0,0 +1,39 @@
+package com.cos.security1.reactive.config.auth;
+
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * role(문자열) -> 권한 목록 (서블릿 버전의 RoleAuthorities와 동일)
+ * 역할 계층 : ADMIN ⊃ MANAGER ⊃ USER, 권한 목록을 만들 때 계층까지 미리 펼쳐둔다.
+ */
+public final class RoleAuthorities {
+
+    public static final String USER = "ROLE_USER";
+    public static final String MANAGER = "ROLE_MANAGER";
+    public static final String ADMIN = "ROLE_ADMIN";
+
+    private static final RoleHierarchy ROLE_HIERARCHY = RoleHierarchyImpl.withDefaultRolePrefix()
+            .role("ADMIN").implies("MANAGER")
+            .role("MANAGER").implies("USER")
+            .build();
+
+    private static final Map<String, List<GrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
+    private RoleAuthorities() {
+    }
+
+    public static List<GrantedAuthority> of(String role) {
+        if (role == null) {
+            return List.of();
+        }
+        return AUTHORITIES.computeIfAbsent(role, r ->
+                List.copyOf(ROLE_HIERARCHY.getReachableGrantedAuthorities(List.of(new SimpleGrantedAuthority(r)))));
+    }
+}
@@ -0,0 +1,74 @@
+package com.cos.security1.reactive.config.oauth;
+
+import com.cos.security1.reactive.config.auth.PrincipalDetails;
+import com.cos.security1.reactive.config.auth.RoleAuthorities;
+import com.cos.security1.reactive.config.oauth.provider.OAuth2Provider;
+import com.cos.security1.reactive.config.oauth.provider.OAuth2UserInfo;
+import com.cos.security1.reactive.model.User;
+import com.cos.security1.reactive.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.oauth2.client.userinfo.DefaultReactiveOAuth2UserService;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.client.userinfo.ReactiveOAuth2UserService;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+/**
+ * OAuth 로그인 후처리 (서블릿 버전의 PrincipalOauth2UserService + OAuth2UserJoinService와 같은 역할)
+ * 회원 프로필 조회(DefaultReactiveOAuth2UserService)는 WebClient로 요청하기 때문에 기다리는 동안 이벤트 루프 스레드를 점유하지 않는다.
+ * 회원 조회 -> 없으면 insert, 동시에 첫 로그인해서 유니크 인덱스에 걸리면 먼저 들어간 회원을 다시 조회
+ */
+@Service
+@Slf4j
+public class PrincipalOauth2UserService implements ReactiveOAuth2UserService<OAuth2UserRequest, OAuth2User> {
+
+    private final UserRepository userRepository;
+    private final ReactiveOAuth2UserService<OAuth2UserRequest, OAuth2User> delegate = new DefaultReactiveOAuth2UserService();
+
+    public PrincipalOauth2UserService(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @Override
+    public Mono<OAuth2User> loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
+        String registrationId = userRequest.getClientRegistration().getRegistrationId();
+        OAuth2Provider oAuth2Provider = OAuth2Provider.from(registrationId).orElse(null);
+        if (oAuth2Provider == null) {
+            return Mono.error(new OAuth2AuthenticationException(
+                    new OAuth2Error("unsupported_provider", "지원하지 않는 OAuth 제공자입니다. : " + registrationId, null)));
+        }
+        return delegate.loadUser(userRequest)
+                .map(oAuth2User -> oAuth2Provider.extract(oAuth2User.getAttributes()))
+                .filter(userInfo -> StringUtils.hasText(userInfo.providerId()))
+                .switchIfEmpty(Mono.error(() -> new OAuth2AuthenticationException(
+                        new OAuth2Error("invalid_user_info", "회원 식별값(providerId)이 없습니다. : " + registrationId, null))))
+                .flatMap(this::findOrJoin)
+                .map(PrincipalDetails::new);
+    }
+
+    private Mono<User> findOrJoin(OAuth2UserInfo userInfo) {
+        return userRepository.findByProviderAndProviderId(userInfo.provider(), userInfo.providerId())
+                .switchIfEmpty(Mono.defer(() -> join(userInfo)));
+    }
+
+    private Mono<User> join(OAuth2UserInfo userInfo) {
+        log.info("최초 로그인입니다. 회원가입을 진행합니다. : {}", userInfo.provider());
+        User user = User.builder()
+                .username(userInfo.provider() + "_" + userInfo.providerId())
+                .password(User.UNUSABLE_PASSWORD)
+                .email(userInfo.email())
+                .role(RoleAuthorities.USER)
+                .provider(userInfo.provider())
+                .providerId(userInfo.providerId())
+                .build();
+        return userRepository.insert(user)
+                .onErrorResume(DataIntegrityViolationException.class, e ->
+                        userRepository.findByProviderAndProviderId(userInfo.provider(), userInfo.providerId())
+                                .switchIfEmpty(Mono.error(e)));
+    }
+}
@@ -0,0 +1,52 @@
+package com.cos.security1.reactive.config.oauth.provider;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 지원하는 OAuth 제공자 목록 (서블릿 버전의 OAuth2Provider와 같은 규칙)
+ * google : sub, facebook : id, naver : response.id
+ */
+public enum OAuth2Provider {
+
+    GOOGLE("google", attributes -> userInfo("google", attributes, "sub")),
+    FACEBOOK("facebook", attributes -> userInfo("facebook", attributes, "id")),
+    NAVER("naver", attributes -> userInfo("naver", nested(attributes, "response"), "id"));
+
+    private static final Map<String, OAuth2Provider> BY_REGISTRATION_ID = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(OAuth2Provider::getRegistrationId, Function.identity()));
+
+    private final String registrationId;
+    private final Function<Map<String, Object>, OAuth2UserInfo> extractor;
+
+    OAuth2Provider(String registrationId, Function<Map<String, Object>, OAuth2UserInfo> extractor) {
+        this.registrationId = registrationId;
+        this.extractor = extractor;
+    }
+
+    public static Optional<OAuth2Provider> from(String registrationId) {
+        return Optional.ofNullable(BY_REGISTRATION_ID.get(registrationId));
+    }
+
+    public String getRegistrationId() {
+        return registrationId;
+    }
+
+    public OAuth2UserInfo extract(Map<String, Object> attributes) {
+        return extractor.apply(attributes);
+    }
+
+    private static OAuth2UserInfo userInfo(String provider, Map<String, Object> attributes, String idKey) {
+        return new OAuth2UserInfo(provider, (String) attributes.get(idKey), (String) attributes.get("email"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> nested(Map<String, Object> attributes, String key) {
+        Object value = attributes.get(key);
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+}
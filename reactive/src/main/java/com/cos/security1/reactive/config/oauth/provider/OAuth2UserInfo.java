@@ -0,0 +1,7 @@
+package com.cos.security1.reactive.config.oauth.provider;
+
+/**
+ * OAuth 제공자가 준 attributes에서 회원가입에 필요한 값만 꺼낸 것
+ */
+public record OAuth2UserInfo(String provider, String providerId, String email) {
+}
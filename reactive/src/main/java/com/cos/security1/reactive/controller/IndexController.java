@@ -0,0 +1,97 @@
+package com.cos.security1.reactive.controller;
+
+import com.cos.security1.reactive.config.auth.PrincipalDetails;
+import com.cos.security1.reactive.config.auth.RoleAuthorities;
+import com.cos.security1.reactive.model.User;
+import com.cos.security1.reactive.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.ResponseBody;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * 서블릿 버전 IndexController와 같은 경로
+ * 리액티브 메서드 보안(@PreAuthorize)은 반환 타입이 Mono/Flux여야 적용된다.
+ */
+@Controller
+@RequiredArgsConstructor
+@Slf4j
+public class IndexController {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    @GetMapping({"", "/"})
+    public String index() {
+        return "index";
+    }
+
+    @ResponseBody
+    @GetMapping("/user")
+    public Mono<String> user(@AuthenticationPrincipal PrincipalDetails principalDetails) {
+        log.debug("principalDetails : {}", principalDetails);
+        return Mono.just("user");
+    }
+
+    @ResponseBody
+    @GetMapping("/admin")
+    public Mono<String> admin() {
+        return Mono.just("admin");
+    }
+
+    @ResponseBody
+    @GetMapping("/manager")
+    public Mono<String> manager() {
+        return Mono.just("manager");
+    }
+
+    @GetMapping("/loginForm")
+    public String loginForm() {
+        return "loginForm";
+    }
+
+    @GetMapping("/joinForm")
+    public String joinForm() {
+        return "joinForm";
+    }
+
+    /**
+     * bcrypt는 CPU를 오래 쓰기 때문에 이벤트 루프가 아니라 boundedElastic 스레드에서 암호화한다.
+     * 이미 있는 username(ux_user_username 위반)이면 500 대신 회원가입 페이지로 돌려보낸다. (서블릿 버전과 동일)
+     */
+    @PostMapping("/join")
+    public Mono<String> join(User user) {
+        user.setRole(RoleAuthorities.USER);
+        return Mono.fromCallable(() -> passwordEncoder.encode(user.getPassword()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(encPassword -> {
+                    user.setPassword(encPassword);
+                    return userRepository.insert(user);
+                })
+                .thenReturn("redirect:/loginForm")
+                .onErrorResume(DataIntegrityViolationException.class, e -> Mono.just("redirect:/joinForm?error"));
+    }
+
+    // 서블릿 버전의 @Secured("ROLE_ADMIN")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @ResponseBody
+    @GetMapping("/info")
+    public Mono<String> info() {
+        return Mono.just("개인정보");
+    }
+
+    @PreAuthorize("hasRole('ROLE_MANAGER') or hasRole('ROLE_ADMIN')")
+    @ResponseBody
+    @GetMapping("/data")
+    public Mono<String> data() {
+        return Mono.just("데이터 정보");
+    }
+}
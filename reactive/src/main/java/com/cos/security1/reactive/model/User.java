@@ -0,0 +1,37 @@
+package com.cos.security1.reactive.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.sql.Timestamp;
+
+/**
+ * 서블릿 버전의 User 엔티티와 같은 테이블(user)을 사용한다. (컬럼명은 snake_case : provider_id, create_date)
+ * id는 auto increment가 아니라 JPA(Hibernate)와 같은 user_seq 테이블에서 받아온다. (UserRepositoryCustomImpl)
+ */
+@Table("user")
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class User {
+
+    public static final String UNUSABLE_PASSWORD = "!oauth2"; // OAuth 회원 비밀번호 자리 (서블릿 버전과 동일)
+
+    @Id
+    private Long id;
+
+    private String username;
+    private String password;
+    private String email;
+    private String role;
+
+    private String provider;
+    private String providerId;
+
+    private Timestamp createDate;
+}
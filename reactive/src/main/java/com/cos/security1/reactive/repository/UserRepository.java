@@ -0,0 +1,12 @@
+package com.cos.security1.reactive.repository;
+
+import com.cos.security1.reactive.model.User;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Mono;
+
+public interface UserRepository extends ReactiveCrudRepository<User, Long>, UserRepositoryCustom {
+
+    Mono<User> findByUsername(String username);
+
+    Mono<User> findByProviderAndProviderId(String provider, String providerId);
+}
@@ -0,0 +1,13 @@
+package com.cos.security1.reactive.repository;
+
+import com.cos.security1.reactive.model.User;
+import reactor.core.publisher.Mono;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * id를 발급해서 insert
+     * save()는 id가 있으면 update를 하기 때문에 회원가입은 이 메서드를 사용한다.
+     */
+    Mono<User> insert(User user);
+}
@@ -0,0 +1,95 @@
+package com.cos.security1.reactive.repository;
+
+import com.cos.security1.reactive.model.User;
+import org.springframework.data.r2dbc.core.R2dbcEntityTemplate;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.ReactiveTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 서블릿 버전(JPA)과 같은 user 테이블에 insert하기 때문에 id도 같은 방식으로 발급받아야 한다.
+ * Hibernate는 user_seq 테이블의 next_val을 읽고(X) allocationSize(50)만큼 올린 뒤, (X - 50, X] 범위의 id를 메모리에서 하나씩 사용한다.
+ * 여기서도 똑같이 next_val을 읽고 50만큼 올린 뒤 (X - 50, X] 범위를 사용한다. => 두 버전이 같은 DB를 써도 id가 겹치지 않는다.
+ * 범위를 다 쓰면 다시 받아오고, 동시에 받아온 경우 하나만 사용한다. (락 없이 AtomicReference로 교체)
+ * 주의 : Hibernate는 처음 읽은 값이 1(빈 테이블)이면 한 번 더 읽어서 [1, 두 번째 값] 범위를 쓴다.
+ * 그래서 빈 테이블에서 두 버전이 동시에 첫 id를 받아오는 경우에만 겹칠 수 있다. => 서블릿 버전이 스키마를 만들고 먼저 실행되는 구성을 기준으로 한다.
+ */
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    static final int ALLOCATION_SIZE = 50; // 서블릿 버전 User 엔티티의 allocationSize와 같아야 한다.
+
+    private final R2dbcEntityTemplate template;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final AtomicReference<IdBlock> block = new AtomicReference<>(IdBlock.EMPTY);
+
+    UserRepositoryCustomImpl(R2dbcEntityTemplate template, DatabaseClient databaseClient, ReactiveTransactionManager transactionManager) {
+        this.template = template;
+        this.databaseClient = databaseClient;
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+    }
+
+    @Override
+    public Mono<User> insert(User user) {
+        return nextId().flatMap(id -> {
+            user.setId(id);
+            user.setCreateDate(Timestamp.from(Instant.now()));
+            return template.insert(user);
+        });
+    }
+
+    private Mono<Long> nextId() {
+        return Mono.defer(() -> {
+            IdBlock current = block.get();
+            long id = current.next();
+            if (id != IdBlock.EXHAUSTED) {
+                return Mono.just(id);
+            }
+            return allocate().flatMap(allocated -> {
+                block.compareAndSet(current, allocated); // 다른 요청이 먼저 교체했으면 받아온 범위는 버린다.
+                return nextId();
+            });
+        });
+    }
+
+    // select ... for update + update를 한 트랜잭션으로 묶어서 다른 서버(서블릿 버전 포함)와 같은 값을 읽지 않게 한다.
+    private Mono<IdBlock> allocate() {
+        return databaseClient.sql("select next_val from user_seq for update")
+                .map(row -> row.get("next_val", Long.class))
+                .one()
+                .flatMap(hi -> databaseClient.sql("update user_seq set next_val = :next")
+                        .bind("next", hi + ALLOCATION_SIZE)
+                        .then()
+                        .thenReturn(new IdBlock(Math.max(hi - ALLOCATION_SIZE + 1, 1), hi)))
+                .as(transactionalOperator::transactional);
+    }
+
+    /**
+     * [next, hi] 범위의 id
+     * next는 여러 요청이 동시에 가져가기 때문에 AtomicLong으로 증가시킨다.
+     */
+    private static final class IdBlock {
+
+        static final long EXHAUSTED = -1;
+        static final IdBlock EMPTY = new IdBlock(1, 0);
+
+        private final AtomicLong next;
+        private final long hi;
+
+        IdBlock(long next, long hi) {
+            this.next = new AtomicLong(next);
+            this.hi = hi;
+        }
+
+        long next() {
+            long id = next.getAndIncrement();
+            return id <= hi ? id : EXHAUSTED;
+        }
+    }
+}
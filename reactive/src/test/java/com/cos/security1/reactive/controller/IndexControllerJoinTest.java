@@ -0,0 +1,66 @@
+package com.cos.security1.reactive.controller;
+
+import com.cos.security1.reactive.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IndexControllerJoinTest {
+
+    static final String USERNAME = "join_tester";
+
+    @Autowired
+    ApplicationContext context;
+
+    @Autowired
+    UserRepository userRepository;
+
+    WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToApplicationContext(context)
+                .apply(springSecurity())
+                .configureClient()
+                .build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.findByUsername(USERNAME).flatMap(userRepository::delete).block();
+    }
+
+    @Test
+    void 이미_있는_username으로_가입하면_회원가입_페이지로_돌아간다() {
+        assertThat(join("first@example.com")).isEqualTo("/loginForm");
+
+        assertThat(join("second@example.com")).isEqualTo("/joinForm?error"); // 유니크 인덱스 위반 => 500이 아니다.
+
+        assertThat(userRepository.findByUsername(USERNAME).block().getEmail()).isEqualTo("first@example.com");
+    }
+
+    // 리다이렉트된 경로
+    private String join(String email) {
+        return webTestClient.post().uri("/join")
+                .body(BodyInserters.fromFormData("username", USERNAME)
+                        .with("password", "1234")
+                        .with("email", email))
+                .exchange()
+                .expectStatus().is3xxRedirection()
+                .returnResult(Void.class)
+                .getResponseHeaders()
+                .getFirst(HttpHeaders.LOCATION);
+    }
+}
@@ -0,0 +1,50 @@
+package com.cos.security1.reactive.controller;
+
+import com.cos.security1.reactive.config.auth.PrincipalDetails;
+import com.cos.security1.spec.Outcome;
+import com.cos.security1.spec.RouteRoleSpec;
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockUser;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.springSecurity;
+
+/**
+ * 리액티브 버전 경로/권한 테스트 (서블릿 버전과 같은 규칙 : RouteRoleSpec)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class IndexControllerRouteTest extends RouteRoleSpec {
+
+    @Autowired
+    ApplicationContext context;
+
+    WebTestClient webTestClient;
+
+    @BeforeEach
+    void setUp() {
+        webTestClient = WebTestClient.bindToApplicationContext(context)
+                .apply(springSecurity())
+                .configureClient()
+                .build();
+    }
+
+    @Override
+    protected Outcome request(String path, String role) {
+        WebTestClient client = webTestClient;
+        if (role != null) {
+            client = client.mutateWith(mockUser(PrincipalDetails.of(1L, "tester", role, null)));
+        }
+        EntityExchangeResult<byte[]> result = client.get().uri(path)
+                .exchange()
+                .expectBody()
+                .returnResult();
+        return Outcome.of(result.getStatus().value(), result.getResponseHeaders().getFirst(HttpHeaders.LOCATION));
+    }
+}
@@ -0,0 +1,67 @@
+package com.cos.security1.reactive.repository;
+
+import com.cos.security1.reactive.model.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.r2dbc.DataR2dbcTest;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataR2dbcTest
+@ActiveProfiles("test")
+class UserRepositoryTest {
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    DatabaseClient databaseClient;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll().block();
+    }
+
+    @Test
+    void 동시에_insert해도_id가_겹치지_않는다() {
+        List<Long> ids = Flux.range(0, 120)
+                .flatMap(i -> userRepository.insert(User.builder()
+                        .username("user" + i)
+                        .password("{bcrypt}hash")
+                        .role("ROLE_USER")
+                        .build()), 16)
+                .map(User::getId)
+                .collectList()
+                .block();
+
+        assertThat(ids).hasSize(120).doesNotHaveDuplicates().allMatch(id -> id > 0);
+        // 사용한 id는 모두 user_seq가 가리키는 값보다 작다. => 다음에 Hibernate가 받아가는 범위와 겹치지 않는다.
+        Long nextVal = databaseClient.sql("select next_val from user_seq")
+                .map(row -> row.get("next_val", Long.class))
+                .one()
+                .block();
+        assertThat(ids).allMatch(id -> id <= nextVal - UserRepositoryCustomImpl.ALLOCATION_SIZE);
+    }
+
+    @Test
+    void provider와_providerId로_조회한다() {
+        userRepository.insert(User.builder()
+                .username("google_1234")
+                .password(User.UNUSABLE_PASSWORD)
+                .role("ROLE_USER")
+                .provider("google")
+                .providerId("1234")
+                .build()).block();
+
+        User found = userRepository.findByProviderAndProviderId("google", "1234").block();
+
+        assertThat(found).isNotNull();
+        assertThat(found.getUsername()).isEqualTo("google_1234");
+    }
+}
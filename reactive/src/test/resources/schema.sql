@@ -0,0 +1,19 @@
+-- 서블릿 버전(JPA)이 만드는 테이블과 같은 구조
+create table if not exists user (
+    id bigint not null,
+    username varchar(255),
+    password varchar(255),
+    email varchar(255),
+    role varchar(255),
+    provider varchar(255),
+    provider_id varchar(255),
+    create_date timestamp,
+    primary key (id)
+);
+create unique index if not exists ux_user_username on user (username);
+create unique index if not exists ux_user_provider on user (provider, provider_id);
+
+create table if not exists user_seq (
+    next_val bigint
+);
+insert into user_seq (next_val) select 1 where not exists (select 1 from user_seq);
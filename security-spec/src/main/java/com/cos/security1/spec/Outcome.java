@@ -0,0 +1,25 @@
+package com.cos.security1.spec;
+
+/**
+ * 요청 결과
+ * OK : 2xx
+ * LOGIN : 로그인 페이지(/loginForm)로 이동 (로그인하지 않은 사용자)
+ * FORBIDDEN : 403 (로그인했지만 권한 없음)
+ */
+public enum Outcome {
+
+    OK, LOGIN, FORBIDDEN, OTHER;
+
+    public static Outcome of(int status, String location) {
+        if (status >= 200 && status < 300) {
+            return OK;
+        }
+        if (status >= 300 && status < 400 && location != null && location.endsWith("/loginForm")) {
+            return LOGIN;
+        }
+        if (status == 403) {
+            return FORBIDDEN;
+        }
+        return OTHER;
+    }
+}
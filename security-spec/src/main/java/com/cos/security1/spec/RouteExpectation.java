@@ -0,0 +1,46 @@
+package com.cos.security1.spec;
+
+import java.util.List;
+
+/**
+ * 경로 + role(null이면 로그인하지 않은 사용자) => 기대 결과
+ * 역할 계층 : ADMIN ⊃ MANAGER ⊃ USER
+ */
+public record RouteExpectation(String path, String role, Outcome outcome) {
+
+    public static final String USER = "ROLE_USER";
+    public static final String MANAGER = "ROLE_MANAGER";
+    public static final String ADMIN = "ROLE_ADMIN";
+
+    public static final List<RouteExpectation> ALL = List.of(
+            // 로그인만 하면 접근 가능
+            new RouteExpectation("/user", null, Outcome.LOGIN),
+            new RouteExpectation("/user", USER, Outcome.OK),
+            new RouteExpectation("/user", MANAGER, Outcome.OK),
+            new RouteExpectation("/user", ADMIN, Outcome.OK),
+            // MANAGER 이상
+            new RouteExpectation("/manager", null, Outcome.LOGIN),
+            new RouteExpectation("/manager", USER, Outcome.FORBIDDEN),
+            new RouteExpectation("/manager", MANAGER, Outcome.OK),
+            new RouteExpectation("/manager", ADMIN, Outcome.OK),
+            // ADMIN만
+            new RouteExpectation("/admin", null, Outcome.LOGIN),
+            new RouteExpectation("/admin", USER, Outcome.FORBIDDEN),
+            new RouteExpectation("/admin", MANAGER, Outcome.FORBIDDEN),
+            new RouteExpectation("/admin", ADMIN, Outcome.OK),
+            // 메서드 보안 (URL은 누구나 접근 가능)
+            new RouteExpectation("/info", null, Outcome.LOGIN),
+            new RouteExpectation("/info", USER, Outcome.FORBIDDEN),
+            new RouteExpectation("/info", MANAGER, Outcome.FORBIDDEN),
+            new RouteExpectation("/info", ADMIN, Outcome.OK),
+            new RouteExpectation("/data", null, Outcome.LOGIN),
+            new RouteExpectation("/data", USER, Outcome.FORBIDDEN),
+            new RouteExpectation("/data", MANAGER, Outcome.OK),
+            new RouteExpectation("/data", ADMIN, Outcome.OK)
+    );
+
+    @Override
+    public String toString() {
+        return path + " (" + (role != null ? role : "anonymous") + ") => " + outcome;
+    }
+}
@@ -0,0 +1,27 @@
+package com.cos.security1.spec;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 서블릿 버전과 리액티브 버전이 같은 경로/권한 규칙을 지키는지 확인하는 테스트
+ * 각 버전의 테스트가 이 클래스를 상속받고 request()만 구현한다. (MockMvc, WebTestClient)
+ */
+public abstract class RouteRoleSpec {
+
+    /**
+     * role이 null이면 로그인하지 않고 요청
+     */
+    protected abstract Outcome request(String path, String role) throws Exception;
+
+    @TestFactory
+    protected Stream<DynamicTest> 경로별_권한() {
+        return RouteExpectation.ALL.stream()
+                .map(expectation -> DynamicTest.dynamicTest(expectation.toString(),
+                        () -> assertEquals(expectation.outcome(), request(expectation.path(), expectation.role()))));
+    }
+}
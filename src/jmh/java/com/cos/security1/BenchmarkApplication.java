@@ -0,0 +1,67 @@
+package com.cos.security1;
+
+import com.cos.security1.config.auth.UsernameFilter;
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 벤치마크용 애플리케이션 실행
+ * MySQL, 실제 OAuth 제공자 없이 H2 인메모리 DB로 애플리케이션 전체(실제 빈)를 띄운다. (application-test.yml과 같은 설정)
+ * 일반 회원(user0 ~ user{n-1})과 구글 회원(google_0 ~ google_{n-1})을 미리 넣어둔다.
+ */
+public final class BenchmarkApplication {
+
+    public static final String PASSWORD = "1234";
+
+    private BenchmarkApplication() {
+    }
+
+    public static ConfigurableApplicationContext start(int users, String... properties) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Security1Application.class)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "server.port=0",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:bench;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+                        "spring.datasource.username=sa",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "spring.security.oauth2.client.registration.google.client-id=bench-client",
+                        "spring.security.oauth2.client.registration.google.client-secret=bench-secret",
+                        "spring.security.oauth2.client.registration.google.scope=email,profile",
+                        "password.bcrypt.min-strength=4", // 시작할 때 cost 측정을 건너뛴다.
+                        "password.bcrypt.max-strength=4")
+                .properties(properties)
+                .run();
+        seed(context.getBean(UserRepository.class), users);
+        context.getBean(UsernameFilter.class).rebuild(); // saveAll()로 넣은 회원은 username 필터에 없다.
+        return context;
+    }
+
+    private static void seed(UserRepository userRepository, int users) {
+        String password = "{bcrypt}" + new BCryptPasswordEncoder(4).encode(PASSWORD); // 모든 회원이 같은 해시를 사용
+        List<User> batch = new ArrayList<>(users * 2);
+        for (int i = 0; i < users; i++) {
+            batch.add(User.builder()
+                    .username("user" + i)
+                    .password(password)
+                    .email("user" + i + "@example.com")
+                    .role("ROLE_USER")
+                    .build());
+            batch.add(User.builder()
+                    .username("google_" + i)
+                    .password(User.UNUSABLE_PASSWORD)
+                    .email("google" + i + "@example.com")
+                    .role("ROLE_USER")
+                    .provider("google")
+                    .providerId(String.valueOf(i))
+                    .build());
+        }
+        userRepository.saveAll(batch);
+    }
+}
@@ -0,0 +1,62 @@
+package com.cos.security1.config.auth;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 요청 인가 검사 (SecurityConfig의 .requestMatchers("/manager/**").hasRole("MANAGER"))
+ * flattened : 지금 방식 => 권한 목록에 계층이 미리 펼쳐져 있다. (RoleAuthorities)
+ * hierarchy : RoleHierarchy를 빈으로 등록하는 기본 방식 => 검사할 때마다 계층을 계산한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AuthorizationBenchmark {
+
+    @Param({"ROLE_USER", "ROLE_ADMIN"})
+    String role;
+
+    private AuthorityAuthorizationManager<Object> flattened;
+    private AuthorityAuthorizationManager<Object> hierarchy;
+    private Authentication flattenedAuthentication;
+    private Authentication hierarchyAuthentication;
+
+    @Setup
+    public void setUp() {
+        flattened = AuthorityAuthorizationManager.hasRole("MANAGER");
+        hierarchy = AuthorityAuthorizationManager.hasRole("MANAGER");
+        hierarchy.setRoleHierarchy(RoleHierarchyImpl.withDefaultRolePrefix()
+                .role("ADMIN").implies("MANAGER")
+                .role("MANAGER").implies("USER")
+                .build());
+
+        PrincipalDetails principal = PrincipalDetails.of(1L, "tester", role, null);
+        flattenedAuthentication = UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+        hierarchyAuthentication = UsernamePasswordAuthenticationToken.authenticated(principal, null, List.of(new SimpleGrantedAuthority(role)));
+    }
+
+    @Benchmark
+    public AuthorizationResult flattened() {
+        return flattened.authorize(() -> flattenedAuthentication, null);
+    }
+
+    @Benchmark
+    public AuthorizationResult hierarchy() {
+        return hierarchy.authorize(() -> hierarchyAuthentication, null);
+    }
+}
@@ -0,0 +1,81 @@
+package com.cos.security1.config.auth;
+
+import com.cos.security1.controller.IndexController;
+import org.aopalliance.intercept.MethodInvocation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.authorization.method.SecuredAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메서드 보안 검사 (IndexController.info의 @Secured, IndexController.data의 @PreAuthorize)
+ * secured : 기본 @Secured
+ * preAuthorize : 기본 @PreAuthorize (호출마다 SpEL 실행)
+ * cachingPreAuthorize : 지금 방식 (MethodSecurityConfig => SpEL 컴파일 + 권한 목록별 결과 캐싱)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MethodSecurityBenchmark {
+
+    @Param({"ROLE_USER", "ROLE_MANAGER"})
+    String role;
+
+    private SecuredAuthorizationManager secured;
+    private PreAuthorizeAuthorizationManager preAuthorize;
+    private CachingPreAuthorizeAuthorizationManager cachingPreAuthorize;
+    private MethodInvocation info;
+    private MethodInvocation data;
+    private Authentication authentication;
+
+    @Setup
+    public void setUp() throws NoSuchMethodException {
+        secured = new SecuredAuthorizationManager();
+        preAuthorize = new PreAuthorizeAuthorizationManager();
+
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setExpressionParser(new SpelExpressionParser(
+                new SpelParserConfiguration(SpelCompilerMode.MIXED, getClass().getClassLoader())));
+        PreAuthorizeAuthorizationManager compiled = new PreAuthorizeAuthorizationManager();
+        compiled.setExpressionHandler(expressionHandler);
+        cachingPreAuthorize = new CachingPreAuthorizeAuthorizationManager(compiled, 10_000);
+
+        IndexController controller = new IndexController(null, null, null, null);
+        info = new SimpleMethodInvocation(controller, IndexController.class.getMethod("info"));
+        data = new SimpleMethodInvocation(controller, IndexController.class.getMethod("data"));
+
+        PrincipalDetails principal = PrincipalDetails.of(1L, "tester", role, null);
+        authentication = UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities());
+    }
+
+    @Benchmark
+    public AuthorizationResult secured() {
+        return secured.authorize(() -> authentication, info);
+    }
+
+    @Benchmark
+    public AuthorizationResult preAuthorize() {
+        return preAuthorize.authorize(() -> authentication, data);
+    }
+
+    @Benchmark
+    public AuthorizationResult cachingPreAuthorize() {
+        return cachingPreAuthorize.authorize(() -> authentication, data);
+    }
+}
@@ -0,0 +1,88 @@
+package com.cos.security1.config.auth;
+
+import com.cos.security1.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PrincipalDetails.getAuthorities() (요청마다 인가 검사에서 호출)
+ * 시큐리티 세션(SecurityContext) 직렬화/역직렬화 (session.store=file일 때 요청마다 저장/조회)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PrincipalDetailsBenchmark {
+
+    @Param({"ROLE_USER", "ROLE_ADMIN"})
+    String role;
+
+    private PrincipalDetails principal;
+    private SecurityContext securityContext;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        User user = User.builder()
+                .id(1L)
+                .username("google_104857392018374625")
+                .password(User.UNUSABLE_PASSWORD)
+                .email("tester@gmail.com")
+                .role(role)
+                .provider("google")
+                .providerId("104857392018374625")
+                .build();
+        principal = new PrincipalDetails(user, Map.of(
+                "sub", "104857392018374625",
+                "email", "tester@gmail.com",
+                "name", "tester",
+                "picture", "https://lh3.googleusercontent.com/a/photo.jpg"));
+        principal.eraseCredentials();
+        securityContext = new SecurityContextImpl(
+                UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+        serialized = serialize(securityContext);
+    }
+
+    @Benchmark
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return principal.getAuthorities();
+    }
+
+    @Benchmark
+    public byte[] serializeSecurityContext() throws IOException {
+        return serialize(securityContext);
+    }
+
+    @Benchmark
+    public Object deserializeSecurityContext() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+
+    private static byte[] serialize(Object value) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(value);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,59 @@
+package com.cos.security1.config.auth;
+
+import com.cos.security1.BenchmarkApplication;
+import com.cos.security1.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 폼 로그인 시 회원 조회 한 번 (캐시 없이 매번 H2 조회)
+ * entity : 이전 방식 (findByUsername => User 엔티티 + 영속성 컨텍스트, 스냅샷 => PrincipalDetails)
+ * projection : 지금 방식 (findCredentialsByUsername => readOnly 트랜잭션 + 필요한 컬럼만 UserCredentials로 => PrincipalDetails)
+ *
+ * 할당량까지 보려면 : ./gradlew jmh -PjmhIncludes=UserCredentials -PjmhProfilers=gc (gc.alloc.rate.norm = 호출 한 번당 할당 bytes)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserCredentialsBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(USERS, "cache.user.maximum-size=0");
+        userRepository = context.getBean(UserRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PrincipalDetails entity() {
+        return new PrincipalDetails(userRepository.findByUsername(username()));
+    }
+
+    @Benchmark
+    public PrincipalDetails projection() {
+        return new PrincipalDetails(userRepository.findCredentialsByUsername(username()));
+    }
+
+    private static String username() {
+        return "user" + ThreadLocalRandom.current().nextInt(USERS);
+    }
+}
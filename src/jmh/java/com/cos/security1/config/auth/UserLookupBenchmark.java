@@ -0,0 +1,58 @@
+package com.cos.security1.config.auth;
+
+import com.cos.security1.BenchmarkApplication;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 폼 로그인 시 회원 조회 (PrincipalDetailsService.loadUserByUsername)
+ * cache=true : 기본 설정 (CacheConfig, 대부분 캐시 hit)
+ * cache=false : 캐시 크기 0 => 매번 H2 조회 (DB 왕복을 뺀 JPA/Hibernate 비용)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserLookupBenchmark {
+
+    private static final int USERS = 10_000;
+
+    @Param({"true", "false"})
+    boolean cache;
+
+    private ConfigurableApplicationContext context;
+    private PrincipalDetailsService principalDetailsService;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(USERS, "cache.user.maximum-size=" + (cache ? USERS * 2 : 0));
+        principalDetailsService = context.getBean(PrincipalDetailsService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public UserDetails existingUser() {
+        return principalDetailsService.loadUserByUsername("user" + ThreadLocalRandom.current().nextInt(USERS));
+    }
+
+    // 없는 username (크리덴셜 스터핑) : 캐시에 저장하지 않기 때문에 항상 DB 조회
+    @Benchmark
+    public UserDetails missingUser() {
+        return principalDetailsService.loadUserByUsername("nobody" + ThreadLocalRandom.current().nextInt(USERS));
+    }
+}
@@ -0,0 +1,164 @@
+package com.cos.security1.config.logging;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 동시 로그인(8 스레드) 상황에서 로그인 한 번마다 남기던 로그(제공자, 토큰, attributes) 처리량 비교
+ * systemOut : 이전 방식 (System.out.println 3번, 문자열을 먼저 만들고 PrintStream 락을 잡고 쓴다.)
+ * syncLogback : 로거는 바꾸고 appender는 동기 (요청 스레드가 직접 파일에 쓴다.)
+ * asyncLogback : AsyncAppender(neverBlock) => 요청 스레드는 큐에 넣기만 한다. (큐가 가득 차면 버리기 때문에 디스크보다 빠르게 로그가 쌓이면 일부가 빠진다.)
+ * asyncSampled : 지금 방식 (AsyncAppender + SAMPLED 마커 100건 중 1건 + 값 가리기)
+ *
+ * 콘솔 대신 임시 파일에 쓴다. (출력 대상을 같게 맞춰서 appender 방식만 비교)
+ * 인코더는 구조화 로그(StructuredLogEncoder)가 스프링 Environment를 필요로 하기 때문에 PatternLayoutEncoder로 대신한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class LoginLoggingBenchmark {
+
+    private static final String REGISTRATION = "ClientRegistration{registrationId='google', clientId='1234567890-abcdefg.apps.googleusercontent.com', clientSecret='GOCSPX-abcdefghijklmnop', scopes=[email, profile]}";
+    private static final Set<String> SCOPES = Set.of("email", "profile");
+
+    private Path directory;
+    private PrintStream systemOut;
+    private LoggerContext syncContext;
+    private LoggerContext asyncContext;
+    private LoggerContext sampledContext;
+    private Logger syncLogger;
+    private Logger asyncLogger;
+    private Logger sampledLogger;
+    private Map<String, Object> attributes;
+    private String accessToken;
+    private Instant expiresAt;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("login-logging");
+        systemOut = new PrintStream(new FileOutputStream(directory.resolve("system-out.log").toFile()), true);
+
+        syncContext = new LoggerContext();
+        syncLogger = logger(syncContext, fileAppender(syncContext, "sync.log"));
+
+        asyncContext = new LoggerContext();
+        asyncLogger = logger(asyncContext, async(asyncContext, fileAppender(asyncContext, "async.log")));
+
+        sampledContext = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRate(100);
+        filter.start();
+        sampledContext.addTurboFilter(filter);
+        sampledLogger = logger(sampledContext, async(sampledContext, fileAppender(sampledContext, "sampled.log")));
+
+        attributes = new LinkedHashMap<>();
+        attributes.put("sub", "104857392018374625");
+        attributes.put("name", "홍길동");
+        attributes.put("picture", "https://lh3.googleusercontent.com/a/ACg8ocJ1x9Qm4sY2pVh7K3fJ0lq8y1Z5k2n6w4t8r0e3u7i9o1p=s96-c");
+        attributes.put("email", "developer@gmail.com");
+        attributes.put("email_verified", true);
+        accessToken = "ya29.a0AfH6SMBx3kQ2v9Zp7LrT0yWcUe4nHgJd8sFb1oXq";
+        expiresAt = Instant.now().plusSeconds(3600);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        systemOut.close();
+        syncContext.stop();
+        asyncContext.stop();
+        sampledContext.stop();
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public void systemOut() {
+        systemOut.println("getClientRegistration : " + REGISTRATION);
+        systemOut.println("getAccessToken : " + accessToken);
+        systemOut.println("getAttributes  : " + attributes);
+    }
+
+    @Benchmark
+    public void syncLogback() {
+        login(syncLogger);
+    }
+
+    @Benchmark
+    public void asyncLogback() {
+        login(asyncLogger);
+    }
+
+    @Benchmark
+    public void asyncSampled() {
+        sampledLogger.info(SamplingTurboFilter.SAMPLED, "{} 로그인 요청", "google");
+        sampledLogger.info(SamplingTurboFilter.SAMPLED, "{} access token : type={}, scopes={}, expiresAt={}", "google", "Bearer", SCOPES, expiresAt);
+        sampledLogger.info(SamplingTurboFilter.SAMPLED, "{} attributes : {}", "google", LogRedaction.attributes(attributes));
+    }
+
+    private void login(Logger logger) {
+        logger.info("{} 로그인 요청", "google");
+        logger.info("{} access token : type={}, scopes={}, expiresAt={}", "google", "Bearer", SCOPES, expiresAt);
+        logger.info("{} attributes : {}", "google", attributes);
+    }
+
+    private Logger logger(LoggerContext context, Appender<ILoggingEvent> appender) {
+        Logger logger = context.getLogger("login");
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+        return logger;
+    }
+
+    private FileAppender<ILoggingEvent> fileAppender(LoggerContext context, String name) {
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{ISO8601} %-5level [%thread] %logger - %msg%n");
+        encoder.start();
+        FileAppender<ILoggingEvent> appender = new FileAppender<>();
+        appender.setContext(context);
+        appender.setFile(directory.resolve(name).toString());
+        appender.setEncoder(encoder);
+        appender.start();
+        return appender;
+    }
+
+    private AsyncAppender async(LoggerContext context, Appender<ILoggingEvent> delegate) {
+        AsyncAppender appender = new AsyncAppender();
+        appender.setContext(context);
+        appender.setQueueSize(8192);
+        appender.setNeverBlock(true);
+        appender.setIncludeCallerData(false);
+        appender.addAppender(delegate);
+        appender.start();
+        return appender;
+    }
+}
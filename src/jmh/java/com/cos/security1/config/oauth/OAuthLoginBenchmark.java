@@ -0,0 +1,82 @@
+package com.cos.security1.config.oauth;
+
+import com.cos.security1.BenchmarkApplication;
+import com.cos.security1.config.auth.PrincipalDetails;
+import com.cos.security1.config.oauth.provider.OAuth2Provider;
+import com.cos.security1.config.oauth.provider.OAuth2UserInfo;
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OAuth 재로그인 후처리 (PrincipalOauth2UserService.loadUser에서 userinfo 응답을 받은 이후)
+ * attributes -> OAuth2UserInfo -> (provider, providerId)로 회원 조회 -> PrincipalDetails
+ * 제공자 호출(네트워크)은 포함하지 않는다.
+ *
+ * baseline : 예전 방식 (로그인할 때마다 임의의 비밀번호를 bcrypt(cost 10)로 암호화 + username으로 엔티티 조회 + save)
+ * ./gradlew jmh -PjmhIncludes=OAuthLoginBenchmark 로 두 방식을 같이 돌려서 비교한다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OAuthLoginBenchmark {
+
+    private static final int USERS = 10_000;
+
+    private ConfigurableApplicationContext context;
+    private OAuth2UserJoinService joinService;
+    private UserRepository userRepository;
+    private BCryptPasswordEncoder baselineEncoder;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(USERS);
+        joinService = context.getBean(OAuth2UserJoinService.class);
+        userRepository = context.getBean(UserRepository.class);
+        baselineEncoder = new BCryptPasswordEncoder(); // 예전 EncoderConfig (cost 10)
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public PrincipalDetails returningUser() {
+        int i = ThreadLocalRandom.current().nextInt(USERS);
+        Map<String, Object> attributes = Map.of(
+                "sub", String.valueOf(i),
+                "email", "google" + i + "@example.com",
+                "name", "tester");
+        OAuth2UserInfo userInfo = OAuth2Provider.GOOGLE.extract(attributes);
+        return new PrincipalDetails(joinService.findOrJoin(userInfo)); // PrincipalOauth2UserService와 같이 조회 결과(UserIdentity)로 만든다.
+    }
+
+    @Benchmark
+    public PrincipalDetails baseline() {
+        int i = ThreadLocalRandom.current().nextInt(USERS);
+        Map<String, Object> attributes = Map.of(
+                "sub", String.valueOf(i),
+                "email", "google" + i + "@example.com",
+                "name", "tester");
+        OAuth2UserInfo userInfo = OAuth2Provider.GOOGLE.extract(attributes);
+        User user = userRepository.findByUsername(userInfo.getProvider() + "_" + userInfo.getProviderId());
+        user.setPassword(baselineEncoder.encode(UUID.randomUUID().toString()));
+        userRepository.save(user);
+        return new PrincipalDetails(user, attributes);
+    }
+}
@@ -0,0 +1,150 @@
+package com.cos.security1.config.oauth;
+
+import com.cos.security1.BenchmarkApplication;
+import com.cos.security1.config.metrics.AuthMetrics;
+import com.cos.security1.config.oauth.client.OAuth2HttpClient;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OIDC 재로그인 후처리 (PrincipalOidcUserService.loadUser)
+ * idTokenClaims : ID 토큰에 sub, email이 있는 경우 => userinfo 조회 없이 회원 조회 -> PrincipalOidcDetails
+ * userInfoFallback : ID 토큰에 email이 없는 경우 => 가짜 제공자(로컬 HttpServer)의 userinfo 조회 + 회원 조회
+ * 두 결과의 차이가 로그인 1회당 userinfo 조회를 생략해서 줄어든 시간이다.
+ *
+ * userInfoLatency : 가짜 userinfo 응답 지연(ms) => 0이면 로컬 HTTP 요청 비용만, 20이면 실제 제공자의 네트워크 지연을 흉내
+ * ID 토큰 서명 검증(JwtDecoderFactory)은 두 경우 모두 loadUser 전에 똑같이 하기 때문에 포함하지 않는다.
+ * ./gradlew jmh -PjmhIncludes=OidcLoginBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class OidcLoginBenchmark {
+
+    private static final int USERS = 10_000;
+    private static final String CLIENT_ID = "bench-client";
+
+    @Param({"0", "20"})
+    long userInfoLatency;
+
+    private ConfigurableApplicationContext context;
+    private HttpServer identityProvider;
+    private final ExecutorService identityProviderExecutor = Executors.newCachedThreadPool();
+    private PrincipalOidcUserService principalOidcUserService;
+    private OidcUserRequest[] withClaims;
+    private OidcUserRequest[] withoutEmail;
+
+    @Setup
+    public void setUp() throws IOException {
+        context = BenchmarkApplication.start(USERS);
+
+        identityProvider = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        identityProvider.createContext("/userinfo", this::userInfo);
+        identityProvider.setExecutor(identityProviderExecutor);
+        identityProvider.start();
+        String issuer = "http://127.0.0.1:" + identityProvider.getAddress().getPort();
+        ClientRegistration registration = ClientRegistration.withRegistrationId("google")
+                .clientId(CLIENT_ID)
+                .clientSecret("bench-secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .scope("openid", "profile", "email")
+                .authorizationUri(issuer + "/authorize")
+                .tokenUri(issuer + "/token")
+                .userInfoUri(issuer + "/userinfo")
+                .userNameAttributeName("sub")
+                .build();
+
+        // 실제 빈과 같은 구성 (userinfo 조회는 OAuth2HttpClient의 커넥션 풀 사용)
+        principalOidcUserService = new PrincipalOidcUserService(context.getBean(OAuth2UserJoinService.class),
+                context.getBean(OAuth2HttpClient.class), context.getBean(AuthMetrics.class));
+
+        withClaims = new OidcUserRequest[USERS];
+        withoutEmail = new OidcUserRequest[USERS];
+        for (int i = 0; i < USERS; i++) {
+            withClaims[i] = request(registration, issuer, i, true);
+            withoutEmail[i] = request(registration, issuer, i, false);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        identityProvider.stop(0);
+        identityProviderExecutor.shutdownNow();
+        context.close();
+    }
+
+    @Benchmark
+    public OidcUser idTokenClaims() {
+        return principalOidcUserService.loadUser(withClaims[ThreadLocalRandom.current().nextInt(USERS)]);
+    }
+
+    @Benchmark
+    public OidcUser userInfoFallback() {
+        return principalOidcUserService.loadUser(withoutEmail[ThreadLocalRandom.current().nextInt(USERS)]);
+    }
+
+    // 구글 회원 i (BenchmarkApplication의 google_{i}), access token 값 = 회원 번호
+    private static OidcUserRequest request(ClientRegistration registration, String issuer, int i, boolean includeEmail) {
+        Instant now = Instant.now();
+        OidcIdToken.Builder idToken = OidcIdToken.withTokenValue("id-token-" + i)
+                .issuer(issuer)
+                .audience(Set.of(CLIENT_ID))
+                .subject(String.valueOf(i))
+                .issuedAt(now)
+                .expiresAt(now.plus(Duration.ofDays(1)))
+                .claim("name", "tester");
+        if (includeEmail) {
+            idToken.claim("email", "google" + i + "@example.com");
+        }
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, String.valueOf(i),
+                now, now.plus(Duration.ofDays(1)), Set.of("openid", "profile", "email"));
+        return new OidcUserRequest(registration, accessToken, idToken.build());
+    }
+
+    private void userInfo(HttpExchange exchange) throws IOException {
+        String id = exchange.getRequestHeaders().getFirst("Authorization").substring("Bearer ".length());
+        if (userInfoLatency > 0) {
+            try {
+                Thread.sleep(userInfoLatency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        byte[] body = ("{\"sub\":\"" + id + "\",\"email\":\"google" + id + "@example.com\",\"name\":\"tester\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
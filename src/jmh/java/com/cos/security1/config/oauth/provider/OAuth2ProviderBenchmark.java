@@ -0,0 +1,57 @@
+package com.cos.security1.config.oauth.provider;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OAuth 로그인 시 제공자 응답(attributes) -> OAuth2UserInfo 변환 (registrationId로 제공자 조회 + 값 추출)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class OAuth2ProviderBenchmark {
+
+    @Param({"google", "facebook", "naver"})
+    String registrationId;
+
+    private Map<String, Object> attributes;
+
+    @Setup
+    public void setUp() {
+        attributes = switch (registrationId) {
+            case "google" -> Map.of(
+                    "sub", "104857392018374625",
+                    "email", "tester@gmail.com",
+                    "email_verified", true,
+                    "name", "tester",
+                    "picture", "https://lh3.googleusercontent.com/a/photo.jpg");
+            case "facebook" -> Map.of(
+                    "id", "3141592653589793",
+                    "email", "tester@facebook.com",
+                    "name", "tester");
+            default -> Map.of(
+                    "resultcode", "00",
+                    "message", "success",
+                    "response", Map.of(
+                            "id", "nAvEr-ID-1234",
+                            "email", "tester@naver.com",
+                            "name", "tester"));
+        };
+    }
+
+    @Benchmark
+    public OAuth2UserInfo extract() {
+        return OAuth2Provider.from(registrationId)
+                .orElseThrow()
+                .extract(attributes);
+    }
+}
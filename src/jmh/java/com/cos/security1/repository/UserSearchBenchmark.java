@@ -0,0 +1,74 @@
+package com.cos.security1.repository;
+
+import com.cos.security1.BenchmarkApplication;
+import com.cos.security1.model.UserSummary;
+import jakarta.persistence.EntityManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 회원 목록 조회 (UserSearchController) : depth번째 회원부터 한 페이지(50명)
+ * offset : limit depth, 50 => 앞의 depth명을 읽고 버리기 때문에 뒤쪽 페이지일수록 느려진다.
+ * keyset : UserRepositoryCustom.search(cursor) => depth와 관계없이 인덱스에서 바로 시작 위치를 찾는다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class UserSearchBenchmark {
+
+    private static final int USERS = 10_000; // 일반 + 구글 => 20,000명
+    private static final int PAGE_SIZE = 50;
+    private static final UserSearchCondition ALL = new UserSearchCondition(null, null, null, null);
+    private static final String OFFSET = "select new com.cos.security1.model.UserSummary(u.id, u.username, u.email, u.role, u.provider, u.createDate, u.lastLoginDate)"
+            + " from User u order by u.createDate desc, u.id desc";
+
+    @Param({"0", "1000", "19000"})
+    int depth;
+
+    private ConfigurableApplicationContext context;
+    private UserRepository userRepository;
+    private EntityManager entityManager;
+    private UserCursor cursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start(USERS);
+        userRepository = context.getBean(UserRepository.class);
+        entityManager = context.getBean(EntityManager.class);
+        // depth번째 회원 바로 앞의 회원 => 클라이언트가 앞 페이지에서 받은 nextCursor
+        cursor = depth == 0 ? null : UserCursor.after(offset(depth - 1, 1).get(0));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserSummary> offset() {
+        return offset(depth, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<UserSummary> keyset() {
+        return userRepository.search(ALL, cursor, PAGE_SIZE);
+    }
+
+    private List<UserSummary> offset(int first, int size) {
+        return entityManager.createQuery(OFFSET, UserSummary.class)
+                .setFirstResult(first)
+                .setMaxResults(size)
+                .getResultList();
+    }
+}
@@ -0,0 +1,113 @@
+package com.cos.security1.loadtest;
+
+import com.cos.security1.Security1Application;
+import com.cos.security1.config.auth.UsernameFilter;
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로그인 부하 테스트 (./gradlew loadTest)
+ * 1. 제공자별 가짜 OAuth 서버(StubOAuthServer)를 띄운다.
+ * 2. loadtest 프로필로 애플리케이션을 띄운다. (H2 인메모리 DB, OAuth 제공자 주소 => 가짜 서버)
+ * 3. 일반 회원을 미리 넣어두고, 가상 사용자 수만큼 스레드를 띄워서 워밍업 + 측정 시간 동안 요청을 보낸다. (TrafficDriver)
+ * 4. 경로별 처리량, p50/p99/p999를 출력하고 JSON으로 저장한다. 기준을 넘으면 종료 코드 1
+ */
+public class LoadTest {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestSettings settings = LoadTestSettings.fromSystemProperties();
+        boolean passed;
+        try (StubOAuthServer google = new StubOAuthServer("google", settings.oauthIdentities(), settings.stubLatency());
+             StubOAuthServer facebook = new StubOAuthServer("facebook", settings.oauthIdentities(), settings.stubLatency());
+             StubOAuthServer naver = new StubOAuthServer("naver", settings.oauthIdentities(), settings.stubLatency());
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(Security1Application.class)
+                     .profiles("loadtest")
+                     .properties(
+                             "loadtest.stub.google=" + google.uri(),
+                             "loadtest.stub.facebook=" + facebook.uri(),
+                             "loadtest.stub.naver=" + naver.uri())
+                     .run(args)) {
+            seed(context, settings.seedUsers());
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            passed = run(URI.create("http://127.0.0.1:" + port), settings);
+        }
+        System.exit(passed ? 0 : 1); // gradle 태스크 실패로 이어진다.
+    }
+
+    // username, role 규칙은 TrafficDriver.username(), role()과 같다.
+    private static void seed(ConfigurableApplicationContext context, int users) {
+        String password = context.getBean(PasswordEncoder.class).encode(TrafficDriver.PASSWORD); // 모든 회원이 같은 해시를 사용
+        List<User> batch = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            batch.add(User.builder()
+                    .username(TrafficDriver.username(i))
+                    .password(password)
+                    .email(TrafficDriver.username(i) + "@example.com")
+                    .role(TrafficDriver.role(i))
+                    .build());
+        }
+        context.getBean(UserRepository.class).saveAll(batch);
+        context.getBean(UsernameFilter.class).rebuild(); // saveAll()로 넣은 회원은 username 필터에 없다.
+    }
+
+    private static boolean run(URI app, LoadTestSettings settings) throws Exception {
+        RouteStats stats = new RouteStats();
+        TrafficDriver driver = new TrafficDriver(app, settings, stats);
+        long warmupEnd = System.nanoTime() + settings.warmup().toNanos();
+        long end = warmupEnd + settings.duration().toNanos();
+
+        ExecutorService users = Executors.newFixedThreadPool(settings.users());
+        for (int i = 0; i < settings.users(); i++) {
+            users.submit(() -> {
+                while (System.nanoTime() < end && !Thread.currentThread().isInterrupted()) {
+                    driver.iteration();
+                }
+            });
+        }
+        TimeUnit.NANOSECONDS.sleep(warmupEnd - System.nanoTime());
+        stats.startMeasuring();
+        long measureStart = System.nanoTime();
+        users.shutdown();
+        if (!users.awaitTermination(settings.duration().toSeconds() + 60, TimeUnit.SECONDS)) {
+            users.shutdownNow();
+        }
+        Map<String, RouteStats.Result> results = stats.results(Duration.ofNanos(System.nanoTime() - measureStart));
+
+        RouteStats.print(settings.mode(), results);
+        RouteStats.write(settings.report(), settings.mode(), results);
+        if (settings.compareTo() != null) {
+            RouteStats.compare(settings.compareTo(), results);
+        }
+        return check(settings, results);
+    }
+
+    private static boolean check(LoadTestSettings settings, Map<String, RouteStats.Result> results) {
+        boolean passed = true;
+        for (Map.Entry<String, RouteStats.Result> entry : results.entrySet()) {
+            RouteStats.Result result = entry.getValue();
+            double errorRate = result.count() == 0 ? 0 : (double) result.errors() / result.count();
+            if (errorRate > settings.maxErrorRate()) {
+                System.out.printf("[loadtest] FAIL %s : error rate %.2f%% > %.2f%%%n", entry.getKey(), errorRate * 100, settings.maxErrorRate() * 100);
+                passed = false;
+            }
+            if (settings.maxP99() != null && result.p99() > settings.maxP99().toMillis()) {
+                System.out.printf("[loadtest] FAIL %s : p99 %.2fms > %dms%n", entry.getKey(), result.p99(), settings.maxP99().toMillis());
+                passed = false;
+            }
+        }
+        return passed;
+    }
+}
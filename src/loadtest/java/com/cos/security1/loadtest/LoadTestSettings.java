@@ -0,0 +1,46 @@
+package com.cos.security1.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * 부하 테스트 설정 (시스템 프로퍼티, gradle에서는 -Ploadtest.users=64 처럼 넘긴다.)
+ * users : 동시에 요청을 보내는 가상 사용자 수
+ * warmup, duration : 워밍업 시간(결과에서 제외), 측정 시간
+ * seed-users : 미리 넣어두는 일반 회원 수 (USER, MANAGER, ADMIN 골고루)
+ * oauth-identities : 가짜 OAuth 서버가 돌려주는 회원 수 (처음 나온 회원은 회원가입, 이후에는 재로그인)
+ * stub-latency : 가짜 OAuth 서버의 응답 지연
+ * mix : 요청 비율 (폼 로그인 : OAuth 로그인 : 회원가입)
+ * max-error-rate, max-p99 : 넘으면 실패 (max-p99는 설정했을 때만 검사)
+ * report, compare-to : 결과 파일(JSON), 비교할 이전 결과 파일
+ */
+record LoadTestSettings(String mode, int users, Duration warmup, Duration duration,
+                        int seedUsers, int oauthIdentities, Duration stubLatency,
+                        int formLoginWeight, int oauthLoginWeight, int joinWeight,
+                        double maxErrorRate, Duration maxP99, Path report, Path compareTo) {
+
+    static LoadTestSettings fromSystemProperties() {
+        String[] mix = property("mix", "60:30:10").split(":");
+        String maxP99 = property("max-p99", "");
+        String compareTo = property("compare-to", "");
+        return new LoadTestSettings(
+                property("mode", "platform"),
+                Integer.parseInt(property("users", "32")),
+                DurationStyle.detectAndParse(property("warmup", "10s")),
+                DurationStyle.detectAndParse(property("duration", "30s")),
+                Integer.parseInt(property("seed-users", "1000")),
+                Integer.parseInt(property("oauth-identities", "1000")),
+                DurationStyle.detectAndParse(property("stub-latency", "20ms")),
+                Integer.parseInt(mix[0]), Integer.parseInt(mix[1]), Integer.parseInt(mix[2]),
+                Double.parseDouble(property("max-error-rate", "0.01")),
+                maxP99.isEmpty() ? null : DurationStyle.detectAndParse(maxP99),
+                Path.of(property("report", "build/reports/loadtest/result.json")),
+                compareTo.isEmpty() ? null : Path.of(compareTo));
+    }
+
+    private static String property(String name, String defaultValue) {
+        return System.getProperty("loadtest." + name, defaultValue);
+    }
+}
@@ -0,0 +1,106 @@
+package com.cos.security1.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 경로별 응답 시간(HdrHistogram, us 단위)과 에러 수
+ * 워밍업 동안 쌓인 값은 startMeasuring()에서 버린다.
+ */
+class RouteStats {
+
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    void record(String route, long nanos, boolean ok) {
+        Route stats = routes.computeIfAbsent(route, r -> new Route());
+        stats.recorder.recordValue(Math.max(1, nanos / 1_000));
+        if (!ok) {
+            stats.errors.increment();
+        }
+    }
+
+    void startMeasuring() {
+        routes.values().forEach(route -> {
+            route.recorder.getIntervalHistogram(); // 지금까지 쌓인 값 버림
+            route.errors.reset();
+        });
+    }
+
+    Map<String, Result> results(Duration elapsed) {
+        Map<String, Result> results = new TreeMap<>();
+        routes.forEach((name, route) -> {
+            Histogram histogram = route.recorder.getIntervalHistogram();
+            long count = histogram.getTotalCount();
+            results.put(name, new Result(
+                    count,
+                    route.errors.sum(),
+                    count / (elapsed.toMillis() / 1000.0),
+                    millis(histogram.getValueAtPercentile(50)),
+                    millis(histogram.getValueAtPercentile(99)),
+                    millis(histogram.getValueAtPercentile(99.9)),
+                    millis(histogram.getMaxValue())));
+        });
+        return results;
+    }
+
+    static void print(String mode, Map<String, Result> results) {
+        System.out.printf("%n[loadtest] mode=%s%n", mode);
+        System.out.printf("%-40s %9s %7s %10s %9s %9s %9s %9s%n", "route", "count", "errors", "req/s", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        results.forEach((route, r) -> System.out.printf("%-40s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                route, r.count(), r.errors(), r.throughput(), r.p50(), r.p99(), r.p999(), r.max()));
+    }
+
+    static void write(Path report, String mode, Map<String, Result> results) throws IOException {
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("mode", mode);
+        json.put("routes", results);
+        Files.createDirectories(report.toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report.toFile(), json);
+        System.out.printf("[loadtest] report : %s%n", report.toAbsolutePath());
+    }
+
+    // 이전 결과(ex. 플랫폼 스레드)와 비교 : 처리량, p99 변화율
+    static void compare(Path baseline, Map<String, Result> results) throws IOException {
+        JsonNode base = new ObjectMapper().readTree(baseline.toFile());
+        System.out.printf("%n[loadtest] compared to %s (mode=%s)%n", baseline, base.path("mode").asText());
+        System.out.printf("%-40s %12s %12s%n", "route", "req/s", "p99");
+        results.forEach((route, r) -> {
+            JsonNode before = base.path("routes").path(route);
+            if (before.isMissingNode()) {
+                return;
+            }
+            System.out.printf("%-40s %+11.1f%% %+11.1f%%%n", route,
+                    change(before.path("throughput").asDouble(), r.throughput()),
+                    change(before.path("p99").asDouble(), r.p99()));
+        });
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+
+    record Result(long count, long errors, double throughput, double p50, double p99, double p999, double max) {
+    }
+
+    private static final class Route {
+        final Recorder recorder = new Recorder(3); // 유효숫자 3자리, 범위는 자동으로 늘어난다.
+        final LongAdder errors = new LongAdder();
+    }
+}
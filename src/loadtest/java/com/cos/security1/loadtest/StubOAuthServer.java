@@ -0,0 +1,176 @@
+package com.cos.security1.loadtest;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 가짜 OAuth 제공자 (제공자마다 하나씩 띄운다.)
+ * /authorize : 로그인 화면 없이 바로 redirect_uri로 인가 코드를 돌려준다. (회원은 identities명 중에서 무작위)
+ * /token : 인가 코드 -> 액세스 토큰 (토큰 값 = 회원 번호)
+ *          scope에 openid가 있으면(인가 요청에 nonce가 있으면) 서명한 ID 토큰도 같이 준다.
+ *          ID 토큰에 email은 짝수 번호 회원에게만 넣는다. => 홀수 번호 회원은 userinfo를 조회한다. (PrincipalOidcUserService)
+ * /userinfo : 액세스 토큰의 회원 정보를 제공자별 형태로 돌려준다. (naver는 response 안에 한 번 더 감싸서)
+ * /jwks : ID 토큰 검증용 공개키
+ * latency : /token, /userinfo 응답 지연 (실제 제공자의 네트워크 지연 흉내)
+ */
+class StubOAuthServer implements AutoCloseable {
+
+    static final String CLIENT_ID = "loadtest-client"; // application-loadtest.yml의 client-id
+
+    private final String registrationId;
+    private final int identities;
+    private final Duration latency;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final RSAKey signingKey;
+
+    StubOAuthServer(String registrationId, int identities, Duration latency) throws IOException {
+        this.registrationId = registrationId;
+        this.identities = identities;
+        this.latency = latency;
+        try {
+            this.signingKey = new RSAKeyGenerator(2048).keyID(registrationId).generate();
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/authorize", this::authorize);
+        server.createContext("/token", this::token);
+        server.createContext("/userinfo", this::userInfo);
+        server.createContext("/jwks", exchange -> respond(exchange, new JWKSet(signingKey.toPublicJWK()).toString()));
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    String uri() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    // 인가 코드 => 회원 번호 (TrafficDriver가 콜백 요청을 ID 토큰 / userinfo 경로로 나눠서 기록할 때 사용)
+    static int identityOf(String code) {
+        return Integer.parseInt(code.split("\\.", 2)[0]);
+    }
+
+    static boolean idTokenHasEmail(int identity) {
+        return identity % 2 == 0;
+    }
+
+    private void authorize(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parse(exchange.getRequestURI().getRawQuery());
+        String code = String.valueOf(ThreadLocalRandom.current().nextInt(identities));
+        if (query.containsKey("nonce")) { // OIDC : ID 토큰에 넣을 nonce를 인가 코드에 같이 담아둔다.
+            code += "." + query.get("nonce");
+        }
+        String location = query.get("redirect_uri")
+                + "?code=" + code
+                + "&state=" + URLEncoder.encode(query.getOrDefault("state", ""), StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Location", location);
+        exchange.sendResponseHeaders(302, -1);
+        exchange.close();
+    }
+
+    private void token(HttpExchange exchange) throws IOException {
+        Map<String, String> form = parse(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        String[] code = form.get("code").split("\\.", 2);
+        delay();
+        String idToken = code.length > 1 ? ",\"id_token\":\"" + idToken(code[0], code[1]) + "\"" : "";
+        respond(exchange, "{\"access_token\":\"" + code[0] + "\",\"token_type\":\"Bearer\",\"expires_in\":3600" + idToken + "}");
+    }
+
+    private String idToken(String id, String nonce) {
+        Instant now = Instant.now();
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .issuer(uri())
+                .audience(CLIENT_ID)
+                .subject(id)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(300)))
+                .claim("nonce", nonce)
+                .claim("name", "tester" + id);
+        if (idTokenHasEmail(Integer.parseInt(id))) {
+            claims.claim("email", registrationId + id + "@example.com");
+        }
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(signingKey.getKeyID()).build(), claims.build());
+        try {
+            jwt.sign(new RSASSASigner(signingKey));
+        } catch (JOSEException e) {
+            throw new IllegalStateException(e);
+        }
+        return jwt.serialize();
+    }
+
+    private void userInfo(HttpExchange exchange) throws IOException {
+        String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+        String id = authorization != null ? authorization.substring("Bearer ".length()) : "";
+        delay();
+        String profile = "\"email\":\"" + registrationId + id + "@example.com\",\"name\":\"tester" + id + "\"";
+        respond(exchange, switch (registrationId) {
+            case "google" -> "{\"sub\":\"" + id + "\"," + profile + "}";
+            case "naver" -> "{\"resultcode\":\"00\",\"message\":\"success\",\"response\":{\"id\":\"" + id + "\"," + profile + "}}";
+            default -> "{\"id\":\"" + id + "\"," + profile + "}";
+        });
+    }
+
+    private void delay() {
+        if (latency.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(latency.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static Map<String, String> parse(String query) {
+        Map<String, String> values = new LinkedHashMap<>();
+        if (query == null || query.isEmpty()) {
+            return values;
+        }
+        for (String pair : query.split("&")) {
+            String[] keyValue = pair.split("=", 2);
+            values.put(URLDecoder.decode(keyValue[0], StandardCharsets.UTF_8),
+                    keyValue.length > 1 ? URLDecoder.decode(keyValue[1], StandardCharsets.UTF_8) : "");
+        }
+        return values;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,191 @@
+package com.cos.security1.loadtest;
+
+import com.cos.security1.config.auth.RoleAuthorities;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntPredicate;
+
+/**
+ * 가상 사용자 한 명이 반복하는 요청 (매번 새 브라우저처럼 쿠키 없이 시작 => 매번 로그인)
+ * 폼 로그인 : POST /login -> GET /user, /manager, /admin (role에 따라 200 또는 403)
+ * OAuth 로그인 : GET /oauth2/authorization/{id} -> (가짜 제공자 /authorize) -> GET /login/oauth2/code/{id} -> GET /user, /manager, /admin
+ *   구글은 OIDC 로그인이라 콜백을 ID 토큰만으로 처리한 경우(id-token)와 userinfo를 조회한 경우(userinfo)로 나눠서 기록한다. (StubOAuthServer.idTokenHasEmail)
+ *   => 두 경로의 차이가 userinfo 조회를 생략해서 줄어든 시간
+ * 회원가입 : POST /join
+ */
+class TrafficDriver {
+
+    static final String PASSWORD = "loadtest-password";
+    static final List<String> ROLES = List.of(RoleAuthorities.USER, RoleAuthorities.MANAGER, RoleAuthorities.ADMIN);
+    private static final List<String> PROVIDERS = List.of("google", "facebook", "naver");
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final AtomicLong joinSequence = new AtomicLong();
+    private final URI app;
+    private final LoadTestSettings settings;
+    private final RouteStats stats;
+
+    TrafficDriver(URI app, LoadTestSettings settings, RouteStats stats) {
+        this.app = app;
+        this.settings = settings;
+        this.stats = stats;
+    }
+
+    // 회원 번호 i의 username, role (LoadTest.seed와 같은 규칙)
+    static String username(int i) {
+        return "loaduser" + i;
+    }
+
+    static String role(int i) {
+        return ROLES.get(i % ROLES.size());
+    }
+
+    void iteration() {
+        int total = settings.formLoginWeight() + settings.oauthLoginWeight() + settings.joinWeight();
+        int pick = ThreadLocalRandom.current().nextInt(total);
+        Session session = new Session();
+        if (pick < settings.formLoginWeight()) {
+            int i = ThreadLocalRandom.current().nextInt(settings.seedUsers());
+            if (session.formLogin(username(i))) {
+                session.browse(role(i));
+            }
+        } else if (pick < settings.formLoginWeight() + settings.oauthLoginWeight()) {
+            String registrationId = PROVIDERS.get(ThreadLocalRandom.current().nextInt(PROVIDERS.size()));
+            if (session.oauthLogin(registrationId)) {
+                session.browse(RoleAuthorities.USER); // OAuth 회원은 ROLE_USER로 가입된다.
+            }
+        } else {
+            session.join("loadjoin" + joinSequence.incrementAndGet());
+        }
+    }
+
+    private final class Session {
+
+        private final Map<String, String> cookies = new HashMap<>();
+
+        boolean formLogin(String username) {
+            HttpResponse<Void> response = post("POST /login", "/login",
+                    "username=" + encode(username) + "&password=" + encode(PASSWORD),
+                    status -> status == 302);
+            return response != null && !location(response).contains("error");
+        }
+
+        boolean oauthLogin(String registrationId) {
+            HttpResponse<Void> authorization = get("GET /oauth2/authorization/{registrationId}", app.resolve("/oauth2/authorization/" + registrationId),
+                    status -> status == 302);
+            if (authorization == null) {
+                return false;
+            }
+            HttpResponse<Void> provider = send(null, HttpRequest.newBuilder(URI.create(location(authorization))).GET().build(),
+                    status -> status == 302); // 가짜 제공자 (측정하지 않는다.)
+            if (provider == null) {
+                return false;
+            }
+            URI callbackUri = app.resolve(location(provider));
+            HttpResponse<Void> callback = get(callbackRoute(registrationId, callbackUri), callbackUri,
+                    status -> status == 302);
+            return callback != null && !location(callback).contains("error");
+        }
+
+        private String callbackRoute(String registrationId, URI callbackUri) {
+            if (!"google".equals(registrationId)) {
+                return "GET /login/oauth2/code/{registrationId}";
+            }
+            String code = callbackUri.getQuery().replaceAll(".*\\bcode=([^&]*).*", "$1");
+            return StubOAuthServer.idTokenHasEmail(StubOAuthServer.identityOf(code))
+                    ? "GET /login/oauth2/code/google [id-token]"
+                    : "GET /login/oauth2/code/google [userinfo]";
+        }
+
+        void browse(String role) {
+            int level = ROLES.indexOf(role);
+            get("GET /user", app.resolve("/user"), status -> status == 200);
+            get("GET /manager", app.resolve("/manager"), status -> status == (level >= 1 ? 200 : 403));
+            get("GET /admin", app.resolve("/admin"), status -> status == (level >= 2 ? 200 : 403));
+        }
+
+        void join(String username) {
+            post("POST /join", "/join",
+                    "username=" + encode(username) + "&password=" + encode(PASSWORD) + "&email=" + encode(username + "@example.com"),
+                    status -> status == 302);
+        }
+
+        private HttpResponse<Void> get(String route, URI uri, IntPredicate expected) {
+            return send(route, withCookies(HttpRequest.newBuilder(uri)).GET().build(), expected);
+        }
+
+        private HttpResponse<Void> post(String route, String path, String form, IntPredicate expected) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(app.resolve(path))
+                    .header("Content-Type", "application/x-www-form-urlencoded")
+                    .POST(HttpRequest.BodyPublishers.ofString(form));
+            return send(route, withCookies(builder).build(), expected);
+        }
+
+        // route가 null이면 측정하지 않는다. 기대한 상태 코드가 아니면 에러로 기록하고 null 반환
+        private HttpResponse<Void> send(String route, HttpRequest request, IntPredicate expected) {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                boolean ok = expected.test(response.statusCode());
+                record(route, start, ok);
+                if (request.uri().getPort() == app.getPort()) {
+                    response.headers().allValues("Set-Cookie").forEach(this::addCookie);
+                }
+                return ok ? response : null;
+            } catch (IOException e) {
+                record(route, start, false);
+                return null;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+
+        private void record(String route, long start, boolean ok) {
+            if (route != null) {
+                stats.record(route, System.nanoTime() - start, ok);
+            }
+        }
+
+        private HttpRequest.Builder withCookies(HttpRequest.Builder builder) {
+            if (!cookies.isEmpty()) {
+                StringBuilder header = new StringBuilder();
+                cookies.forEach((name, value) -> header.append(header.isEmpty() ? "" : "; ").append(name).append('=').append(value));
+                builder.header("Cookie", header.toString());
+            }
+            return builder;
+        }
+
+        private void addCookie(String setCookie) {
+            String pair = setCookie.split(";", 2)[0];
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                cookies.put(pair.substring(0, eq).trim(), pair.substring(eq + 1).trim());
+            }
+        }
+
+        private String location(HttpResponse<Void> response) {
+            return response.headers().firstValue("Location").orElse("");
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
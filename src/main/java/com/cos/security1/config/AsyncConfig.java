@@ -0,0 +1,14 @@
+package com.cos.security1.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableAsync;
+
+/**
+ * @EnableAsync
+ * @Async 어노테이션 활성화
+ * @Async가 붙은 메서드는 호출한 스레드가 아니라 스프링 부트가 만들어주는 applicationTaskExecutor 스레드에서 실행된다.
+ */
+@Configuration
+@EnableAsync
+public class AsyncConfig {
+}
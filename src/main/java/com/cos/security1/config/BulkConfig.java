@@ -0,0 +1,53 @@
+package com.cos.security1.config;
+
+import com.cos.security1.config.auth.UsernameFilter;
+import com.cos.security1.config.bulk.UserExporter;
+import com.cos.security1.config.bulk.UserImporter;
+import com.cos.security1.config.crypto.BoundedPasswordEncoder;
+import com.cos.security1.repository.UserImportCheckpointRepository;
+import com.cos.security1.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+
+/**
+ * 회원 대량 등록/내보내기 (/admin/users/import, /admin/users/export => ADMIN만)
+ */
+@Configuration
+public class BulkConfig {
+
+    /**
+     * batch-size : 한 번에 암호화하고 insert하는 회원 수 (실패하면 이 단위로 롤백, 이어서 등록할 때도 이 단위로 이어진다.)
+     * hashing-threads : 비밀번호 암호화 스레드 수 (0이면 CPU 코어 수의 절반 => 나머지는 로그인 처리에 남겨둔다.)
+     */
+    @Bean
+    public UserImporter userImporter(UserRepository userRepository, UserImportCheckpointRepository checkpointRepository,
+                                     PlatformTransactionManager transactionManager, PasswordEncoder passwordEncoder,
+                                     UsernameFilter usernameFilter, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                     @Value("${bulk.import.batch-size:1000}") int batchSize,
+                                     @Value("${bulk.import.hashing-threads:0}") int hashingThreads) {
+        if (hashingThreads <= 0) {
+            hashingThreads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        }
+        PasswordEncoder encoder = passwordEncoder instanceof BoundedPasswordEncoder bounded ? bounded.getDelegate() : passwordEncoder;
+        return new UserImporter(userRepository, checkpointRepository, new TransactionTemplate(transactionManager),
+                encoder, usernameFilter, objectMapper, meterRegistry, hashingThreads, batchSize);
+    }
+
+    // fetch-size : 내보낼 때 DB에서 한 번에 가져오는 행 수
+    @Bean
+    public UserExporter userExporter(DataSource dataSource, ObjectMapper objectMapper, MeterRegistry meterRegistry,
+                                     @Value("${bulk.export.fetch-size:1000}") int fetchSize) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.setFetchSize(fetchSize);
+        return new UserExporter(jdbcTemplate, objectMapper, meterRegistry);
+    }
+}
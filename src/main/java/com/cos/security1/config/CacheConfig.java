@@ -0,0 +1,37 @@
+package com.cos.security1.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+@EnableCaching // @Cacheable, @CacheEvict 어노테이션 활성화
+public class CacheConfig {
+
+    public static final String USERS = "users"; // username -> UserCredentials
+    public static final String USER_IDENTITIES = "userIdentities"; // provider:providerId -> UserIdentity
+
+    /**
+     * 폼 로그인(loadUserByUsername)과 OAuth 로그인(loadUser) 모두 매번 DB에서 User를 조회한다.
+     * 로그인이 몰리면 그 부하가 전부 DB로 가기 때문에 조회 결과를 캐싱한다.
+     * maximumSize : 캐시에 담아둘 최대 User 수 (넘어가면 오래 안 쓴 것부터 제거)
+     * expireAfterWrite : 캐시에 담긴 후 만료되는 시간 (save()를 거치지 않고 DB가 바뀌어도 이 시간이 지나면 반영된다.)
+     * recordStats : hit/miss/eviction 수를 기록 => actuator가 cache.gets, cache.evictions 메트릭으로 노출해준다.
+     */
+    @Bean
+    public CacheManager cacheManager(@Value("${cache.user.maximum-size:10000}") long maximumSize,
+                                     @Value("${cache.user.expire-after-write:10m}") Duration expireAfterWrite) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager(USERS, USER_IDENTITIES); // 캐시 이름을 미리 정해두어야 시작 시점에 메트릭이 등록된다.
+        cacheManager.setCaffeine(Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats());
+        return cacheManager;
+    }
+}
@@ -0,0 +1,102 @@
+package com.cos.security1.config;
+
+import com.cos.security1.config.datasource.ReplicaReads;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+
+/**
+ * 읽기/쓰기 DB 분리 (datasource.replica.url을 설정한 경우에만)
+ * 로그인은 대부분 조회이기 때문에 readOnly 트랜잭션의 조회는 replica로 보내고, 나머지(회원가입, 로그인 기록 등)는 primary로 보낸다.
+ * 설정하지 않으면 스프링 부트가 만드는 DataSource(spring.datasource) 하나만 사용한다.
+ *
+ * replica로 가는 조회 : UserRepository.findCredentialsByUsername(폼 로그인), findIdentityByProviderAndProviderId(OAuth 재로그인),
+ *                     회원 목록 조회(search), username 필터 생성(UsernameFilter.rebuild)
+ * 풀별 지연 시간 : /actuator/metrics/hikaricp.connections.acquire, hikaricp.connections.usage (pool=primary, replica)
+ * datasource.properties : open-in-view 끄기 (트랜잭션마다 커넥션을 새로 골라야 한다.)
+ */
+@Configuration
+@PropertySource("classpath:datasource.properties")
+public class DataSourceConfig {
+
+    /**
+     * replica를 설정하면 replica에 없는 회원은 primary에서 다시 조회한다. (회원가입 직후 로그인)
+     */
+    @Bean
+    public ReplicaReads replicaReads(PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                     @Value("${datasource.replica.url:}") String replicaUrl) {
+        TransactionTemplate primary = null;
+        if (StringUtils.hasText(replicaUrl)) {
+            primary = new TransactionTemplate(transactionManager); // readOnly가 아닌 트랜잭션 => primary
+        }
+        return new ReplicaReads(primary, meterRegistry);
+    }
+
+    @Configuration(proxyBeanMethods = false)
+    @ConditionalOnProperty(prefix = "datasource.replica", name = "url")
+    static class ReplicaRoutingConfig {
+
+        // 기존 설정(spring.datasource, spring.datasource.hikari)을 그대로 사용
+        @Bean
+        @ConfigurationProperties("spring.datasource.hikari")
+        public HikariDataSource primaryDataSource(DataSourceProperties properties, MeterRegistry meterRegistry) {
+            HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+            dataSource.setPoolName("primary");
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            return dataSource;
+        }
+
+        /**
+         * maximum-pool-size : 로그인 조회가 몰리는 쪽이기 때문에 primary와 따로 정한다.
+         */
+        @Bean
+        public HikariDataSource replicaDataSource(MeterRegistry meterRegistry,
+                                                  @Value("${datasource.replica.url}") String url,
+                                                  @Value("${datasource.replica.username:}") String username,
+                                                  @Value("${datasource.replica.password:}") String password,
+                                                  @Value("${datasource.replica.maximum-pool-size:10}") int maximumPoolSize) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(url)
+                    .username(username)
+                    .password(password)
+                    .build();
+            dataSource.setPoolName("replica");
+            dataSource.setMaximumPoolSize(maximumPoolSize);
+            dataSource.setReadOnly(true);
+            dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            return dataSource;
+        }
+
+        /**
+         * JPA, JdbcTemplate이 사용하는 DataSource
+         * 트랜잭션을 시작할 때는 실제 커넥션을 가져오지 않고, 첫 쿼리를 실행할 때 가져온다. (LazyConnectionDataSourceProxy)
+         * 그 때 커넥션이 읽기 전용이면(readOnly 트랜잭션 => JpaTransactionManager가 setReadOnly(true)) replica, 아니면 primary에서 가져온다.
+         * 트랜잭션 밖의 조회는 primary로 간다.
+         */
+        @Bean
+        @Primary
+        public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                     @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+            LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+            dataSource.setReadOnlyDataSource(replicaDataSource);
+            return dataSource;
+        }
+    }
+}
@@ -1,20 +1,66 @@
 package com.cos.security1.config;
 
+import com.cos.security1.config.crypto.BCryptStrengthCalibrator;
+import com.cos.security1.config.crypto.BoundedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 public class EncoderConfig {
 
+    private static final String BCRYPT = "bcrypt";
+
     /**
      * BCryptPasswordEncoder
      * 스프링 시큐리티(Spring Seurity) 프레임워크에서 제공하는 클래스 중 하나로 비밀번호를 암호화하는 데 사용할 수 있는 메서드를 가진 클래스
      * PasswordEncoder 인터페이스를 구현한 클래스
      * BCrypt 해싱 함수(BCrypt hashing function)를 사용해서 비밀번호를 인코딩해주는 메서드와 사용자의 의해 제출된 비밀번호와 저장소에 저장되어 있는 비밀번호의 일치 여부를 확인해주는 메서드를 제공
      */
+    /**
+     * DelegatingPasswordEncoder
+     * 해시 앞에 {bcrypt}처럼 어떤 방식으로 암호화했는지 접두어를 붙여서 저장하고, 검증할 때는 접두어를 보고 알맞은 PasswordEncoder를 고른다.
+     * 접두어가 없는 예전 해시($2a$10$...)는 bcrypt로 검증한다.
+     * bcrypt cost는 고정값(기본 10)이 아니라 시작할 때 서버에서 측정해서 target-verify-time에 맞춘다.
+     * 저장된 해시의 cost가 현재 cost보다 낮거나 접두어가 없으면 upgradeEncoding()이 true를 반환 => 로그인 성공 후 비동기로 다시 암호화해서 저장 (PasswordUpgrader)
+     * cost가 높은 해시는 그대로 둔다. 서버마다 측정한 cost가 다르면 서버를 옮겨 다닐 때마다 해시를 바꾸게 되기 때문
+     * (cost를 낮추고 싶으면 비밀번호 변경 때 현재 cost로 저장된다.)
+     */
+    /**
+     * BoundedPasswordEncoder
+     * 위 PasswordEncoder를 감싸서 전용 스레드풀(크기 제한 + 대기열 제한)에서 암호화/검증을 실행한다.
+     * PasswordEncoder 타입의 빈이 하나만 있어야 시큐리티가 폼 로그인 검증에도 이 빈을 사용하기 때문에 나머지는 빈으로 등록하지 않는다.
+     * pool-size : 0이면 CPU 코어 수만큼
+     */
     @Bean
-    public BCryptPasswordEncoder encodePwd() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder encodePwd(MeterRegistry meterRegistry,
+                                     @Value("${password.hashing.pool-size:0}") int poolSize,
+                                     @Value("${password.hashing.queue-capacity:100}") int queueCapacity,
+                                     @Value("${password.bcrypt.target-verify-time:100ms}") Duration targetVerifyTime,
+                                     @Value("${password.bcrypt.min-strength:10}") int minStrength,
+                                     @Value("${password.bcrypt.max-strength:14}") int maxStrength) {
+        if (poolSize <= 0) {
+            poolSize = Runtime.getRuntime().availableProcessors();
+        }
+        int strength = BCryptStrengthCalibrator.calibrate(targetVerifyTime, minStrength, maxStrength);
+
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength) {
+            @Override
+            public boolean upgradeEncoding(String encodedPassword) {
+                // 기본 구현도 cost가 낮을 때만 true지만 bcrypt 형식이 아니면 예외를 던진다. => 형식이 아니면(-1) 현재 cost로 교체
+                return BCryptStrengthCalibrator.strengthOf(encodedPassword) < strength;
+            }
+        };
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(BCRYPT, Map.of(BCRYPT, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new BoundedPasswordEncoder(delegating, poolSize, queueCapacity, meterRegistry);
     }
 }
@@ -0,0 +1,54 @@
+package com.cos.security1.config;
+
+import com.cos.security1.config.audit.LoginAuditListener;
+import com.cos.security1.config.audit.LoginAuditWriter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.AuthenticationEventPublisher;
+import org.springframework.security.authentication.DefaultAuthenticationEventPublisher;
+import org.springframework.security.authentication.event.AuthenticationFailureBadCredentialsEvent;
+
+import java.time.Duration;
+
+/**
+ * 로그인 기록 (login_audit 테이블 + user.last_login_date)
+ * 로그인 요청에서는 큐에 넣기만 하고, 저장은 LoginAuditWriter가 모아서 한다.
+ */
+@Configuration
+public class LoginAuditConfig {
+
+    /**
+     * 스프링 부트가 기본으로 등록하는 AuthenticationEventPublisher는 미리 정해진 예외(BadCredentials, Disabled 등)만 실패 이벤트로 바꿔준다.
+     * OAuth 로그인 실패(OAuth2AuthenticationException)도 기록되도록 나머지 예외는 AuthenticationFailureBadCredentialsEvent로 발행한다.
+     */
+    @Bean
+    public AuthenticationEventPublisher authenticationEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+        DefaultAuthenticationEventPublisher publisher = new DefaultAuthenticationEventPublisher(applicationEventPublisher);
+        publisher.setDefaultAuthenticationFailureEvent(AuthenticationFailureBadCredentialsEvent.class);
+        return publisher;
+    }
+
+    /**
+     * queue-capacity : 저장을 기다리는 기록의 최대 수 (넘으면 버리고 login.audit.dropped 증가)
+     * batch-size : 한 번에 저장하는 최대 기록 수
+     * linger : 첫 기록이 들어온 뒤 batch를 채우기 위해 기다리는 최대 시간
+     * shutdown-timeout : 종료 시 저장 중인 batch를 기다리는 최대 시간
+     */
+    @Bean
+    public LoginAuditWriter loginAuditWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                                             @Value("${login.audit.queue-capacity:10000}") int queueCapacity,
+                                             @Value("${login.audit.batch-size:500}") int batchSize,
+                                             @Value("${login.audit.linger:500ms}") Duration linger,
+                                             @Value("${login.audit.shutdown-timeout:10s}") Duration shutdownTimeout) {
+        return new LoginAuditWriter(jdbcTemplate, meterRegistry, queueCapacity, batchSize, linger, shutdownTimeout);
+    }
+
+    @Bean
+    public LoginAuditListener loginAuditListener(LoginAuditWriter loginAuditWriter) {
+        return new LoginAuditListener(loginAuditWriter);
+    }
+}
@@ -0,0 +1,75 @@
+package com.cos.security1.config;
+
+import com.cos.security1.config.auth.CachingPreAuthorizeAuthorizationManager;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.authorization.AuthorizationEventPublisher;
+import org.springframework.security.authorization.method.AuthorizationManagerAfterMethodInterceptor;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.authorization.method.PostFilterAuthorizationMethodInterceptor;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.authorization.method.PreFilterAuthorizationMethodInterceptor;
+import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+
+/**
+ * @EnableMethodSecurity
+ * @EnableGlobalMethodSecurity 대체
+ * securedEnabled = true : @Secured 어노테이션 활성화
+ * prePostEnabled = false : @PreAuthorize, @PostAuthorize, @PreFilter, @PostFilter를 기본 설정 대신 아래에서 직접 등록
+ *
+ * @PreAuthorize
+ * 1. SpEL 파서를 컴파일 모드(MIXED)로 설정 => 자주 실행되는 식은 바이트코드로 컴파일되어 해석 비용이 없어진다.
+ * 2. 권한 검사만으로 이루어진 식은 (메서드, 권한 목록)별로 결과를 캐싱 (CachingPreAuthorizeAuthorizationManager)
+ * 3. 인가 결정은 AuthorizationEventPublisher 빈(MetricsConfig)으로 발행 => auth.authorization 메트릭 (기본 설정이 하는 것과 동일)
+ * 나머지 어노테이션은 기본 설정과 동일하게 등록한다.
+ */
+@Configuration
+@EnableMethodSecurity(securedEnabled = true, prePostEnabled = false)
+public class MethodSecurityConfig {
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preAuthorizeAuthorizationMethodInterceptor(ApplicationContext applicationContext,
+                                                              ObjectProvider<AuthorizationEventPublisher> eventPublisher,
+                                                              @Value("${method-security.decision-cache.maximum-size:10000}") long maximumSize) {
+        DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler();
+        expressionHandler.setApplicationContext(applicationContext);
+        expressionHandler.setExpressionParser(new SpelExpressionParser(
+                new SpelParserConfiguration(SpelCompilerMode.MIXED, MethodSecurityConfig.class.getClassLoader())));
+
+        PreAuthorizeAuthorizationManager preAuthorize = new PreAuthorizeAuthorizationManager();
+        preAuthorize.setExpressionHandler(expressionHandler);
+        AuthorizationManagerBeforeMethodInterceptor interceptor = AuthorizationManagerBeforeMethodInterceptor.preAuthorize(
+                new CachingPreAuthorizeAuthorizationManager(preAuthorize, maximumSize));
+        eventPublisher.ifAvailable(interceptor::setAuthorizationEventPublisher);
+        return interceptor;
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor postAuthorizeAuthorizationMethodInterceptor() {
+        return AuthorizationManagerAfterMethodInterceptor.postAuthorize();
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor preFilterAuthorizationMethodInterceptor() {
+        return new PreFilterAuthorizationMethodInterceptor();
+    }
+
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    static Advisor postFilterAuthorizationMethodInterceptor() {
+        return new PostFilterAuthorizationMethodInterceptor();
+    }
+}
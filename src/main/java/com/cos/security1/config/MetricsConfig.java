@@ -0,0 +1,29 @@
+package com.cos.security1.config;
+
+import com.cos.security1.config.metrics.AuthMetrics;
+import com.cos.security1.config.metrics.MeteredAuthorizationEventPublisher;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.PropertySource;
+import org.springframework.security.authorization.AuthorizationEventPublisher;
+import org.springframework.security.authorization.SpringAuthorizationEventPublisher;
+
+/**
+ * 로그인 단계별 메트릭 (AuthMetrics)
+ * metrics.properties : /actuator/metrics 노출 (application.yml에서 덮어쓸 수 있다.) => SecurityConfig에서 ADMIN만 접근 가능
+ */
+@Configuration
+@PropertySource("classpath:metrics.properties")
+public class MetricsConfig {
+
+    /**
+     * AuthorizationEventPublisher 타입의 빈이 있으면 시큐리티가 인가 결정마다 호출해준다. (요청 인가, @Secured)
+     * @PreAuthorize는 MethodSecurityConfig에서 직접 등록
+     */
+    @Bean
+    public AuthorizationEventPublisher authorizationEventPublisher(ApplicationEventPublisher applicationEventPublisher,
+                                                                   AuthMetrics authMetrics) {
+        return new MeteredAuthorizationEventPublisher(new SpringAuthorizationEventPublisher(applicationEventPublisher), authMetrics);
+    }
+}
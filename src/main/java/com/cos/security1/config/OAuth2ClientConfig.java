@@ -0,0 +1,84 @@
+package com.cos.security1.config;
+
+import com.cos.security1.config.oauth.client.OAuth2HttpClient;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCodeGrantRequest;
+import org.springframework.security.oauth2.client.endpoint.RestClientAuthorizationCodeTokenResponseClient;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.registration.ClientRegistrationRepository;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@Configuration
+public class OAuth2ClientConfig {
+
+    /**
+     * OAuth 제공자 요청용 HTTP 클라이언트 (OAuth2HttpClient)
+     * connect-timeout, response-timeout : 기본 타임아웃
+     * provider-timeouts : 제공자별 타임아웃 (google:1s:3s,naver:500ms:2s => registrationId:연결:응답)
+     * max-total, max-per-route : 커넥션 풀 전체 / 제공자 주소별 최대 연결 수
+     * acquire-timeout : 풀이 가득 찼을 때 연결을 기다리는 최대 시간
+     * keep-alive : 사용하지 않는 연결을 유지하는 최대 시간
+     * circuit.failure-threshold, circuit.open-duration : 연속 몇 번 실패하면 얼마 동안 요청을 차단할지
+     */
+    @Bean
+    public OAuth2HttpClient oAuth2HttpClient(ObjectProvider<ClientRegistrationRepository> clientRegistrationRepository,
+                                             MeterRegistry meterRegistry,
+                                             @Value("${oauth2.http.connect-timeout:2s}") Duration connectTimeout,
+                                             @Value("${oauth2.http.response-timeout:5s}") Duration responseTimeout,
+                                             @Value("${oauth2.http.provider-timeouts:}") String providerTimeouts,
+                                             @Value("${oauth2.http.max-total:50}") int maxTotal,
+                                             @Value("${oauth2.http.max-per-route:20}") int maxPerRoute,
+                                             @Value("${oauth2.http.acquire-timeout:1s}") Duration acquireTimeout,
+                                             @Value("${oauth2.http.keep-alive:30s}") Duration keepAlive,
+                                             @Value("${oauth2.http.circuit.failure-threshold:5}") int failureThreshold,
+                                             @Value("${oauth2.http.circuit.open-duration:30s}") Duration openDuration) {
+        return new OAuth2HttpClient(registrations(clientRegistrationRepository.getIfAvailable()),
+                new OAuth2HttpClient.Timeouts(connectTimeout, responseTimeout), parseTimeouts(providerTimeouts),
+                maxTotal, maxPerRoute, acquireTimeout, keepAlive,
+                failureThreshold, openDuration, meterRegistry);
+    }
+
+    /**
+     * 인가 코드 -> 액세스 토큰 교환 (SecurityConfig의 oauth2Login.tokenEndpoint에 등록)
+     */
+    @Bean
+    public OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest> accessTokenResponseClient(OAuth2HttpClient oAuth2HttpClient) {
+        RestClientAuthorizationCodeTokenResponseClient accessTokenResponseClient = new RestClientAuthorizationCodeTokenResponseClient();
+        accessTokenResponseClient.setRestClient(oAuth2HttpClient.tokenRestClient());
+        return accessTokenResponseClient;
+    }
+
+    // 스프링 부트가 만들어주는 InMemoryClientRegistrationRepository는 Iterable이다. (등록된 제공자가 없으면 빈 목록)
+    @SuppressWarnings("unchecked")
+    private static Iterable<ClientRegistration> registrations(ClientRegistrationRepository clientRegistrationRepository) {
+        if (clientRegistrationRepository instanceof Iterable<?> registrations) {
+            return (Iterable<ClientRegistration>) registrations;
+        }
+        return List.of();
+    }
+
+    // "registrationId:연결:응답,registrationId:연결:응답"
+    private static Map<String, OAuth2HttpClient.Timeouts> parseTimeouts(String providerTimeouts) {
+        Map<String, OAuth2HttpClient.Timeouts> timeouts = new LinkedHashMap<>();
+        for (String providerTimeout : StringUtils.commaDelimitedListToStringArray(providerTimeouts)) {
+            String[] values = providerTimeout.trim().split(":");
+            if (values.length != 3) {
+                throw new IllegalStateException("oauth2.http.provider-timeouts 형식이 잘못되었습니다. (registrationId:연결:응답)");
+            }
+            timeouts.put(values[0], new OAuth2HttpClient.Timeouts(
+                    DurationStyle.detectAndParse(values[1]), DurationStyle.detectAndParse(values[2])));
+        }
+        return timeouts;
+    }
+}
@@ -0,0 +1,112 @@
+package com.cos.security1.config;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.source.JWKSource;
+import com.nimbusds.jose.jwk.source.JWKSourceBuilder;
+import com.nimbusds.jose.proc.JWSVerificationKeySelector;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenDecoderFactory;
+import org.springframework.security.oauth2.client.oidc.authentication.OidcIdTokenValidator;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.converter.ClaimTypeConverter;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
+import org.springframework.security.oauth2.jwt.JwtTimestampValidator;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.util.StringUtils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Configuration
+public class OidcConfig {
+
+    /**
+     * OIDC 로그인 시 ID 토큰 검증에 사용하는 JwtDecoder (registrationId별로 한 번만 만든다.)
+     * 기본 설정(OidcIdTokenDecoderFactory)도 공개키(JWKS)를 캐싱하지만, 캐시가 만료된 뒤 처음 들어온 로그인 요청이 JWKS를 다시 받아올 때까지 기다린다.
+     * 여기서는 만료되기 전에(refresh-ahead) 백그라운드 스레드가 미리 받아오기 때문에 로그인 요청이 JWKS 조회를 기다리지 않는다.
+     * ttl : 공개키 캐시 유지 시간
+     * refresh-ahead : 만료되기 얼마 전에 미리 받아올지
+     * refresh-timeout : JWKS 조회가 늦어질 때 기다리는 최대 시간
+     * 검증 항목(서명, iss, aud, azp, exp, iat)과 claim 타입 변환은 기본 설정과 동일하다.
+     */
+    @Bean
+    public JwtDecoderFactory<ClientRegistration> idTokenDecoderFactory(@Value("${oidc.jwks.ttl:1h}") Duration ttl,
+                                                                      @Value("${oidc.jwks.refresh-ahead:5m}") Duration refreshAhead,
+                                                                      @Value("${oidc.jwks.refresh-timeout:5s}") Duration refreshTimeout) {
+        return new CachingIdTokenDecoderFactory(ttl, refreshAhead, refreshTimeout);
+    }
+
+    static class CachingIdTokenDecoderFactory implements JwtDecoderFactory<ClientRegistration>, DisposableBean {
+
+        private final Duration ttl;
+        private final Duration refreshAhead;
+        private final Duration refreshTimeout;
+        private final Map<String, JwtDecoder> decoders = new ConcurrentHashMap<>();
+        private final Map<String, JWKSource<SecurityContext>> jwkSources = new ConcurrentHashMap<>();
+
+        CachingIdTokenDecoderFactory(Duration ttl, Duration refreshAhead, Duration refreshTimeout) {
+            this.ttl = ttl;
+            this.refreshAhead = refreshAhead;
+            this.refreshTimeout = refreshTimeout;
+        }
+
+        @Override
+        public JwtDecoder createDecoder(ClientRegistration clientRegistration) {
+            return decoders.computeIfAbsent(clientRegistration.getRegistrationId(), registrationId -> newDecoder(clientRegistration));
+        }
+
+        private JwtDecoder newDecoder(ClientRegistration clientRegistration) {
+            String jwkSetUri = clientRegistration.getProviderDetails().getJwkSetUri();
+            if (!StringUtils.hasText(jwkSetUri)) {
+                throw new OAuth2AuthenticationException(new OAuth2Error("missing_signature_verifier",
+                        "jwk-set-uri가 설정되지 않았습니다. : " + clientRegistration.getRegistrationId(), null));
+            }
+            JWKSource<SecurityContext> jwkSource;
+            try {
+                jwkSource = JWKSourceBuilder.<SecurityContext>create(URI.create(jwkSetUri).toURL())
+                        .cache(ttl.toMillis(), refreshTimeout.toMillis())
+                        .refreshAheadCache(refreshAhead.toMillis(), true) // true : 요청을 기다리지 않고 스케줄러가 미리 갱신
+                        .retrying(true)
+                        .build();
+            } catch (MalformedURLException e) {
+                throw new IllegalStateException("jwk-set-uri 형식이 잘못되었습니다. : " + jwkSetUri, e);
+            }
+            jwkSources.put(clientRegistration.getRegistrationId(), jwkSource);
+
+            DefaultJWTProcessor<SecurityContext> jwtProcessor = new DefaultJWTProcessor<>();
+            jwtProcessor.setJWSKeySelector(new JWSVerificationKeySelector<>(JWSAlgorithm.RS256, jwkSource));
+            jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+            }); // claim 검증은 아래 validator가 한다.
+
+            NimbusJwtDecoder jwtDecoder = new NimbusJwtDecoder(jwtProcessor);
+            jwtDecoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(
+                    new JwtTimestampValidator(), new OidcIdTokenValidator(clientRegistration)));
+            jwtDecoder.setClaimSetConverter(new ClaimTypeConverter(OidcIdTokenDecoderFactory.createDefaultClaimTypeConverters()));
+            return jwtDecoder;
+        }
+
+        // refresh-ahead 스케줄러 종료
+        @Override
+        public void destroy() throws IOException {
+            for (JWKSource<SecurityContext> jwkSource : jwkSources.values()) {
+                if (jwkSource instanceof Closeable closeable) {
+                    closeable.close();
+                }
+            }
+        }
+    }
+}
@@ -1,37 +1,77 @@
 package com.cos.security1.config;
 
+import com.cos.security1.config.crypto.PasswordHashingRejectedException;
 import com.cos.security1.config.oauth.PrincipalOauth2UserService;
+import com.cos.security1.config.oauth.PrincipalOidcUserService;
+import com.cos.security1.config.token.AuthTokenFilter;
+import com.cos.security1.config.token.AuthTokenLogoutHandler;
+import com.cos.security1.config.token.AuthTokenProvider;
+import com.cos.security1.config.token.AuthTokenSuccessHandler;
+import com.cos.security1.config.token.CookieAuthorizationRequestRepository;
+import com.cos.security1.config.token.RefreshTokenStore;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.CsrfConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AccessTokenResponseClient;
+import org.springframework.security.oauth2.client.endpoint.OAuth2AuthorizationCodeGrantRequest;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AuthenticationFailureHandler;
+import org.springframework.security.web.authentication.AuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.DelegatingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.SavedRequestAwareAuthenticationSuccessHandler;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.util.LinkedHashMap;
 
 @Configuration
 @EnableWebSecurity // 스프링 시큐리티 필터가 스프링 필터 체인에 등록되도록 한다.
-@EnableMethodSecurity(securedEnabled = true, prePostEnabled = true)
-/**
- * @EnableMethodSecurity
- * @EnableGlobalMethodSecurity 대체
- * securedEnabled = true : @Secured 어노테이션 활성화
- * prePostEnabled = true : @PreAuthorize, @PostAuthorize 어노테이션 활성화
- */
+// @EnableMethodSecurity(@Secured, @PreAuthorize 활성화)는 MethodSecurityConfig에서 설정
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final PrincipalOauth2UserService principalOauth2UserService;
+    private final PrincipalOidcUserService principalOidcUserService; // scope에 openid가 있는 제공자(구글)는 이쪽으로 온다.
+    private final OAuth2AccessTokenResponseClient<OAuth2AuthorizationCodeGrantRequest> accessTokenResponseClient; // OAuth2ClientConfig
+    private final ObjectProvider<AuthTokenProvider> authTokenProvider; // security.auth.mode=token 일 때만 존재
+    private final ObjectProvider<RefreshTokenStore> refreshTokenStore; // security.auth.mode=token 일 때만 존재
+    private final ObjectProvider<CookieAuthorizationRequestRepository> cookieAuthorizationRequestRepository; // security.auth.mode=token 일 때만 존재
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http.csrf(CsrfConfigurer::disable);
+        /**
+         * security.auth.mode
+         * session(기본) : 로그인 성공 시 시큐리티 세션(HttpSession)에 Authentication 저장 (session.store=file이면 HttpSession이 SessionStore에 저장된다. => SessionConfig)
+         * token : 로그인 성공 시 서명된 토큰을 쿠키로 발급하고, 매 요청마다 AuthTokenFilter가 토큰을 검증 (세션 사용 X)
+         */
+        AuthTokenProvider tokenProvider = authTokenProvider.getIfAvailable();
+        if (tokenProvider != null) {
+            http
+                    .sessionManagement(session -> session
+                            .sessionCreationPolicy(SessionCreationPolicy.STATELESS)) // 시큐리티가 세션에 Authentication을 저장하지 않는다.
+                    .addFilterBefore(new AuthTokenFilter(tokenProvider), UsernamePasswordAuthenticationFilter.class)
+                    .logout(logout -> logout
+                            .addLogoutHandler(new AuthTokenLogoutHandler(tokenProvider, refreshTokenStore.getObject()))) // 토큰 쿠키 삭제 + refresh token 폐기
+                    .oauth2Login(oauth2 -> oauth2
+                            .authorizationEndpoint(authorization -> authorization
+                                    .authorizationRequestRepository(cookieAuthorizationRequestRepository.getObject()))); // 인가 요청(state 등)도 세션 대신 서명된 쿠키에 보관
+        }
         http
                 .authorizeHttpRequests(authorize -> authorize // 권한 인가 설정
                         .requestMatchers("/user/**").authenticated() // /user로 들어오는 경우에는 인증 필요
-                        .requestMatchers("/manager/**").hasAnyRole("ADMIN", "MANAGER") // /manager로 들어오는 경우에는 ADMIN이나 MANAGER 권한 필요
-                        .requestMatchers("/admin/**").hasAnyRole("ADMIN") // /admin으로 들어오는 경우에는 ADMIN 권한 필요
+                        .requestMatchers("/manager/**").hasRole("MANAGER") // /manager로 들어오는 경우에는 MANAGER 권한 필요 (ADMIN은 MANAGER 권한을 포함 => RoleAuthorities)
+                        .requestMatchers("/admin/**").hasRole("ADMIN") // /admin으로 들어오는 경우에는 ADMIN 권한 필요
+                        .requestMatchers("/actuator/health").permitAll()
+                        .requestMatchers("/actuator/**").hasRole("ADMIN") // 메트릭(/actuator/metrics)은 ADMIN만 (MetricsConfig)
                         .anyRequest().permitAll() // 이외의 접근은 모두 허용)
                 )
                 .formLogin(formLogin -> formLogin // 폼 로그인 설정
@@ -41,13 +81,47 @@ public class SecurityConfig {
                          * 이렇게 하면 컨트롤러에 /login api를 안 만들어도 된다. security가 알아서 로그인을 진행해준다.
                          */
                         .loginProcessingUrl("/login")
-                        .defaultSuccessUrl("/") // 로그인 성공 시, redirect url 설정
+                        .successHandler(loginSuccessHandler(tokenProvider)) // 로그인 성공 시, "/"로 redirect (token 모드면 토큰 발급 후 redirect)
+                        .failureHandler(loginFailureHandler(tokenProvider)) // 로그인 실패 시 처리
                 )
                 .oauth2Login(oauth2 -> oauth2 // oauth2.0 로그인 설정
                         .loginPage("/loginForm") // 구글 로그인 완료된 이후 후처리 필요 => 구글 로그인이 완료되면, (엑세스 토큰 + 사용자 프로필 정보)를 한 번에 받는다.
+                        .tokenEndpoint(tokenEndpoint -> tokenEndpoint
+                                .accessTokenResponseClient(accessTokenResponseClient)) // 인가 코드 -> 액세스 토큰 교환 (커넥션 풀, 타임아웃, 서킷 브레이커)
                         .userInfoEndpoint(userInfoEndpoint -> userInfoEndpoint
-                                .userService(principalOauth2UserService)) // 후처리하는 service 등록
+                                .userService(principalOauth2UserService) // 후처리하는 service 등록
+                                .oidcUserService(principalOidcUserService)) // OIDC 로그인은 ID 토큰으로 후처리 (userinfo 조회 생략)
+                        .successHandler(loginSuccessHandler(tokenProvider))
+                        .failureHandler(loginFailureHandler(tokenProvider))
                 );
         return http.build();
     }
+
+    /**
+     * session 모드 : 기존처럼 로그인 성공 시 "/"로 이동 (defaultSuccessUrl("/")과 동일하게 로그인 전 요청했던 url이 있으면 그 url로 이동)
+     * token 모드 : 토큰을 쿠키로 발급하고 "/"로 이동
+     */
+    private AuthenticationSuccessHandler loginSuccessHandler(AuthTokenProvider tokenProvider) {
+        if (tokenProvider != null) {
+            return new AuthTokenSuccessHandler(tokenProvider, refreshTokenStore.getObject());
+        }
+        SavedRequestAwareAuthenticationSuccessHandler successHandler = new SavedRequestAwareAuthenticationSuccessHandler();
+        successHandler.setDefaultTargetUrl("/");
+        return successHandler;
+    }
+
+    /**
+     * 비밀번호 검증 대기열이 가득 차서 거절된 경우(PasswordHashingRejectedException) : 기다리지 않고 바로 503 응답
+     * 그 외 로그인 실패 : 기존처럼 /loginForm?error로 이동 (token 모드에서는 실패 원인을 담으려고 세션을 만들지 않는다.)
+     */
+    private AuthenticationFailureHandler loginFailureHandler(AuthTokenProvider tokenProvider) {
+        LinkedHashMap<Class<? extends AuthenticationException>, AuthenticationFailureHandler> handlers = new LinkedHashMap<>();
+        handlers.put(PasswordHashingRejectedException.class, (request, response, exception) -> {
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, exception.getMessage());
+        });
+        SimpleUrlAuthenticationFailureHandler failureHandler = new SimpleUrlAuthenticationFailureHandler("/loginForm?error");
+        failureHandler.setAllowSessionCreation(tokenProvider == null);
+        return new DelegatingAuthenticationFailureHandler(handlers, failureHandler);
+    }
 }
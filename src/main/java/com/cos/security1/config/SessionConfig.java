@@ -0,0 +1,46 @@
+package com.cos.security1.config;
+
+import com.cos.security1.config.session.FileSessionStore;
+import com.cos.security1.config.session.WriteBehindSessionRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.session.config.annotation.web.http.EnableSpringHttpSession;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * @EnableSpringHttpSession
+ * 스프링 세션(Spring Session) 활성화
+ * 톰캣이 메모리에 들고 있던 HttpSession을 SessionRepository에 저장하는 세션으로 바꿔준다. (SessionRepositoryFilter)
+ * 시큐리티 세션도 결국 HttpSession 안에 들어가기 때문에(SecurityConfig, PrincipalDetailsService, PrincipalOauth2UserService가 만든 Authentication)
+ * 시큐리티 설정을 바꾸지 않아도 로그인 정보가 JVM 밖(SessionStore)에 저장된다.
+ *
+ * session.store=file 일 때만 활성화 (설정하지 않으면 기존처럼 톰캣 메모리 세션 사용)
+ * 다른 저장소를 쓰려면 SessionStore 구현체만 바꿔서 등록하면 된다.
+ */
+@Configuration
+@EnableSpringHttpSession
+@ConditionalOnProperty(name = "session.store", havingValue = "file")
+public class SessionConfig {
+
+    /**
+     * directory : 세션 파일 저장 위치 (같은 서버의 인스턴스들이 공유)
+     * max-inactive-interval : 마지막 접근 후 세션 만료까지의 시간
+     * touch-interval : 접근 시간만 바뀐 경우, 저장된 값보다 이 시간 이상 지났을 때만 갱신
+     * flush-interval : 모아둔 접근 시간을 저장하는 주기
+     * cleanup-interval : 만료 세션 정리 주기
+     */
+    @Bean
+    public WriteBehindSessionRepository sessionRepository(
+            @Value("${session.file.directory:${java.io.tmpdir}/security1-sessions}") Path directory,
+            @Value("${session.max-inactive-interval:30m}") Duration maxInactiveInterval,
+            @Value("${session.touch-interval:1m}") Duration touchInterval,
+            @Value("${session.flush-interval:5s}") Duration flushInterval,
+            @Value("${session.cleanup-interval:1m}") Duration cleanupInterval) {
+        return new WriteBehindSessionRepository(new FileSessionStore(directory),
+                maxInactiveInterval, touchInterval, flushInterval, cleanupInterval);
+    }
+}
@@ -0,0 +1,39 @@
+package com.cos.security1.config;
+
+import com.cos.security1.config.auth.UsernameFilter;
+import com.cos.security1.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+
+/**
+ * 없는 username이면 DB 조회 없이 로그인을 실패시키는 필터 (UsernameFilter)
+ * 메모리 사용량, 예상 오탐률 : /actuator/metrics/username.filter.memory, username.filter.fpp
+ */
+@Configuration
+public class UsernameFilterConfig {
+
+    /**
+     * fpp : 없는 username인데 있다고 판단해서 DB를 조회하게 되는 확률 (작을수록 메모리를 더 쓴다. 0.01 => 회원 1명당 약 1.2바이트)
+     * expected-insertions : 필터 크기를 정할 때의 최소 회원 수 (실제 크기는 max(이 값, 회원 수 x 2))
+     * rebuild-interval : 필터를 새로 만드는 주기
+     * refresh-interval : 다른 서버나 SQL로 추가된 회원을 읽어오는 주기 (이 시간 동안은 다른 곳에서 가입한 회원의 로그인이 실패할 수 있다.)
+     */
+    @Bean
+    public UsernameFilter usernameFilter(UserRepository userRepository, PlatformTransactionManager transactionManager,
+                                         MeterRegistry meterRegistry,
+                                         @Value("${username.filter.expected-insertions:100000}") long expectedInsertions,
+                                         @Value("${username.filter.fpp:0.01}") double fpp,
+                                         @Value("${username.filter.rebuild-interval:1h}") Duration rebuildInterval,
+                                         @Value("${username.filter.refresh-interval:5s}") Duration refreshInterval) {
+        TransactionTemplate readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+        return new UsernameFilter(userRepository, readOnlyTransaction, meterRegistry, expectedInsertions, fpp,
+                rebuildInterval, refreshInterval);
+    }
+}
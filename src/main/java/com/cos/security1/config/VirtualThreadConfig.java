@@ -0,0 +1,47 @@
+package com.cos.security1.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+
+/**
+ * 가상 스레드 모드 (spring.threads.virtual.enabled=true, Java 21 이상에서 실행해야 한다.)
+ * 로그인 요청 시간의 대부분은 DB(UserRepository) 조회나 OAuth 제공자 HTTP 요청(OAuth2HttpClient)을 기다리는 시간이다.
+ * 톰캣 요청 스레드(기본 200개)가 전부 기다리는 중이면 새 로그인은 스레드가 빌 때까지 처리되지 않는다.
+ * 가상 스레드는 기다리는 동안 OS 스레드를 반납하기 때문에 동시에 처리할 수 있는 로그인 수가 스레드 수에 묶이지 않는다.
+ *
+ * 설정 하나로 스프링 부트가 바꿔주는 것
+ * 1. 톰캣 요청 스레드
+ * 2. @Async (applicationTaskExecutor, PasswordUpgrader)
+ * 3. @Scheduled (taskScheduler)
+ *
+ * 바꾸지 않는 것
+ * 1. bcrypt 스레드풀 (BoundedPasswordEncoder) : CPU만 쓰는 작업이라 가상 스레드로 바꿔도 이점이 없고, 동시에 CPU를 쓰는 수를 제한하는 게 목적이다.
+ *    요청 스레드(가상 스레드)는 결과를 기다리는 동안(Future.get) OS 스레드를 반납한다.
+ * 2. 세션 저장소 스케줄러 (WriteBehindSessionRepository) : 스레드 하나만 쓴다.
+ *
+ * 가상 스레드가 synchronized 블록 안에서 기다리면 OS 스레드를 반납하지 못한다. (pinning, Java 21~23)
+ * 로그인 경로의 코드는 synchronized 대신 atomic 변수, ConcurrentHashMap, ReentrantLock 기반 라이브러리(HikariCP, MySQL 드라이버, HttpClient 5)를 사용한다.
+ * ./gradlew bootRun -PvirtualThreads 로 실행하면 pinning이 발생할 때 스택이 출력된다. (-Djdk.tracePinnedThreads=short)
+ */
+@Configuration
+@Slf4j
+public class VirtualThreadConfig {
+
+    private static final int VIRTUAL_THREADS_SINCE = 21;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void checkRuntime(ApplicationReadyEvent event) {
+        boolean enabled = event.getApplicationContext().getEnvironment()
+                .getProperty("spring.threads.virtual.enabled", Boolean.class, false);
+        int runtimeVersion = Runtime.version().feature();
+        if (enabled && runtimeVersion < VIRTUAL_THREADS_SINCE) {
+            // 스프링 부트는 Java 21 미만에서는 이 설정을 조용히 무시한다.
+            log.warn("spring.threads.virtual.enabled=true 이지만 Java {}에서 실행 중이라 플랫폼 스레드를 사용합니다. (Java {} 이상 필요)",
+                    runtimeVersion, VIRTUAL_THREADS_SINCE);
+        } else if (enabled) {
+            log.info("가상 스레드 모드로 실행합니다. (Java {})", runtimeVersion);
+        }
+    }
+}
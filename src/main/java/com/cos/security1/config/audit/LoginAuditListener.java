@@ -0,0 +1,47 @@
+package com.cos.security1.config.audit;
+
+import com.cos.security1.config.auth.PrincipalDetails;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.event.AbstractAuthenticationFailureEvent;
+import org.springframework.security.authentication.event.AuthenticationSuccessEvent;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.oauth2.client.authentication.OAuth2LoginAuthenticationToken;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+/**
+ * 시큐리티가 로그인(폼, OAuth) 성공/실패 시 발행하는 이벤트를 받아서 LoginAuditWriter에 넘긴다.
+ * 이벤트는 ProviderManager(AuthenticationEventPublisher)가 로그인 요청 스레드에서 발행한다. => 여기서는 값만 꺼내고 저장은 LoginAuditWriter가 한다.
+ * 토큰 인증(AuthTokenFilter)은 AuthenticationManager를 거치지 않기 때문에 요청마다 기록되지 않는다.
+ */
+@RequiredArgsConstructor
+public class LoginAuditListener {
+
+    static final String FORM = "form";
+
+    private final LoginAuditWriter writer;
+
+    @EventListener
+    public void onSuccess(AuthenticationSuccessEvent event) {
+        Authentication authentication = event.getAuthentication();
+        if (authentication.getPrincipal() instanceof PrincipalDetails principal) {
+            String provider = principal.getProvider() != null ? principal.getProvider() : FORM;
+            writer.record(LoginEvent.success(principal.getUsername(), principal.getId(), provider, remoteIp(authentication)));
+        }
+    }
+
+    @EventListener
+    public void onFailure(AbstractAuthenticationFailureEvent event) {
+        Authentication authentication = event.getAuthentication();
+        String reason = event.getException().getClass().getSimpleName();
+        if (authentication instanceof OAuth2LoginAuthenticationToken oauth2) { // OAuth 로그인 실패 => 입력한 username이 없다.
+            writer.record(LoginEvent.failure(null, oauth2.getClientRegistration().getRegistrationId(), reason, remoteIp(authentication)));
+            return;
+        }
+        writer.record(LoginEvent.failure(authentication.getName(), FORM, reason, remoteIp(authentication)));
+    }
+
+    private String remoteIp(Authentication authentication) {
+        return authentication.getDetails() instanceof WebAuthenticationDetails details ? details.getRemoteAddress() : null;
+    }
+}
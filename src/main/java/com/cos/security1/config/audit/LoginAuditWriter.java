@@ -0,0 +1,171 @@
+package com.cos.security1.config.audit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 로그인 기록(login_audit)과 마지막 로그인 시간(user.last_login_date)을 로그인 요청 밖에서 모아서 저장한다.
+ *
+ * 1. record() : 큐에 넣기만 하고 바로 반환 => 로그인 응답이 DB 쓰기를 기다리지 않는다.
+ *    큐가 가득 차면 기다리지 않고 버린다. (login.audit.dropped) => DB가 느려져도 로그인은 막히지 않는다.
+ * 2. 백그라운드 스레드(login-audit)가 batchSize만큼 또는 linger 동안 모아서 한 번에 저장 (JDBC batch insert)
+ * 3. 마지막 로그인 시간은 같은 회원의 로그인을 하나로 합쳐서(가장 늦은 시간) 회원당 update 한 번만 실행
+ * 4. 종료 시(stop) 톰캣이 요청 처리를 마친 뒤에 큐에 남은 기록을 전부 저장하고 끝낸다. (phase가 웹 서버보다 낮다.)
+ *    종료 중에 들어온 기록은 큐를 거치지 않고 바로 저장한다.
+ */
+@Slf4j
+public class LoginAuditWriter implements SmartLifecycle {
+
+    private static final String INSERT_AUDIT = "insert into login_audit (username, user_id, provider, outcome, reason, remote_ip, created_at) values (?, ?, ?, ?, ?, ?, ?)";
+    private static final String UPDATE_LAST_LOGIN = "update user set last_login_date = ? where id = ? and (last_login_date is null or last_login_date < ?)"; // 늦게 도착한 기록이 더 최신 값을 덮어쓰지 않도록
+
+    private final JdbcTemplate jdbcTemplate;
+    private final BlockingQueue<LoginEvent> queue;
+    private final int batchSize;
+    private final Duration linger;
+    private final Duration shutdownTimeout;
+    private final Counter dropped;
+
+    private volatile boolean running;
+    private Thread worker;
+
+    public LoginAuditWriter(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                            int queueCapacity, int batchSize, Duration linger, Duration shutdownTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.linger = linger;
+        this.shutdownTimeout = shutdownTimeout;
+        this.dropped = Counter.builder("login.audit.dropped").register(meterRegistry);
+        Gauge.builder("login.audit.queue", queue, BlockingQueue::size).register(meterRegistry);
+    }
+
+    public void record(LoginEvent event) {
+        if (!running) { // 시작 전, 종료 중
+            write(List.of(event));
+            return;
+        }
+        if (!queue.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        worker = new Thread(this::run, "login-audit");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        try {
+            worker.join(shutdownTimeout.toMillis()); // 모으고 있던 batch를 저장할 때까지 기다린다.
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<LoginEvent> batch = new ArrayList<>(batchSize);
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // 웹 서버(톰캣)가 먼저 멈추고 나서 멈춘다. => 마지막 요청의 로그인 기록까지 저장
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void run() {
+        List<LoginEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                LoginEvent first = queue.poll(linger.toNanos(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + linger.toNanos();
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    LoginEvent next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                running = false;
+            }
+            write(batch);
+            batch.clear();
+        }
+    }
+
+    void write(List<LoginEvent> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(INSERT_AUDIT, batch, batch.size(), (ps, event) -> {
+                ps.setString(1, event.username());
+                ps.setObject(2, event.userId());
+                ps.setString(3, event.provider());
+                ps.setString(4, event.success() ? "SUCCESS" : "FAILURE");
+                ps.setString(5, event.reason());
+                ps.setString(6, event.remoteIp());
+                ps.setTimestamp(7, Timestamp.from(event.occurredAt()));
+            });
+        } catch (RuntimeException e) {
+            log.warn("로그인 기록 저장 실패 ({}건)", batch.size(), e);
+        }
+
+        Map<Long, Instant> lastLogins = new HashMap<>(); // 회원별 가장 늦은 로그인 시간
+        for (LoginEvent event : batch) {
+            if (event.success() && event.userId() != null) {
+                lastLogins.merge(event.userId(), event.occurredAt(), (a, b) -> a.isAfter(b) ? a : b);
+            }
+        }
+        if (lastLogins.isEmpty()) {
+            return;
+        }
+        try {
+            jdbcTemplate.batchUpdate(UPDATE_LAST_LOGIN, lastLogins.entrySet(), lastLogins.size(), (ps, entry) -> {
+                Timestamp lastLogin = Timestamp.from(entry.getValue());
+                ps.setTimestamp(1, lastLogin);
+                ps.setLong(2, entry.getKey());
+                ps.setTimestamp(3, lastLogin);
+            });
+        } catch (RuntimeException e) {
+            log.warn("마지막 로그인 시간 저장 실패 ({}명)", lastLogins.size(), e);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.cos.security1.config.audit;
+
+import java.time.Instant;
+
+/**
+ * 로그인 기록 한 건 (LoginAuditListener -> LoginAuditWriter)
+ * userId : 로그인에 성공한 경우에만 있다. (마지막 로그인 시간 갱신 대상)
+ */
+public record LoginEvent(String username, Long userId, String provider, boolean success, String reason,
+                         String remoteIp, Instant occurredAt) {
+
+    public static LoginEvent success(String username, Long userId, String provider, String remoteIp) {
+        return new LoginEvent(username, userId, provider, true, null, remoteIp, Instant.now());
+    }
+
+    public static LoginEvent failure(String username, String provider, String reason, String remoteIp) {
+        return new LoginEvent(username, null, provider, false, reason, remoteIp, Instant.now());
+    }
+}
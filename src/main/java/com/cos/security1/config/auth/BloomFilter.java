@@ -0,0 +1,99 @@
+package com.cos.security1.config.auth;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 블룸 필터 (UsernameFilter에서 사용)
+ * mightContain()이 false이면 put()한 적이 없는 값이다. true이면 put()한 값이거나 fpp 확률로 틀린 값이다.
+ * 비트 배열은 AtomicLongArray => 락 없이 여러 스레드가 동시에 put, mightContain 할 수 있다.
+ *
+ * 해시 함수 k개는 64비트 해시 두 개를 섞어서 만든다. (h1 + i * h2)
+ */
+final class BloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final LongAdder insertions = new LongAdder();
+
+    /**
+     * expectedInsertions : 넣을 값의 수 (넘게 넣어도 동작은 하지만 fpp가 올라간다.)
+     * fpp : 틀리게 true를 반환할 확률
+     */
+    BloomFilter(long expectedInsertions, double fpp) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitSize = wordCount * 64L;
+        this.hashFunctions = Math.max(1, (int) Math.round((double) bitSize / n * Math.log(2)));
+    }
+
+    void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1; // 홀수로 만들어서 h1 + i * h2가 같은 값을 반복하지 않도록
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize;
+            int index = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long word = words.get(index);
+            while ((word & mask) == 0 && !words.compareAndSet(index, word, word | mask)) {
+                word = words.get(index);
+            }
+        }
+        insertions.increment();
+    }
+
+    boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashFunctions; i++) {
+            long bit = ((hash1 + i * hash2) & Long.MAX_VALUE) % bitSize;
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    long byteSize() {
+        return words.length() * 8L;
+    }
+
+    long bitSize() {
+        return bitSize;
+    }
+
+    int hashFunctions() {
+        return hashFunctions;
+    }
+
+    // put() 횟수 (같은 값을 여러 번 넣으면 여러 번 센다.)
+    long insertions() {
+        return insertions.sum();
+    }
+
+    // 지금까지 넣은 수 기준의 예상 fpp = (1 - e^(-kn/m))^k
+    double expectedFpp() {
+        return Math.pow(1 - Math.exp(-hashFunctions * (double) insertions() / bitSize), hashFunctions);
+    }
+
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001B3L; // FNV-1a
+        }
+        return mix(hash);
+    }
+
+    // MurmurHash3 fmix64 (비트를 고르게 섞는다.)
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        hash ^= hash >>> 33;
+        hash *= 0xC4CEB9FE1A85EC53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,98 @@
+package com.cos.security1.config.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.authorization.method.MethodAuthorizationDeniedHandler;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * @PreAuthorize 검사 결과를 (메서드, 권한 목록) 단위로 캐싱하는 AuthorizationManager
+ * 기본 PreAuthorizeAuthorizationManager는 호출될 때마다 SpEL("hasRole('ROLE_MANAGER') or hasRole('ROLE_ADMIN')")을 해석해서 실행한다.
+ * 그런데 hasRole, hasAuthority 같은 권한 검사만으로 이루어진 식은 결과가 권한 목록에 의해서만 결정되기 때문에
+ * 같은 권한 목록이면 한 번 계산한 결과를 그대로 써도 된다. => 두 번째 호출부터는 캐시 조회만 한다.
+ * 권한 목록은 role마다 몇 가지 안 되기 때문에(RoleAuthorities) 캐시에 들어가는 값도 메서드 수 x role 수 정도다.
+ *
+ * 파라미터(#id)나 인증 객체(principal, authentication), 빈(@bean)을 참조하는 식은 결과가 매번 달라질 수 있기 때문에 캐싱하지 않고 그대로 위임한다.
+ *
+ * 역할 계층은 RoleAuthorities가 권한 목록에 미리 펼쳐두기 때문에 계층이 바뀌면 권한 목록(캐시 키)도 바뀐다. => 이전 결과를 쓰지 않는다.
+ * 식 핸들러에 RoleHierarchy를 따로 설정하는 경우에는 키에 드러나지 않기 때문에, 계층을 바꾼 뒤 invalidateAll()을 호출해야 한다.
+ */
+public class CachingPreAuthorizeAuthorizationManager implements AuthorizationManager<MethodInvocation>, MethodAuthorizationDeniedHandler {
+
+    // 권한 검사 함수, and/or/not, 괄호만으로 이루어진 식
+    private static final Pattern AUTHORITY_ONLY_EXPRESSION = Pattern.compile(
+            "^(\\s|\\(|\\)|!|\\band\\b|\\bor\\b|\\bnot\\b"
+                    + "|(hasRole|hasAuthority)\\('[A-Za-z0-9_]+'\\)"
+                    + "|(hasAnyRole|hasAnyAuthority)\\('[A-Za-z0-9_]+'(\\s*,\\s*'[A-Za-z0-9_]+')*\\)"
+                    + "|permitAll|denyAll)+$");
+
+    private final PreAuthorizeAuthorizationManager delegate;
+    private final Map<MethodKey, Boolean> cacheable = new ConcurrentHashMap<>();
+    private final Cache<DecisionKey, AuthorizationDecision> decisions;
+
+    public CachingPreAuthorizeAuthorizationManager(PreAuthorizeAuthorizationManager delegate, long maximumSize) {
+        this.delegate = delegate;
+        this.decisions = Caffeine.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public AuthorizationDecision check(Supplier<Authentication> authentication, MethodInvocation invocation) {
+        MethodKey methodKey = new MethodKey(invocation.getMethod(), AopUtils.getTargetClass(invocation.getThis()));
+        if (!cacheable.computeIfAbsent(methodKey, CachingPreAuthorizeAuthorizationManager::isAuthorityOnly)) {
+            return delegate.check(authentication, invocation);
+        }
+        Authentication current = authentication.get();
+        DecisionKey decisionKey = new DecisionKey(methodKey, current.getAuthorities());
+        AuthorizationDecision decision = decisions.getIfPresent(decisionKey);
+        if (decision == null) {
+            // Cache.get(key, mapping)은 mapping을 ConcurrentHashMap 락(synchronized) 안에서 실행한다. => 가상 스레드 pinning을 피하기 위해 락 밖에서 계산
+            // 같은 키를 동시에 계산해도 결과가 같기 때문에 상관없다.
+            decision = delegate.check(() -> current, invocation);
+            decisions.put(decisionKey, decision);
+        }
+        return decision;
+    }
+
+    // 역할 계층이나 @PreAuthorize 식을 실행 중에 바꿨을 때 캐시된 결과를 버린다.
+    public void invalidateAll() {
+        cacheable.clear();
+        decisions.invalidateAll();
+    }
+
+    @Override
+    public Object handleDeniedInvocation(MethodInvocation methodInvocation, AuthorizationResult authorizationResult) {
+        return delegate.handleDeniedInvocation(methodInvocation, authorizationResult);
+    }
+
+    private static boolean isAuthorityOnly(MethodKey methodKey) {
+        Method method = AopUtils.getMostSpecificMethod(methodKey.method(), methodKey.targetClass());
+        PreAuthorize preAuthorize = AnnotatedElementUtils.findMergedAnnotation(method, PreAuthorize.class);
+        if (preAuthorize == null) {
+            preAuthorize = AnnotatedElementUtils.findMergedAnnotation(methodKey.targetClass(), PreAuthorize.class);
+        }
+        return preAuthorize != null && AUTHORITY_ONLY_EXPRESSION.matcher(preAuthorize.value()).matches();
+    }
+
+    private record MethodKey(Method method, Class<?> targetClass) {
+    }
+
+    private record DecisionKey(MethodKey methodKey, Collection<? extends GrantedAuthority> authorities) {
+    }
+}
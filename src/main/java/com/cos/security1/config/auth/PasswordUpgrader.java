@@ -0,0 +1,40 @@
+package com.cos.security1.config.auth;
+
+import com.cos.security1.config.crypto.PasswordHashingRejectedException;
+import com.cos.security1.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 로그인에 성공한 회원의 비밀번호 해시가 오래된 방식(cost가 낮거나 접두어 없음)이면 새 해시로 교체한다.
+ * 암호화와 DB 쓰기는 로그인 응답을 늦추지 않도록 비동기로 진행한다. (UpgradingAuthenticationProvider에서 호출)
+ * 암호화 풀이 가득 차서 거절되면 교체하지 않는다. => 다음 로그인 때 다시 시도
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PasswordUpgrader {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+
+    /**
+     * currentPassword : 로그인할 때 검증한 해시
+     * 그 사이에 비밀번호가 바뀌었으면 교체하지 않는다. (0건)
+     */
+    @Async
+    public void upgrade(String username, String currentPassword, String rawPassword) {
+        String encodedPassword;
+        try {
+            encodedPassword = passwordEncoder.encode(rawPassword);
+        } catch (PasswordHashingRejectedException e) {
+            log.debug("비밀번호 해시 교체 보류 : {} ({})", username, e.getMessage());
+            return;
+        }
+        int updated = userRepository.updatePassword(username, currentPassword, encodedPassword);
+        log.info("비밀번호 해시 교체 : {} ({}건)", username, updated);
+    }
+}
@@ -1,12 +1,22 @@
 package com.cos.security1.config.auth;
 
 import com.cos.security1.model.User;
-import lombok.Data;
+import com.cos.security1.model.UserCredentials;
+import com.cos.security1.model.UserIdentity;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.security.core.CredentialsContainer;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 
-import java.util.ArrayList;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serial;
+import java.io.Serializable;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Collection;
 import java.util.Map;
 
@@ -23,21 +33,69 @@ import java.util.Map;
  *
  * UserDetails 만들었으면, Authentication도 만들어야 한다.
  */
-@Data
-public class PrincipalDetails implements UserDetails, OAuth2User { // UserDetails를 구현함으로써, PrincipalDetails 타입은 Authentication 안에 저장될 수 있다.
+/**
+ * 세션에는 PrincipalDetails가 그대로 들어가기 때문에 가볍게 유지한다.
+ * 이전에는 User 엔티티 전체 + OAuth attributes 전체를 들고 있었는데, 지금은 id, username, role, provider만 들고 있다.
+ * password : 로그인 검증할 때만 필요하기 때문에 transient + 로그인이 끝나면 시큐리티가 eraseCredentials()로 지운다.
+ * attributes : OAuth 로그인 요청 안에서만 들고 있고 세션에는 저장하지 않는다. (세션에서 꺼낸 뒤에는 getAttributes()가 빈 Map)
+ * 직렬화할 때는 SerializedForm(4개 필드)만 저장한다. => 세션 크기가 작고, 이 클래스의 필드가 바뀌어도 직렬화 형태는 그대로 유지된다.
+ */
+@Getter
+@ToString(exclude = {"password", "attributes"})
+public class PrincipalDetails implements UserDetails, OAuth2User, CredentialsContainer { // UserDetails를 구현함으로써, PrincipalDetails 타입은 Authentication 안에 저장될 수 있다.
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    public static final Duration DORMANT_AFTER = Duration.ofDays(365); // 마지막 로그인 후 이 기간이 지나면 휴면 계정
 
-    private User user; // 콤포지션 : 기존 클래스를 확장하는 대신, 새로운 클래스를 만들고 private 필드로 기존 클래스의 인스턴스를 참조하는 방법을 통해 기능을 확장시키는 것
-    private Map<String, Object> attributes; // OAuth2User 속성 필드
+    private final Long id;
+    private final String username;
+    private final String role;
+    private final String provider; // 일반 로그인이면 null
+
+    private transient String password;
+    private transient Map<String, Object> attributes; // OAuth2User 속성 필드
+    private transient Instant lastLoginDate; // 로그인 검증할 때만 필요 (세션, 토큰에서 꺼낸 경우에는 null)
 
     // 일반 로그인 시 생성자
     public PrincipalDetails(User user) {
-        this.user = user;
+        this(user, null);
+    }
+
+    // 일반 로그인 시 생성자 (PrincipalDetailsService : 엔티티 대신 로그인에 필요한 컬럼만 조회한 결과)
+    public PrincipalDetails(UserCredentials credentials) {
+        this(credentials.id(), credentials.username(), credentials.role(), credentials.provider(), credentials.password(), null);
+        Timestamp lastLoginDate = credentials.lastLoginDate();
+        this.lastLoginDate = lastLoginDate != null ? lastLoginDate.toInstant() : null;
+    }
+
+    // OAuth 로그인 시 생성자 (OAuth2UserJoinService : 엔티티 대신 캐싱된 조회 결과)
+    public PrincipalDetails(UserIdentity identity) {
+        this(identity.id(), identity.username(), identity.role(), identity.provider(), null, null);
+        Timestamp lastLoginDate = identity.lastLoginDate();
+        this.lastLoginDate = lastLoginDate != null ? lastLoginDate.toInstant() : null;
     }
 
     // 생성자 오버로딩
     // OAuth2.0 로그인 시 생성자
-    public PrincipalDetails(User user, Map<String, Object> attributes) { // attributes 정보를 토대로 User 객체를 만들 예정(PrincipalOauth2UserService에서 진행 -> SecurityConfig에서 후처리한다고 한 서비스)
-        this.user = user;
+    public PrincipalDetails(User user, Map<String, Object> attributes) { // User 엔티티는 들고 있지 않고 필요한 값만 꺼내서 저장
+        this(user.getId(), user.getUsername(), user.getRole(), user.getProvider(), user.getPassword(), attributes);
+        Timestamp lastLoginDate = user.getLastLoginDate();
+        this.lastLoginDate = lastLoginDate != null ? lastLoginDate.toInstant() : null;
+    }
+
+    // 토큰 인증 시 생성자 (DB 조회 없이 토큰에 들어있는 값으로 만든다.)
+    public static PrincipalDetails of(Long id, String username, String role, String provider) {
+        return new PrincipalDetails(id, username, role, provider, null, null);
+    }
+
+    private PrincipalDetails(Long id, String username, String role, String provider, String password, Map<String, Object> attributes) {
+        this.id = id;
+        this.username = username;
+        this.role = role;
+        this.provider = provider;
+        this.password = password;
         this.attributes = attributes;
     }
 
@@ -46,26 +104,20 @@ public class PrincipalDetails implements UserDetails, OAuth2User { // UserDetail
      */
 
     // 해당 User의 권한을 리턴하는 곳 (권한은 유저의 role을 뜻한다.)
+    // user의 role은 String 타입이기 때문에 GrantedAuthority 타입으로 변환해야 한다. => role마다 미리 만들어둔 목록을 반환 (RoleAuthorities)
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        Collection<GrantedAuthority> collect = new ArrayList<>();
-        // user의 role은 String 타입이기 때문에 GrantedAuthority 타입으로 변환해야 한다.
-        collect.add(new GrantedAuthority() {
-            @Override
-            public String getAuthority() {
-                return user.getRole();
-            }
-        });
-        return collect;
+        return RoleAuthorities.of(role);
     }
+
     @Override
     public String getPassword() {
-        return user.getPassword();
+        return password;
     }
 
     @Override
     public String getUsername() {
-        return user.getUsername();
+        return username;
     }
 
     // 계정이 만료됐는지 체크
@@ -96,21 +148,57 @@ public class PrincipalDetails implements UserDetails, OAuth2User { // UserDetail
          * 위처럼 서비스를 만든다면, User 엔티티에 lastLoginDate같은 필드를 넣어서
          * 현재 날짜 = user.getLastLoginDate > 1년
          * 이면 false를 반환하도록 로직을 추가하면 된다.
+         * => lastLoginDate는 LoginAuditWriter가 로그인할 때마다 갱신한다.
+         * 폼 로그인 시 시큐리티(DaoAuthenticationProvider)가 비밀번호 검증 전에 확인하고, false이면 DisabledException으로 로그인 실패
+         * 기록이 없는 회원(lastLoginDate 추가 전 가입, 아직 저장 전)은 휴면으로 보지 않는다.
          */
-        return true;
+        return lastLoginDate == null || lastLoginDate.isAfter(Instant.now().minus(DORMANT_AFTER));
     }
 
     /**
      * OAuth2User overriding
      */
 
+    // 세션이나 토큰에서 꺼낸 경우(attributes가 없는 경우)에는 빈 Map (id, username 등은 각 getter로 꺼낸다.)
     @Override
     public Map<String, Object> getAttributes() {
-        return attributes;
+        return attributes != null ? attributes : Map.of();
     }
 
     @Override
     public String getName() {
-        return null;
+        return username;
+    }
+
+    /**
+     * CredentialsContainer overriding
+     * 로그인이 끝나면 시큐리티(ProviderManager)가 호출해서 비밀번호를 메모리에서 지운다.
+     */
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    /**
+     * 직렬화 프록시
+     * 세션 저장(직렬화) 시 PrincipalDetails 대신 SerializedForm이 저장되고, 꺼낼 때(역직렬화) 다시 PrincipalDetails로 바뀐다.
+     * 하위 클래스(PrincipalOidcDetails)도 같은 형태로 저장되도록 protected로 둔다.
+     */
+    @Serial
+    protected final Object writeReplace() {
+        return new SerializedForm(id, username, role, provider);
+    }
+
+    @Serial
+    private void readObject(ObjectInputStream in) throws InvalidObjectException {
+        throw new InvalidObjectException("SerializedForm으로만 역직렬화할 수 있습니다.");
+    }
+
+    private record SerializedForm(Long id, String username, String role, String provider) implements Serializable {
+
+        @Serial
+        private Object readResolve() {
+            return new PrincipalDetails(id, username, role, provider, null, null);
+        }
     }
 }
@@ -1,6 +1,8 @@
 package com.cos.security1.config.auth;
 
-import com.cos.security1.model.User;
+import com.cos.security1.config.datasource.ReplicaReads;
+import com.cos.security1.config.metrics.AuthMetrics;
+import com.cos.security1.model.UserCredentials;
 import com.cos.security1.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -26,6 +28,9 @@ import org.springframework.stereotype.Service;
 public class PrincipalDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final AuthMetrics authMetrics;
+    private final UsernameFilter usernameFilter;
+    private final ReplicaReads replicaReads;
 
     /**
      * 파라미터로 받는 username은 loginForm에서 날아오는 username이기 때문에
@@ -42,10 +47,19 @@ public class PrincipalDetailsService implements UserDetailsService {
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 
-        // 넘어온 username으로 회원이 존재하는지 확인
-        User userEntity = userRepository.findByUsername(username);
-        if (userEntity != null) {
-            return new PrincipalDetails(userEntity); // principalDetails는 UserDetails를 상속받기 때문에 반환 가능
+        // 가입된 적 없는 username이면 DB를 조회하지 않는다. (크리덴셜 스터핑 요청 대부분)
+        if (!usernameFilter.mightContain(username)) {
+            authMetrics.record(AuthMetrics.USER_LOOKUP, AuthMetrics.FORM, () -> null, result -> AuthMetrics.FILTERED);
+            return null;
+        }
+
+        // 넘어온 username으로 회원이 존재하는지 확인 (조회 시간 => auth.user.lookup)
+        // 엔티티가 아니라 로그인에 필요한 컬럼만 조회한다. (UserCredentials)
+        // replica에서 조회하고, 없으면(회원가입 직후) primary에서 다시 조회한다. (ReplicaReads)
+        UserCredentials credentials = authMetrics.record(AuthMetrics.USER_LOOKUP, AuthMetrics.FORM,
+                () -> replicaReads.find(() -> userRepository.findCredentialsByUsername(username)), AuthMetrics::found);
+        if (credentials != null) {
+            return new PrincipalDetails(credentials); // principalDetails는 UserDetails를 상속받기 때문에 반환 가능
             /**
              * 유저 객체를 담아서 리턴하면 이 UserDetails 객체는 Authentication 내부에 들어가게 된다. Authentication(UserDetails)
              * 그리고 그 Authentication 객체는 시큐리티 session에 들어가게 된다. 시큐리티 session(Authentication(UserDetails))
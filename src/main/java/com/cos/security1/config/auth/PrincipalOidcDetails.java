@@ -0,0 +1,45 @@
+package com.cos.security1.config.auth;
+
+import com.cos.security1.model.UserIdentity;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.core.oidc.OidcUserInfo;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+
+import java.io.Serial;
+import java.util.Map;
+
+/**
+ * OIDC 로그인(scope에 openid 포함) 시 Authentication 안에 들어가는 객체
+ * OIDC 로그인은 OidcUser 타입을 반환해야 하기 때문에 PrincipalDetails에 ID 토큰만 더 들고 있다.
+ * ID 토큰은 로그인 요청 안에서만 들고 있고, 세션에는 PrincipalDetails와 같은 형태(SerializedForm)로 저장된다.
+ * => 세션에서 꺼낸 principal은 PrincipalDetails 타입이다.
+ */
+public class PrincipalOidcDetails extends PrincipalDetails implements OidcUser {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final transient OidcIdToken idToken;
+    private final transient OidcUserInfo userInfo; // userinfo 엔드포인트를 호출하지 않았으면 null
+
+    public PrincipalOidcDetails(UserIdentity identity, OidcIdToken idToken, OidcUserInfo userInfo) {
+        super(identity);
+        this.idToken = idToken;
+        this.userInfo = userInfo;
+    }
+
+    @Override
+    public Map<String, Object> getClaims() {
+        return idToken.getClaims();
+    }
+
+    @Override
+    public OidcUserInfo getUserInfo() {
+        return userInfo;
+    }
+
+    @Override
+    public OidcIdToken getIdToken() {
+        return idToken;
+    }
+}
@@ -0,0 +1,63 @@
+package com.cos.security1.config.auth;
+
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * role(문자열) -> 권한 목록(GrantedAuthority)
+ * 이전에는 getAuthorities()가 호출될 때마다 ArrayList와 GrantedAuthority를 새로 만들었는데,
+ * role 종류는 몇 개 안 되기 때문에 role마다 한 번만 만들어두고 같은 (수정 불가) 목록을 공유한다.
+ *
+ * 역할 계층 : ADMIN ⊃ MANAGER ⊃ USER
+ * 권한 목록을 만들 때 계층까지 미리 펼쳐둔다. ex) ROLE_ADMIN => [ROLE_ADMIN, ROLE_MANAGER, ROLE_USER]
+ * 그래서 SecurityConfig의 requestMatchers나 @Secured, @PreAuthorize에서 hasAnyRole("ADMIN", "MANAGER")처럼 상위 권한을 매번 나열할 필요 없이 hasRole("MANAGER")만 쓰면 된다.
+ * RoleHierarchy를 빈으로 등록하지 않는 이유 : 빈으로 등록하면 인가 검사 때마다 계층을 다시 계산하기 때문
+ */
+public final class RoleAuthorities {
+
+    public static final String USER = "ROLE_USER";
+    public static final String MANAGER = "ROLE_MANAGER";
+    public static final String ADMIN = "ROLE_ADMIN";
+
+    private static final RoleHierarchy ROLE_HIERARCHY = RoleHierarchyImpl.withDefaultRolePrefix()
+            .role("ADMIN").implies("MANAGER")
+            .role("MANAGER").implies("USER")
+            .build();
+
+    private static final List<String> ROLES = List.of(USER, MANAGER, ADMIN);
+
+    private static final Map<String, List<GrantedAuthority>> AUTHORITIES = new ConcurrentHashMap<>();
+
+    static {
+        for (String role : ROLES) {
+            AUTHORITIES.put(role, reachableAuthorities(role));
+        }
+    }
+
+    private RoleAuthorities() {
+    }
+
+    public static List<GrantedAuthority> of(String role) {
+        if (role == null) {
+            return List.of();
+        }
+        return AUTHORITIES.computeIfAbsent(role, RoleAuthorities::reachableAuthorities); // 위 3개 외의 role이 DB에 있는 경우
+    }
+
+    // 회원 대량 등록처럼 외부에서 받은 role을 저장하기 전에 확인 (UserImporter)
+    public static boolean isKnown(String role) {
+        return ROLES.contains(role);
+    }
+
+    private static List<GrantedAuthority> reachableAuthorities(String role) {
+        Collection<GrantedAuthority> reachable = ROLE_HIERARCHY.getReachableGrantedAuthorities(List.of(new SimpleGrantedAuthority(role)));
+        return List.copyOf(reachable);
+    }
+}
@@ -0,0 +1,37 @@
+package com.cos.security1.config.auth;
+
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+/**
+ * 폼 로그인 검증 (시큐리티 기본 DaoAuthenticationProvider와 같음)
+ * 기본 구현은 UserDetailsPasswordService가 있으면 로그인 요청 스레드에서 비밀번호를 다시 암호화(bcrypt)한 뒤에 응답한다.
+ * => cost가 올라간 직후에는 로그인할 때마다 bcrypt를 두 번 돌리게 된다.
+ * 여기서는 검증만 하고, 해시 교체가 필요하면 암호화부터 저장까지 PasswordUpgrader에서 비동기로 진행한다.
+ */
+@Component
+public class UpgradingAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private final PasswordEncoder passwordEncoder;
+    private final PasswordUpgrader passwordUpgrader;
+
+    public UpgradingAuthenticationProvider(PrincipalDetailsService principalDetailsService, PasswordEncoder passwordEncoder,
+                                           PasswordUpgrader passwordUpgrader) {
+        this.passwordEncoder = passwordEncoder;
+        this.passwordUpgrader = passwordUpgrader;
+        setUserDetailsService(principalDetailsService);
+        setPasswordEncoder(passwordEncoder);
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal, Authentication authentication, UserDetails user) {
+        // 저장된 해시의 cost가 현재 cost보다 낮거나 접두어가 없으면 새 해시로 교체 (EncoderConfig)
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            passwordUpgrader.upgrade(user.getUsername(), user.getPassword(), authentication.getCredentials().toString());
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -0,0 +1,225 @@
+package com.cos.security1.config.auth;
+
+import com.cos.security1.repository.UserRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.text.Normalizer;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 가입된 username 목록을 블룸 필터로 들고 있다가, 없는 회원이면 DB 조회 없이 바로 실패시킨다.
+ * 크리덴셜 스터핑(없는 username으로 계속 로그인 시도) 요청이 DB까지 가지 않는다. (PrincipalDetailsService)
+ * OAuth 첫 로그인도 조회 없이 바로 회원가입으로 넘어간다. (OAuth2UserJoinService)
+ *
+ * 1. 시작할 때 백그라운드에서 user 테이블의 username을 스트리밍으로 읽어서 만든다. 다 만들기 전에는 항상 DB를 조회한다.
+ * 2. 회원가입 시 저장 전에 put() => 저장 직후 로그인해도 필터에서 걸리지 않는다.
+ * 3. refreshInterval마다 마지막으로 읽은 뒤에 가입한 회원(createDate >= watermark)만 읽어서 지금 필터에 더한다.
+ *    다른 서버, reactive 앱, SQL로 직접 넣은 회원은 put()을 거치지 않기 때문 => 이 서버에서는 최대 refreshInterval 동안 로그인이 실패할 수 있다.
+ *    createDate는 넣은 쪽 서버 시각이고 커밋도 늦을 수 있어서 REFRESH_OVERLAP만큼 겹쳐서 다시 읽는다.
+ *    SQL로 직접 넣을 때 create_date를 비워두면 다음 rebuild 때까지 필터에 없다.
+ * 4. refresh가 계속 실패하면(DB 장애 등) 필터가 오래되었다고 보고 다시 성공할 때까지 항상 DB를 조회한다.
+ * 5. rebuildInterval마다 새 필터를 만들어서 바꿔 끼운다. (회원 수가 늘어나면 크기도 다시 계산, 탈퇴한 회원 정리)
+ *    만드는 동안에도 로그인은 지금 필터를 그대로 사용한다.
+ *    만드는 중에 가입한 회원이 새 필터에서 빠지지 않도록 최근 put()한 값은 recentPuts에 남겨뒀다가 새 필터에도 넣는다.
+ *
+ * 필터가 DB보다 넓게 true를 반환하는 것은 괜찮지만, DB에서 찾을 수 있는 값에 false를 반환하면 로그인이 막힌다. (normalize 참고)
+ */
+@Slf4j
+public class UsernameFilter {
+
+    private static final Duration RECENT_PUT_GRACE = Duration.ofMinutes(1); // 저장 트랜잭션이 커밋되기까지 넉넉하게 기다리는 시간
+    private static final Duration REFRESH_OVERLAP = Duration.ofMinutes(1); // 서버 간 시각 차이 + 커밋 지연
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate readOnlyTransaction;
+    private final long minExpectedInsertions;
+    private final double fpp;
+    private final ConcurrentMap<String, Long> recentPuts = new ConcurrentHashMap<>(); // username -> put() 시각 (nanoTime)
+    private final long maxStalenessNanos;
+    private final ScheduledExecutorService scheduler;
+    // rebuild와 refresh가 같이 돌지 않도록 (synchronized는 쿼리하는 동안 가상 스레드를 캐리어 스레드에 묶어둔다.)
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile BloomFilter filter; // null이면 아직 만드는 중 => 항상 DB 조회
+    private volatile Instant watermark; // 다음 refresh에서 이 시각 이후에 가입한 회원을 읽는다.
+    private volatile long refreshedAt; // 마지막으로 DB와 맞춘 시각 (nanoTime)
+
+    public UsernameFilter(UserRepository userRepository, TransactionTemplate readOnlyTransaction, MeterRegistry meterRegistry,
+                          long minExpectedInsertions, double fpp, Duration rebuildInterval, Duration refreshInterval) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = readOnlyTransaction;
+        this.minExpectedInsertions = minExpectedInsertions;
+        this.fpp = fpp;
+        this.maxStalenessNanos = refreshInterval.multipliedBy(3).toNanos();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "username-filter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::rebuildQuietly, 0, rebuildInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::refreshQuietly, refreshInterval.toMillis(), refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+
+        Gauge.builder("username.filter.memory", this, f -> f.filter != null ? f.filter.byteSize() : 0)
+                .description("username 블룸 필터 크기").baseUnit("bytes").register(meterRegistry);
+        Gauge.builder("username.filter.entries", this, f -> f.filter != null ? f.filter.insertions() : 0)
+                .description("username 블룸 필터에 넣은 수").register(meterRegistry);
+        Gauge.builder("username.filter.fpp", this, f -> f.filter != null ? f.filter.expectedFpp() : 1)
+                .description("지금 들어있는 수 기준 예상 오탐률").register(meterRegistry);
+    }
+
+    /**
+     * false이면 가입된 회원이 아니다. (DB 조회할 필요 없음)
+     * true이면 가입된 회원이거나 fpp 확률로 틀린 경우, 필터가 없거나 오래된 경우 => DB 조회
+     */
+    public boolean mightContain(String username) {
+        BloomFilter current = filter;
+        if (current == null || username == null || System.nanoTime() - refreshedAt > maxStalenessNanos) {
+            return true;
+        }
+        String normalized = normalize(username);
+        return normalized == null || current.mightContain(normalized);
+    }
+
+    // 회원가입 시 저장 전에 호출 (저장이 실패하면 필터에만 남는데, 틀리게 true가 나오는 것뿐이라 괜찮다.)
+    public void put(String username) {
+        if (username == null) {
+            return;
+        }
+        String normalized = normalize(username);
+        if (normalized == null) {
+            return; // 필터로 판단하지 않는 username
+        }
+        recentPuts.put(normalized, System.nanoTime());
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(normalized);
+        }
+    }
+
+    /**
+     * 새 필터를 만들어서 바꿔 끼운다. (주기적으로 자동 실행, 대량으로 insert한 뒤 바로 반영하고 싶을 때 직접 호출)
+     * 크기는 지금 회원 수의 2배 기준 => 다음 재생성 전까지 회원이 늘어나도 fpp가 크게 올라가지 않는다.
+     */
+    public void rebuild() {
+        lock.lock();
+        try {
+            long started = System.nanoTime();
+            Instant readFrom = Instant.now();
+            long users = userRepository.count();
+            BloomFilter next = new BloomFilter(Math.max(minExpectedInsertions, users * 2), fpp);
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> usernames = userRepository.streamAllUsernames()) {
+                    usernames.forEach(username -> addIfAbsent(next, username));
+                }
+            });
+            addRecentPuts(next);
+            filter = next;
+            addRecentPuts(next); // 바꿔 끼우기 직전에 put()한 값
+            watermark = readFrom;
+            refreshedAt = started;
+            long graceStart = started - RECENT_PUT_GRACE.toNanos();
+            recentPuts.values().removeIf(putAt -> putAt - graceStart < 0);
+            log.info("username 필터 생성 : {}명, {}KB, 해시 {}개 ({}ms)", next.insertions(), next.byteSize() / 1024,
+                    next.hashFunctions(), (System.nanoTime() - started) / 1_000_000);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 마지막으로 읽은 뒤에 가입한 회원을 지금 필터에 더한다. (주기적으로 자동 실행)
+     * createDate 인덱스(ix_user_create_date)로 최근 회원만 읽는다.
+     */
+    public void refresh() {
+        lock.lock();
+        try {
+            BloomFilter current = filter;
+            if (current == null) {
+                return; // 아직 처음 만드는 중
+            }
+            long started = System.nanoTime();
+            Instant readFrom = Instant.now();
+            Timestamp since = Timestamp.from(watermark.minus(REFRESH_OVERLAP));
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> usernames = userRepository.streamUsernamesCreatedSince(since)) {
+                    usernames.forEach(username -> addIfAbsent(current, username));
+                }
+            });
+            watermark = readFrom;
+            refreshedAt = started;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 빈 소멸 시 스프링이 자동으로 호출한다.
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void rebuildQuietly() {
+        try {
+            rebuild();
+        } catch (RuntimeException e) {
+            log.warn("username 필터 생성 실패 (이전 필터를 계속 사용)", e);
+        }
+    }
+
+    private void refreshQuietly() {
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("username 필터 갱신 실패 (갱신될 때까지 DB 조회)", e);
+        }
+    }
+
+    // 이미 있는 값(겹쳐서 다시 읽은 회원)은 넣지 않는다. => 비트는 그대로고 insertions(fpp 게이지)만 부풀기 때문
+    private static void addIfAbsent(BloomFilter target, String username) {
+        String normalized = normalize(username);
+        if (normalized != null && !target.mightContain(normalized)) {
+            target.put(normalized);
+        }
+    }
+
+    private void addRecentPuts(BloomFilter next) {
+        for (Map.Entry<String, Long> entry : recentPuts.entrySet()) {
+            next.put(entry.getKey());
+        }
+    }
+
+    /**
+     * DB에서 같다고 비교되는 username이 같은 값이 되도록 바꾼다.
+     * MySQL 8 기본 collation(utf8mb4_0900_ai_ci)은 대소문자와 악센트를 구분하지 않는다. (A = a, é = e, ß = ss)
+     * => 호환 문자를 분해(NFKD)하고 결합 문자(악센트)를 지우고 소문자로 바꾼다.
+     * 끝 공백은 0900 collation에서는 구분하고(NO PAD) 예전 utf8mb4_general_ci에서는 구분하지 않는다. 지워도 true가 더 나올 뿐이라 지운다.
+     * 그래도 ASCII가 아닌 문자가 남으면 collation 규칙을 다 따라갈 수 없어서 null => 필터로 판단하지 않고 DB를 조회한다.
+     */
+    static String normalize(String username) {
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(username, Normalizer.Form.NFKD)).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .replace("ß", "ss")
+                .stripTrailing();
+        for (int i = 0; i < folded.length(); i++) {
+            if (folded.charAt(i) > 0x7F) {
+                return null;
+            }
+        }
+        return folded;
+    }
+}
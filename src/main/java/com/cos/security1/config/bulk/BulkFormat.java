@@ -0,0 +1,133 @@
+package com.cos.security1.config.bulk;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 대량 등록/내보내기 파일 형식 (한 줄에 회원 한 명 => 한 줄씩 읽고 쓰기 때문에 파일 전체를 메모리에 올리지 않는다.)
+ * CSV : 첫 줄은 헤더(username,password,email,role,provider,providerId), 값에 쉼표나 따옴표가 있으면 "..."로 감싼다. (줄바꿈이 들어간 값은 지원하지 않는다.)
+ * NDJSON : 한 줄에 JSON 객체 하나
+ */
+public enum BulkFormat {
+
+    CSV("text/csv") {
+        @Override
+        UserRecord read(String line, ObjectMapper objectMapper) {
+            return UserRecord.of(parseCsv(line));
+        }
+
+        @Override
+        boolean isHeader(String line) {
+            return line.startsWith(UserRecord.COLUMNS[0] + ",");
+        }
+
+        @Override
+        void writeHeader(Writer writer) throws IOException {
+            writer.write(String.join(",", UserRecord.COLUMNS));
+            writer.write('\n');
+        }
+
+        @Override
+        void write(UserRecord record, Writer writer, ObjectMapper objectMapper) throws IOException {
+            String[] values = record.values();
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeCsvValue(values[i], writer);
+            }
+            writer.write('\n');
+        }
+    },
+
+    NDJSON("application/x-ndjson") {
+        @Override
+        UserRecord read(String line, ObjectMapper objectMapper) throws JsonProcessingException {
+            return objectMapper.readValue(line, UserRecord.class);
+        }
+
+        @Override
+        void write(UserRecord record, Writer writer, ObjectMapper objectMapper) throws IOException {
+            writer.write(objectMapper.writeValueAsString(record));
+            writer.write('\n');
+        }
+    };
+
+    private final String mediaType;
+
+    BulkFormat(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String mediaType() {
+        return mediaType;
+    }
+
+    abstract UserRecord read(String line, ObjectMapper objectMapper) throws IOException;
+
+    abstract void write(UserRecord record, Writer writer, ObjectMapper objectMapper) throws IOException;
+
+    boolean isHeader(String line) {
+        return false;
+    }
+
+    void writeHeader(Writer writer) throws IOException {
+    }
+
+    // text/csv;charset=UTF-8 => CSV, 알 수 없으면 IllegalArgumentException
+    public static BulkFormat fromMediaType(String mediaType) {
+        for (BulkFormat format : values()) {
+            if (mediaType != null && mediaType.toLowerCase(Locale.ROOT).startsWith(format.mediaType)) {
+                return format;
+            }
+        }
+        throw new IllegalArgumentException("지원하지 않는 형식입니다. : " + mediaType);
+    }
+
+    static String[] parseCsv(String line) {
+        List<String> values = new ArrayList<>(UserRecord.COLUMNS.length);
+        StringBuilder value = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    value.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    value.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(value.toString());
+                value.setLength(0);
+            } else {
+                value.append(c);
+            }
+        }
+        values.add(value.toString());
+        return values.toArray(String[]::new);
+    }
+
+    private static void writeCsvValue(String value, Writer writer) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,17 @@
+package com.cos.security1.config.bulk;
+
+/**
+ * 대량 등록 결과
+ * resumedFrom : 이어서 등록한 경우 건너뛴 줄 수 (이전 요청에서 저장이 끝난 줄)
+ * committedLine : 저장이 끝난 마지막 줄 (실패한 경우 같은 importId로 다시 보내면 다음 줄부터 이어서 등록)
+ * importedRows : 이번 요청에서 등록한 회원 수
+ */
+public record ImportResult(String importId, long resumedFrom, long committedLine, long importedRows,
+                           long elapsedMillis, double rowsPerSecond, String error) {
+
+    static ImportResult of(String importId, long resumedFrom, long committedLine, long importedRows, long elapsedNanos, String error) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        return new ImportResult(importId, resumedFrom, committedLine, importedRows, elapsedNanos / 1_000_000,
+                seconds > 0 ? Math.round(importedRows / seconds * 10) / 10.0 : 0, error);
+    }
+}
@@ -0,0 +1,63 @@
+package com.cos.security1.config.bulk;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 회원 내보내기 (CSV, NDJSON)
+ * 엔티티로 읽지 않고 JDBC로 한 행씩 읽어서 바로 응답에 쓴다. (fetch size만큼씩 가져온다.) => 회원 수가 많아도 메모리에 올리지 않는다.
+ * MySQL은 JDBC URL에 useCursorFetch=true가 있어야 fetch size대로 나눠서 가져온다.
+ * 비밀번호 해시는 includePasswords일 때만 내보낸다. (다른 서버로 옮길 때 UserImporter가 해시를 그대로 저장한다.)
+ */
+@Slf4j
+public class UserExporter {
+
+    private static final String SELECT = "select username, password, email, role, provider, provider_id from user order by id";
+
+    private final JdbcTemplate jdbcTemplate; // fetch size가 설정된 JdbcTemplate
+    private final ObjectMapper objectMapper;
+    private final Counter exportedRows;
+
+    public UserExporter(JdbcTemplate jdbcTemplate, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.exportedRows = Counter.builder("user.export.rows").description("내보낸 회원 수").register(meterRegistry);
+    }
+
+    public long export(BulkFormat format, boolean includePasswords, OutputStream output) throws IOException {
+        long started = System.nanoTime();
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+        format.writeHeader(writer);
+        long[] rows = {0};
+        RowCallbackHandler writeRow = rs -> {
+            UserRecord record = new UserRecord(rs.getString("username"),
+                    includePasswords ? rs.getString("password") : null,
+                    rs.getString("email"), rs.getString("role"), rs.getString("provider"), rs.getString("provider_id"));
+            try {
+                format.write(record, writer, objectMapper);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e); // 클라이언트가 연결을 끊은 경우 => 조회도 중단
+            }
+            rows[0]++;
+        };
+        jdbcTemplate.query(SELECT, writeRow);
+        writer.flush();
+
+        exportedRows.increment(rows[0]);
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        log.info("회원 내보내기 완료 : {}명, {}ms, {}명/s", rows[0], elapsedMillis, rows[0] * 1000 / elapsedMillis);
+        return rows[0];
+    }
+}
@@ -0,0 +1,18 @@
+package com.cos.security1.config.bulk;
+
+import lombok.Getter;
+
+/**
+ * 대량 등록 중 실패 (잘못된 줄, 중복 username 등)
+ * result에는 실패 전까지 저장된 위치가 들어있다. => 같은 importId로 다시 요청하면 이어서 등록
+ */
+@Getter
+public class UserImportException extends RuntimeException {
+
+    private final ImportResult result;
+
+    public UserImportException(ImportResult result, Throwable cause) {
+        super(result.error(), cause);
+        this.result = result;
+    }
+}
@@ -0,0 +1,181 @@
+package com.cos.security1.config.bulk;
+
+import com.cos.security1.config.auth.RoleAuthorities;
+import com.cos.security1.config.auth.UsernameFilter;
+import com.cos.security1.model.User;
+import com.cos.security1.model.UserImportCheckpoint;
+import com.cos.security1.repository.UserImportCheckpointRepository;
+import com.cos.security1.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * 회원 대량 등록 (CSV, NDJSON)
+ *
+ * 1. 한 줄씩 읽어서 batchSize만큼 모은다. => 파일 전체를 메모리에 올리지 않는다.
+ * 2. 모은 회원의 비밀번호를 전용 스레드풀에서 병렬로 암호화한다.
+ *    로그인용 풀(BoundedPasswordEncoder)은 쓰지 않는다. => 대량 등록이 로그인 대기열을 채우지 않는다.
+ * 3. JDBC batch로 insert하고(UserRepositoryCustom.insertAll), 같은 트랜잭션에서 진행 상황(UserImportCheckpoint)을 저장한다.
+ * 4. 실패하면 그 batch만 롤백된다. 같은 importId로 다시 보내면 저장이 끝난 줄은 건너뛰고 이어서 등록한다.
+ *
+ * 처리 속도 : 결과(ImportResult.rowsPerSecond), 로그, user.import.rows 메트릭
+ */
+@Slf4j
+public class UserImporter {
+
+    private static final String BCRYPT_PREFIX = "{bcrypt}";
+    private static final Pattern BCRYPT = Pattern.compile("\\$2[aby]?\\$\\d\\d\\$[./0-9A-Za-z]{53}"); // 접두어 없는 bcrypt 해시
+
+    private final UserRepository userRepository;
+    private final UserImportCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final PasswordEncoder passwordEncoder;
+    private final UsernameFilter usernameFilter;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool hashingPool;
+    private final int batchSize;
+    private final Counter importedRows;
+
+    public UserImporter(UserRepository userRepository, UserImportCheckpointRepository checkpointRepository,
+                        TransactionTemplate transactionTemplate, PasswordEncoder passwordEncoder, UsernameFilter usernameFilter,
+                        ObjectMapper objectMapper, MeterRegistry meterRegistry, int hashingThreads, int batchSize) {
+        this.userRepository = userRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.usernameFilter = usernameFilter;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        AtomicInteger sequence = new AtomicInteger();
+        this.hashingPool = new ForkJoinPool(hashingThreads, pool -> {
+            var thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool); // daemon 스레드
+            thread.setName("user-import-hashing-" + sequence.incrementAndGet());
+            return thread;
+        }, null, false);
+        this.importedRows = Counter.builder("user.import.rows").description("대량 등록한 회원 수").register(meterRegistry);
+    }
+
+    /**
+     * importId : 이어서 등록할 때 사용하는 값 (처음 요청이면 새로 만들어서 넘긴다.)
+     * 실패하면 UserImportException (실패 전까지 저장된 위치 포함)
+     */
+    public ImportResult importUsers(String importId, BulkFormat format, InputStream input) {
+        long started = System.nanoTime();
+        long resumedFrom = checkpointRepository.findById(importId).map(UserImportCheckpoint::getCommittedLine).orElse(0L);
+        long committedLine = resumedFrom;
+        long imported = 0;
+        long lineNumber = 0;
+        List<UserRecord> chunk = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (lineNumber <= resumedFrom || line.isBlank() || (lineNumber == 1 && format.isHeader(line))) {
+                    continue;
+                }
+                chunk.add(parse(format, line, lineNumber));
+                if (chunk.size() >= batchSize) {
+                    commit(importId, chunk, lineNumber);
+                    imported += chunk.size();
+                    committedLine = lineNumber;
+                    chunk.clear();
+                }
+            }
+            if (lineNumber > committedLine) {
+                commit(importId, chunk, lineNumber);
+                imported += chunk.size();
+                committedLine = lineNumber;
+            }
+        } catch (IOException | RuntimeException e) {
+            ImportResult result = ImportResult.of(importId, resumedFrom, committedLine, imported, System.nanoTime() - started,
+                    e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+            log.warn("회원 대량 등록 실패 : {} ({}번째 줄까지 저장, {}명)", importId, committedLine, imported, e);
+            throw new UserImportException(result, e);
+        }
+
+        ImportResult result = ImportResult.of(importId, resumedFrom, committedLine, imported, System.nanoTime() - started, null);
+        log.info("회원 대량 등록 완료 : {} ({}명, {}ms, {}명/s)", importId, imported, result.elapsedMillis(), result.rowsPerSecond());
+        return result;
+    }
+
+    // 빈 소멸 시 스프링이 자동으로 호출한다.
+    public void shutdown() {
+        hashingPool.shutdown();
+    }
+
+    private void commit(String importId, List<UserRecord> records, long lastLine) {
+        List<User> users = hashingPool.submit(() -> records.parallelStream().map(this::toUser).toList()).join();
+        users.forEach(user -> usernameFilter.put(user.getUsername())); // 저장 직후 로그인해도 필터에 걸리지 않도록 저장 전에 넣는다.
+        transactionTemplate.executeWithoutResult(status -> {
+            userRepository.insertAll(users);
+            UserImportCheckpoint checkpoint = checkpointRepository.findById(importId)
+                    .orElseGet(() -> new UserImportCheckpoint(importId));
+            checkpoint.advance(lastLine, users.size());
+            checkpointRepository.save(checkpoint);
+        });
+        importedRows.increment(users.size());
+    }
+
+    private UserRecord parse(BulkFormat format, String line, long lineNumber) {
+        UserRecord record;
+        try {
+            record = format.read(line, objectMapper);
+        } catch (IOException | RuntimeException e) {
+            throw new IllegalArgumentException(lineNumber + "번째 줄을 읽을 수 없습니다. : " + e.getMessage(), e);
+        }
+        if (!StringUtils.hasText(record.username())) {
+            throw new IllegalArgumentException(lineNumber + "번째 줄에 username이 없습니다.");
+        }
+        if (record.password() == null && record.provider() == null) {
+            throw new IllegalArgumentException(lineNumber + "번째 줄에 password가 없습니다. : " + record.username());
+        }
+        if (record.role() != null && !RoleAuthorities.isKnown(record.role())) {
+            throw new IllegalArgumentException(lineNumber + "번째 줄의 role을 알 수 없습니다. : " + record.role());
+        }
+        return record;
+    }
+
+    private User toUser(UserRecord record) {
+        return User.builder()
+                .username(record.username())
+                .password(password(record))
+                .email(record.email())
+                .role(record.role() != null ? record.role() : "ROLE_USER")
+                .provider(record.provider())
+                .providerId(record.providerId())
+                .build();
+    }
+
+    /**
+     * bcrypt 해시({bcrypt}$2a$..., $2a$...)면 그대로, 나머지는 모두 평문으로 보고 암호화
+     * {noop}, {sha256}처럼 다른 접두어를 그대로 저장하면 검증할 PasswordEncoder가 없거나 평문/약한 해시가 저장되기 때문
+     */
+    private String password(UserRecord record) {
+        String password = record.password();
+        if (password == null || password.equals(User.UNUSABLE_PASSWORD)) {
+            return User.UNUSABLE_PASSWORD; // OAuth 회원
+        }
+        String hash = password.startsWith(BCRYPT_PREFIX) ? password.substring(BCRYPT_PREFIX.length()) : password;
+        if (BCRYPT.matcher(hash).matches()) {
+            return password;
+        }
+        return passwordEncoder.encode(password);
+    }
+}
@@ -0,0 +1,29 @@
+package com.cos.security1.config.bulk;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 대량 등록/내보내기 한 줄 (CSV 한 행, NDJSON 한 줄)
+ * password : 평문이면 등록할 때 암호화, 이미 bcrypt 해시({bcrypt}$2a$..., $2a$...)면 그대로 저장 (다른 서버에서 내보낸 파일을 그대로 옮길 수 있도록)
+ *            OAuth 회원(provider가 있는 경우)은 비워두면 User.UNUSABLE_PASSWORD
+ * role : 비워두면 ROLE_USER
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record UserRecord(String username, String password, String email, String role, String provider, String providerId) {
+
+    static final String[] COLUMNS = {"username", "password", "email", "role", "provider", "providerId"};
+
+    static UserRecord of(String[] values) {
+        return new UserRecord(value(values, 0), value(values, 1), value(values, 2),
+                value(values, 3), value(values, 4), value(values, 5));
+    }
+
+    String[] values() {
+        return new String[]{username, password, email, role, provider, providerId};
+    }
+
+    // 빈 칸은 null
+    private static String value(String[] values, int index) {
+        return index < values.length && !values[index].isEmpty() ? values[index] : null;
+    }
+}
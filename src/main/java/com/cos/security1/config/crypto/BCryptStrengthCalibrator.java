@@ -0,0 +1,57 @@
+package com.cos.security1.config.crypto;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * 서버 성능에 맞게 bcrypt cost(strength)를 정해준다.
+ * bcrypt는 cost가 1 올라갈 때마다 걸리는 시간이 2배가 된다.
+ * 그래서 minStrength로 한 번 측정해보고, 목표 시간(target)을 넘지 않는 가장 큰 cost를 고른다.
+ * ex) cost 10에 60ms, 목표 250ms => cost 12(240ms)
+ */
+@Slf4j
+public final class BCryptStrengthCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration";
+
+    private BCryptStrengthCalibrator() {
+    }
+
+    public static int calibrate(Duration target, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        String hash = encoder.encode(SAMPLE_PASSWORD); // 첫 실행은 JIT 워밍업 때문에 느리므로 측정하지 않는다.
+
+        long started = System.nanoTime();
+        encoder.matches(SAMPLE_PASSWORD, hash);
+        long elapsed = Math.max(System.nanoTime() - started, 1);
+
+        int strength = minStrength;
+        while (strength < maxStrength && elapsed * 2 <= target.toNanos()) {
+            elapsed *= 2;
+            strength++;
+        }
+        log.info("bcrypt strength {} 선택 (예상 검증 시간 {}ms, 목표 {}ms)", strength, elapsed / 1_000_000, target.toMillis());
+        return strength;
+    }
+
+    /**
+     * 저장된 해시의 cost를 꺼낸다. ($2a$10$... => 10)
+     * bcrypt 형식이 아니면 -1
+     */
+    public static int strengthOf(String encodedPassword) {
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$') {
+            return -1;
+        }
+        int end = encodedPassword.indexOf('$', 4);
+        if (end < 0) {
+            return -1;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, end));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
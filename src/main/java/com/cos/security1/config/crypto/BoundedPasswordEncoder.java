@@ -0,0 +1,142 @@
+package com.cos.security1.config.crypto;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 비밀번호 암호화(encode)와 검증(matches)을 전용 스레드풀에서 실행하는 PasswordEncoder
+ * bcrypt는 CPU를 많이 쓰기 때문에 톰캣 요청 스레드에서 그대로 돌리면
+ * 로그인이 몰렸을 때 모든 요청 스레드가 bcrypt에 묶여서 /loginForm, / 같은 가벼운 페이지까지 멈춘다.
+ * poolSize : 동시에 bcrypt를 돌릴 수 있는 스레드 수
+ * queueCapacity : 대기할 수 있는 요청 수 (넘어가면 기다리지 않고 PasswordHashingRejectedException 발생)
+ * 가상 스레드 모드(VirtualThreadConfig)에서도 이 풀은 플랫폼 스레드를 유지한다. => 요청 스레드 수가 늘어나도 bcrypt를 동시에 돌리는 수는 poolSize로 제한된다.
+ * password.hashing : 대기 시간을 뺀 암호화/검증 시간 (operation : encode, matches / outcome : success, match, mismatch)
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Timer waitTimer;
+    private final Timer encodeTimer;
+    private final Timer matchTimer;
+    private final Timer mismatchTimer;
+    private final Counter rejectedCounter;
+
+    public BoundedPasswordEncoder(PasswordEncoder delegate, int poolSize, int queueCapacity, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), threadFactory(), new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("password.hashing.queue", executor, e -> e.getQueue().size())
+                .description("암호화/검증 대기 중인 요청 수")
+                .register(meterRegistry);
+        Gauge.builder("password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("암호화/검증 중인 스레드 수")
+                .register(meterRegistry);
+        this.waitTimer = Timer.builder("password.hashing.wait")
+                .description("대기열에서 기다린 시간")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        this.encodeTimer = hashingTimer("encode", "success", meterRegistry);
+        this.matchTimer = hashingTimer("matches", "match", meterRegistry);
+        this.mismatchTimer = hashingTimer("matches", "mismatch", meterRegistry);
+        this.rejectedCounter = Counter.builder("password.hashing.rejected")
+                .description("대기열이 가득 차서 거절된 요청 수")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> {
+            long start = System.nanoTime();
+            String encoded = delegate.encode(rawPassword);
+            encodeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return encoded;
+        });
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> {
+            long start = System.nanoTime();
+            boolean matches = delegate.matches(rawPassword, encodedPassword);
+            (matches ? matchTimer : mismatchTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return matches;
+        });
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword); // 해시 문자열만 보고 판단하기 때문에 풀을 거칠 필요 없다.
+    }
+
+    /**
+     * 풀을 거치지 않는 PasswordEncoder (대량 등록처럼 자체 스레드풀에서 암호화하는 경우)
+     * 로그인/회원가입 요청의 대기열을 대량 작업이 채우지 않도록 따로 쓴다.
+     */
+    public PasswordEncoder getDelegate() {
+        return delegate;
+    }
+
+    private <T> T execute(Supplier<T> task) {
+        long queuedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return task.get();
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException("비밀번호 처리 요청이 많아 잠시 후 다시 시도해주세요.");
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException("비밀번호 처리 중 요청이 중단되었습니다.");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    // 빈 소멸 시 스프링이 자동으로 호출한다. (@Bean의 destroyMethod 추론)
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static Timer hashingTimer(String operation, String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("password.hashing")
+                .description("암호화/검증 시간 (대기 시간 제외)")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory threadFactory() {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "password-hashing-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
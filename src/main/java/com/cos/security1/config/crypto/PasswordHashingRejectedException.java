@@ -0,0 +1,19 @@
+package com.cos.security1.config.crypto;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationServiceException;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * 비밀번호 암호화/검증 대기열이 가득 찼을 때 발생하는 예외
+ * 요청을 무작정 기다리게 하지 않고 바로 503을 돌려준다.
+ * 폼 로그인 : SecurityConfig의 failureHandler에서 503으로 응답
+ * 회원가입 : @ResponseStatus로 503 응답
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PasswordHashingRejectedException extends AuthenticationServiceException {
+
+    public PasswordHashingRejectedException(String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,47 @@
+package com.cos.security1.config.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 로그인 시 회원 조회 (replica 우선)
+ * readOnly 트랜잭션 조회는 replica로 간다. (DataSourceConfig) 그런데 replica는 primary보다 조금 늦게 반영된다.
+ * => 회원가입 직후의 로그인은 replica에 아직 회원이 없을 수 있다.
+ * replica에 없으면 primary에서 한 번 더 조회한다. (primary 트랜잭션 안에서 호출하면 readOnly 조회도 primary 커넥션을 그대로 사용)
+ * 이 재조회는 UsernameFilter를 통과한 조회에만 적용된다. 다른 서버에서 가입한 회원은 이 서버의 필터에 아직 없을 수 있어서
+ * 필터가 갱신될 때까지(username.filter.refresh-interval) DB를 조회하지 않고 로그인이 실패할 수 있다.
+ * 없는 username은 대부분 UsernameFilter에서 걸러지기 때문에 primary까지 오는 조회는 가입 직후의 회원 + 필터 오탐 정도다.
+ *
+ * replica가 없으면(primary == null) 한 번만 조회한다.
+ * datasource.replica.fallback : replica에 없어서 primary를 다시 조회한 횟수
+ */
+public class ReplicaReads {
+
+    private final TransactionTemplate primary;
+    private final Counter fallbacks;
+
+    public ReplicaReads(TransactionTemplate primary, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.fallbacks = Counter.builder("datasource.replica.fallback")
+                .description("replica에 없어서 primary에서 다시 조회한 횟수")
+                .register(meterRegistry);
+    }
+
+    // lookup : readOnly 트랜잭션 조회 (결과가 없으면 null 또는 Optional.empty())
+    public <T> T find(Supplier<T> lookup) {
+        T result = lookup.get();
+        if (primary == null || !isEmpty(result)) {
+            return result;
+        }
+        fallbacks.increment();
+        return primary.execute(status -> lookup.get());
+    }
+
+    private static boolean isEmpty(Object result) {
+        return result == null || result instanceof Optional<?> optional && optional.isEmpty();
+    }
+}
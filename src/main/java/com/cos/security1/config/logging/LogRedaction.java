@@ -0,0 +1,66 @@
+package com.cos.security1.config.logging;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 로그에 남기면 안 되는 값(토큰, 비밀번호 등)을 가려서 출력한다.
+ * 반환하는 객체는 toString()이 호출될 때(로그가 실제로 출력될 때)만 문자열을 만든다.
+ * => 로그 레벨이 꺼져 있거나 샘플링(SamplingTurboFilter)에서 빠지면 문자열을 만들지 않는다.
+ */
+public final class LogRedaction {
+
+    static final String MASK = "****";
+
+    // 이름에 이 단어가 들어간 키는 값을 가린다.
+    private static final String[] SENSITIVE_KEYS = {"token", "password", "secret", "code", "credential", "assertion"};
+
+    private LogRedaction() {
+    }
+
+    /**
+     * OAuth 제공자가 준 attributes
+     * 키와 값의 타입은 남기고, 민감한 키의 값은 가린다. (email, 이름 등 개인정보도 값은 남기지 않는다.)
+     * ex) {sub=String, email=String, access_token=****}
+     */
+    public static Object attributes(Map<String, ?> attributes) {
+        return new Object() {
+            @Override
+            public String toString() {
+                if (attributes == null) {
+                    return "null";
+                }
+                StringBuilder builder = new StringBuilder(attributes.size() * 16).append('{');
+                for (Map.Entry<String, ?> entry : attributes.entrySet()) {
+                    if (builder.length() > 1) {
+                        builder.append(", ");
+                    }
+                    builder.append(entry.getKey()).append('=');
+                    Object value = entry.getValue();
+                    builder.append(isSensitive(entry.getKey()) ? MASK : value == null ? "null" : value.getClass().getSimpleName());
+                }
+                return builder.append('}').toString();
+            }
+        };
+    }
+
+    /**
+     * 앞 4글자만 남기고 가린다. (어떤 값인지 구분만 할 수 있게)
+     */
+    public static String mask(String value) {
+        if (value == null) {
+            return null;
+        }
+        return value.length() <= 4 ? MASK : value.substring(0, 4) + MASK;
+    }
+
+    static boolean isSensitive(String key) {
+        String lower = key.toLowerCase(Locale.ROOT);
+        for (String sensitive : SENSITIVE_KEYS) {
+            if (lower.contains(sensitive)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,42 @@
+package com.cos.security1.config.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 로그인마다 남는 상세 로그(SAMPLED 마커)는 rate건 중 1건만 출력한다. (logback-spring.xml에서 등록)
+ * TurboFilter는 로그 메시지를 만들기 전(파라미터 포맷팅, 이벤트 객체 생성 전)에 실행되기 때문에 버려지는 로그는 비용이 거의 없다.
+ * WARN 이상은 샘플링하지 않는다.
+ *
+ * 사용 : log.info(SamplingTurboFilter.SAMPLED, "...", ...)
+ * 마커가 붙은 로그에 isInfoEnabled(SAMPLED) 같은 확인을 따로 하면 카운트가 두 번 올라가기 때문에 확인 없이 바로 호출한다.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+
+    public static final Marker SAMPLED = MarkerFactory.getMarker("SAMPLED");
+
+    private final AtomicLong counter = new AtomicLong();
+    private int rate = 100;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || !marker.contains(SAMPLED) || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (!level.isGreaterOrEqual(logger.getEffectiveLevel())) { // 어차피 출력되지 않는 로그는 카운트하지 않는다.
+            return FilterReply.DENY;
+        }
+        return rate <= 1 || counter.getAndIncrement() % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    // logback-spring.xml의 <rate> 값 (1이면 전부 출력)
+    public void setRate(int rate) {
+        this.rate = rate;
+    }
+}
@@ -0,0 +1,97 @@
+package com.cos.security1.config.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 로그인 단계별 메트릭 (/actuator/metrics/{이름}?tag=provider:google 처럼 조회)
+ * auth.user.lookup : 회원 조회 시간 (provider : form, google, facebook, naver / outcome : found, not_found, filtered, error)
+ *   filtered : username 필터(UsernameFilter)에서 걸러져서 DB를 조회하지 않은 경우
+ * auth.oauth2.userinfo : 제공자 회원 프로필 조회 시간 (provider / outcome : success, error)
+ * auth.signup : 회원가입 저장 시간 (provider / outcome : created, duplicate, error)
+ * auth.authorization : 인가 결정 수 (target : request, method / outcome : granted, denied) => MeteredAuthorizationEventPublisher
+ * password.hashing : bcrypt 암호화/검증 시간 => BoundedPasswordEncoder
+ *
+ * 퍼센타일 히스토그램은 만들지 않기 때문에 Timer는 count, sum, max만 기록한다. => 기록 비용이 작아서 운영에서도 켜둔다.
+ * 같은 (이름, 태그)의 Timer는 한 번만 만들고 재사용한다.
+ */
+@Component
+public class AuthMetrics {
+
+    public static final String USER_LOOKUP = "auth.user.lookup";
+    public static final String OAUTH2_USERINFO = "auth.oauth2.userinfo";
+    public static final String SIGNUP = "auth.signup";
+    public static final String AUTHORIZATION = "auth.authorization";
+
+    public static final String FORM = "form"; // 폼 로그인, 폼 회원가입의 provider 태그
+
+    public static final String FOUND = "found";
+    public static final String NOT_FOUND = "not_found";
+    public static final String FILTERED = "filtered";
+    public static final String SUCCESS = "success";
+    public static final String CREATED = "created";
+    public static final String DUPLICATE = "duplicate";
+    public static final String ERROR = "error";
+
+    private final MeterRegistry meterRegistry;
+    private final Map<MeterKey, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<MeterKey, Counter> counters = new ConcurrentHashMap<>();
+
+    public AuthMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * stage를 실행하고 걸린 시간을 기록한다.
+     * outcome : 결과값 -> outcome 태그 (예외가 나면 error, 유니크 인덱스 위반이면 duplicate)
+     */
+    public <T> T record(String name, String provider, Supplier<T> stage, Function<? super T, String> outcome) {
+        long start = System.nanoTime();
+        try {
+            T result = stage.get();
+            timer(name, provider, outcome.apply(result)).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (RuntimeException e) {
+            String error = e instanceof DataIntegrityViolationException ? DUPLICATE : ERROR;
+            timer(name, provider, error).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    public void authorization(String target, boolean granted) {
+        counters.computeIfAbsent(new MeterKey(AUTHORIZATION, target, granted ? "granted" : "denied"), key -> Counter.builder(key.name())
+                        .description("인가 결정 수")
+                        .tag("target", key.tag())
+                        .tag("outcome", key.outcome())
+                        .register(meterRegistry))
+                .increment();
+    }
+
+    // 조회 결과 -> found / not_found (User, UserCredentials 또는 Optional<UserIdentity>)
+    public static String found(Object result) {
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? FOUND : NOT_FOUND;
+        }
+        return result != null ? FOUND : NOT_FOUND;
+    }
+
+    private Timer timer(String name, String provider, String outcome) {
+        return timers.computeIfAbsent(new MeterKey(name, provider, outcome), key -> Timer.builder(key.name())
+                .tag("provider", key.tag())
+                .tag("outcome", key.outcome())
+                .register(meterRegistry));
+    }
+
+    private record MeterKey(String name, String tag, String outcome) {
+    }
+}
@@ -0,0 +1,39 @@
+package com.cos.security1.config.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationEventPublisher;
+import org.springframework.security.authorization.AuthorizationResult;
+import org.springframework.security.core.Authentication;
+
+import java.util.function.Supplier;
+
+/**
+ * 인가 결정(허용/거부)마다 auth.authorization 카운터를 올리고, 기존 이벤트 발행(거부 시 AuthorizationDeniedEvent)은 그대로 위임한다.
+ * 요청 인가(AuthorizationFilter)와 메서드 보안(@Secured, @PreAuthorize)이 모두 이 빈을 사용한다.
+ * 인가 검사 자체는 1us도 걸리지 않기 때문에 시간은 재지 않고 횟수만 센다.
+ */
+public class MeteredAuthorizationEventPublisher implements AuthorizationEventPublisher {
+
+    private final AuthorizationEventPublisher delegate;
+    private final AuthMetrics authMetrics;
+
+    public MeteredAuthorizationEventPublisher(AuthorizationEventPublisher delegate, AuthMetrics authMetrics) {
+        this.delegate = delegate;
+        this.authMetrics = authMetrics;
+    }
+
+    @Override
+    public <T> void publishAuthorizationEvent(Supplier<Authentication> authentication, T object, AuthorizationResult result) {
+        authMetrics.authorization(object instanceof HttpServletRequest ? "request" : "method",
+                result == null || result.isGranted()); // null(기권)이면 통과
+        delegate.publishAuthorizationEvent(authentication, object, result);
+    }
+
+    @Override
+    @Deprecated
+    @SuppressWarnings("deprecation")
+    public <T> void publishAuthorizationEvent(Supplier<Authentication> authentication, T object, AuthorizationDecision decision) {
+        publishAuthorizationEvent(authentication, object, (AuthorizationResult) decision);
+    }
+}
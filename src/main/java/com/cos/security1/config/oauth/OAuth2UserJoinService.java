@@ -0,0 +1,101 @@
+package com.cos.security1.config.oauth;
+
+import com.cos.security1.config.auth.UsernameFilter;
+import com.cos.security1.config.datasource.ReplicaReads;
+import com.cos.security1.config.metrics.AuthMetrics;
+import com.cos.security1.config.oauth.provider.OAuth2UserInfo;
+import com.cos.security1.model.User;
+import com.cos.security1.model.UserIdentity;
+import com.cos.security1.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * OAuth 로그인 시 회원 조회 + 회원가입(insert-or-get)
+ * 이전 방식 : findByUsername() -> 없으면 save()
+ * => 같은 회원이 동시에 첫 로그인을 하면 둘 다 조회 결과가 없어서 둘 다 insert 해버린다. (중복 회원)
+ * 지금 방식 : (provider, providerId) 유니크 인덱스로 조회 -> 없으면 insert
+ * => 동시에 insert 하더라도 유니크 인덱스 때문에 한 쪽만 성공하고, 실패한 쪽은 먼저 들어간 회원을 다시 조회해서 반환한다.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OAuth2UserJoinService {
+
+    private final UserRepository userRepository;
+    private final AuthMetrics authMetrics;
+    private final UsernameFilter usernameFilter;
+    private final ReplicaReads replicaReads;
+
+    /**
+     * OAuth 로그인(PrincipalOauth2UserService), OIDC 로그인(PrincipalOidcUserService) 공통 회원가입
+     */
+    public UserIdentity findOrJoin(OAuth2UserInfo oAuth2UserInfo) {
+        String provider = oAuth2UserInfo.getProvider(); // google or facebook or naver
+        String providerId = oAuth2UserInfo.getProviderId();
+        String username = provider + "_" + providerId; // google_216543218921321
+        /**
+         * OAuth 회원은 비밀번호로 로그인하지 않기 때문에 비밀번호를 암호화할 필요가 없다.
+         * 이전에는 재로그인할 때도 매번 bcrypt 암호화(수십 ms)를 하고 결과를 버렸는데,
+         * 지금은 최초 로그인(회원가입) 시에만 어떤 비밀번호와도 일치하지 않는 값(User.UNUSABLE_PASSWORD)을 넣는다.
+         * 재로그인 : 암호화 X, DB 쓰기 X (조회만)
+         */
+        String password = User.UNUSABLE_PASSWORD;
+        String email = oAuth2UserInfo.getEmail();
+        String role = "ROLE_USER";
+
+        Supplier<User> newUser = () -> {
+            log.info("최초 로그인입니다. 회원가입을 진행합니다. : {}", provider);
+            return User.builder()
+                    .username(username)
+                    .password(password)
+                    .email(email)
+                    .role(role)
+                    .provider(provider)
+                    .providerId(providerId)
+                    .build();
+        };
+
+        // username 필터에 없으면 처음 로그인하는 회원 => 조회 없이 바로 회원가입 (필터가 틀렸어도 join()에서 기존 회원을 반환)
+        if (!usernameFilter.mightContain(username)) {
+            return join(provider, providerId, newUser.get());
+        }
+
+        // 중복 회원가입 체크 ((provider, providerId) 유니크 인덱스로 조회, 없으면 회원가입)
+        return findOrJoin(provider, providerId, newUser);
+    }
+
+    /**
+     * 재로그인 : 인덱스 조회 1번 (캐시에 있으면 DB 조회도 없다.) => replica
+     * 첫 로그인 : 조회 1번 + insert 1번 (replica에 없으면 primary에서 한 번 더 조회 => 가입 직후 다시 로그인해도 중복 가입 시도 X)
+     * newUser는 실제로 회원가입을 할 때만 호출된다.
+     * 조회 결과는 캐시에 들어가는 불변 객체(UserIdentity) => 엔티티를 여러 요청이 같이 들고 있지 않는다.
+     */
+    public UserIdentity findOrJoin(String provider, String providerId, Supplier<User> newUser) {
+        return authMetrics.record(AuthMetrics.USER_LOOKUP, provider,
+                        () -> findByProviderId(provider, providerId), AuthMetrics::found)
+                .orElseGet(() -> join(provider, providerId, newUser.get()));
+    }
+
+    private UserIdentity join(String provider, String providerId, User user) {
+        usernameFilter.put(user.getUsername()); // 저장 직후의 로그인이 필터에 걸리지 않도록 저장 전에 넣는다.
+        try {
+            // flush까지 해야 유니크 인덱스 위반을 여기서 바로 알 수 있다. (저장 시간 => auth.signup, 위반이면 outcome=duplicate)
+            User saved = authMetrics.record(AuthMetrics.SIGNUP, provider, () -> userRepository.saveAndFlush(user), result -> AuthMetrics.CREATED);
+            return UserIdentity.of(saved);
+        } catch (DataIntegrityViolationException e) {
+            // 이미 가입된 회원이 없다면(ex. 같은 username의 일반 회원이 있는 경우) 그대로 예외
+            return findByProviderId(provider, providerId)
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    private Optional<UserIdentity> findByProviderId(String provider, String providerId) {
+        return replicaReads.find(() -> userRepository.findIdentityByProviderAndProviderId(provider, providerId));
+    }
+}
@@ -1,30 +1,47 @@
 package com.cos.security1.config.oauth;
 
 import com.cos.security1.config.auth.PrincipalDetails;
-import com.cos.security1.config.oauth.provider.FacebookUserInfo;
-import com.cos.security1.config.oauth.provider.GoogleUserInfo;
-import com.cos.security1.config.oauth.provider.NaverUserInfo;
+import com.cos.security1.config.logging.LogRedaction;
+import com.cos.security1.config.logging.SamplingTurboFilter;
+import com.cos.security1.config.metrics.AuthMetrics;
+import com.cos.security1.config.oauth.client.OAuth2HttpClient;
+import com.cos.security1.config.oauth.provider.OAuth2Provider;
 import com.cos.security1.config.oauth.provider.OAuth2UserInfo;
-import com.cos.security1.model.User;
-import com.cos.security1.repository.UserRepository;
-import lombok.RequiredArgsConstructor;
+import com.cos.security1.model.UserIdentity;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
 import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
 import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
 import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Service;
-
-import java.util.Map;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestOperations;
 
 @Service
-@RequiredArgsConstructor
 @Slf4j
 public class PrincipalOauth2UserService extends DefaultOAuth2UserService {
 
-    private final BCryptPasswordEncoder bCryptPasswordEncoder;
-    private final UserRepository userRepository;
+    private static final String UNSUPPORTED_PROVIDER = "unsupported_provider";
+    private static final String INVALID_USER_INFO = "invalid_user_info";
+
+    private final OAuth2UserJoinService oAuth2UserJoinService;
+    private final AuthMetrics authMetrics;
+    private final AccountStatusUserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
+
+    @Autowired
+    public PrincipalOauth2UserService(OAuth2UserJoinService oAuth2UserJoinService, OAuth2HttpClient oAuth2HttpClient, AuthMetrics authMetrics) {
+        this(oAuth2UserJoinService, oAuth2HttpClient.restTemplate(), authMetrics); // super.loadUser()의 회원 프로필 조회 요청에 커넥션 풀, 타임아웃, 서킷 브레이커 적용
+    }
+
+    PrincipalOauth2UserService(OAuth2UserJoinService oAuth2UserJoinService, RestOperations restOperations, AuthMetrics authMetrics) {
+        this.oAuth2UserJoinService = oAuth2UserJoinService;
+        this.authMetrics = authMetrics;
+        setRestOperations(restOperations);
+    }
 
     /**
      * 구글로부터 받은 userRequest 데이터에 대한 후처리하는 함수
@@ -38,62 +55,45 @@ public class PrincipalOauth2UserService extends DefaultOAuth2UserService {
      */
     @Override
     public OAuth2User loadUser(OAuth2UserRequest userRequest) throws OAuth2AuthenticationException {
-        System.out.println("getClientRegistration : " + userRequest.getClientRegistration()); // registrationId로 어떤 OAuth로 로그인했는지 확인 가능
-        System.out.println("getAccessToken : " + userRequest.getAccessToken());
+        /**
+         * 지원하지 않는 제공자면 회원 프로필을 요청(super.loadUser)하기 전에 바로 실패시킨다.
+         */
+        String registrationId = userRequest.getClientRegistration().getRegistrationId();
+        OAuth2Provider oAuth2Provider = OAuth2Provider.from(registrationId)
+                .orElseThrow(() -> new OAuth2AuthenticationException(
+                        new OAuth2Error(UNSUPPORTED_PROVIDER, "지원하지 않는 OAuth 제공자입니다. : " + registrationId, null)));
+        log.info(SamplingTurboFilter.SAMPLED, "{} 로그인 요청", registrationId);
+
+        /**
+         * 로그인마다 남는 상세 로그이기 때문에 샘플링(SAMPLED)해서 남긴다.
+         * ClientRegistration.toString()에는 client-secret이, access token에는 토큰 값이 들어있다. => 토큰은 종류, scope, 만료 시간만 남긴다.
+         */
+        OAuth2AccessToken accessToken = userRequest.getAccessToken();
+        log.debug(SamplingTurboFilter.SAMPLED, "{} access token : type={}, scopes={}, expiresAt={}",
+                registrationId, accessToken.getTokenType().getValue(), accessToken.getScopes(), accessToken.getExpiresAt());
         /**
          * 구글 로그인 버튼 클릭 -> 구글 로그인 창 -> 로그인 완료 -> 코드 리턴(OAuth-Client 라이브러리가 받아줌) -> 코드를 통해 Access Token 요청
          * 요청해서 받은 Access Token값까지가 userRequest 정보이다.
          * 이 userRequest 정보를 가지고 구글로부터 회원 프로필을 받아야 하는데, 그 때 사용하는 함수가 아래의 loadUser() 메서드이다.
          * 로그인 완료 -> userRequest 정보 -> loadUser() 호출 -> 구글로부터 회원 프로필 반환
          */
-        OAuth2User oAuth2User = super.loadUser(userRequest);
-        System.out.println("getAttributes  : " + oAuth2User.getAttributes()); // 이 Attribute 정보들을 가지고 User 엔티티에 매핑할 예정
+        OAuth2User oAuth2User = authMetrics.record(AuthMetrics.OAUTH2_USERINFO, registrationId,
+                () -> super.loadUser(userRequest), user -> AuthMetrics.SUCCESS); // 조회 시간 => auth.oauth2.userinfo
+        log.debug(SamplingTurboFilter.SAMPLED, "{} attributes : {}", registrationId, LogRedaction.attributes(oAuth2User.getAttributes())); // 이 Attribute 정보들을 가지고 User 엔티티에 매핑할 예정 (값은 남기지 않는다.)
 
-        OAuth2UserInfo oAuth2UserInfo = null;
-        if (userRequest.getClientRegistration().getRegistrationId().equals("google")) {
-            log.info("구글 로그인 요청");
-            oAuth2UserInfo = new GoogleUserInfo(oAuth2User.getAttributes());
-        } else if (userRequest.getClientRegistration().getRegistrationId().equals("facebook")) {
-            log.info("페이스북 로그인 요청");
-            oAuth2UserInfo = new FacebookUserInfo(oAuth2User.getAttributes());
-        } else if (userRequest.getClientRegistration().getRegistrationId().equals("naver")) {
-            log.info("네이버 로그인 요청");
-            oAuth2UserInfo = new NaverUserInfo((Map) oAuth2User.getAttributes().get("response"));
-        } else {
-            log.info("구글, 페이스북, 네이버 로그인만 지원합니다.");
+        OAuth2UserInfo oAuth2UserInfo = oAuth2Provider.extract(oAuth2User.getAttributes()); // 필요한 값만 꺼내고 attributes는 더 이상 들고 있지 않는다.
+        if (!StringUtils.hasText(oAuth2UserInfo.getProviderId())) {
+            throw new OAuth2AuthenticationException(
+                    new OAuth2Error(INVALID_USER_INFO, "회원 식별값(providerId)이 없습니다. : " + registrationId, null));
         }
 
-        // 회원가입 진행
-        String provider = oAuth2UserInfo.getProvider(); // google or facebook
-        /**
-         * providerId값 추출 시 key값
-         * google : sub
-         * facebook : id
-         */
-        String providerId = oAuth2UserInfo.getProviderId();
-        String username = provider + "_" + providerId; // google_216543218921321
-        String password = bCryptPasswordEncoder.encode("개발왕");
-        String email = oAuth2UserInfo.getEmail();
-        String role = "ROLE_USER";
-
-        // 중복 회원가입 체크
-        User userEntity = userRepository.findByUsername(username);
-        if (userEntity == null) {
-            userEntity = User.builder()
-                    .username(username)
-                    .password(password)
-                    .email(email)
-                    .role(role)
-                    .provider(provider)
-                    .providerId(providerId)
-                    .build();
-
-            userRepository.save(userEntity);
-        } else {
-            log.info("이전에 로그인한 적이 있습니다. 마지막 로그인 : " + provider);
-        }
+        // 회원가입 진행 (이미 가입한 회원이면 조회만)
+        UserIdentity identity = oAuth2UserJoinService.findOrJoin(oAuth2UserInfo);
 
-        return new PrincipalDetails(userEntity, oAuth2User.getAttributes()); // PrincipalDetails가 OAuth2User을 상속받았으니 반환 가능
+        // PrincipalDetails가 OAuth2User을 상속받았으니 반환 가능 (제공자가 준 attributes 전체는 넘기지 않는다.)
+        PrincipalDetails principalDetails = new PrincipalDetails(identity);
+        accountStatusChecker.check(principalDetails); // 휴면 계정 => DisabledException (폼 로그인과 똑같이 로그인 실패)
+        return principalDetails;
         /**
          * 유저 객체와 속성들을 담아서 리턴하면 이 OAuth2User 객체는 Authentication 내부에 들어가게 된다. Authentication(OAuth2User)
          * 그리고 그 Authentication 객체는 시큐리티 session에 들어가게 된다. 시큐리티 session(Authentication(OAuth2User))
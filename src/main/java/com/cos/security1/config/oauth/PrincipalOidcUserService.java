@@ -0,0 +1,93 @@
+package com.cos.security1.config.oauth;
+
+import com.cos.security1.config.auth.PrincipalOidcDetails;
+import com.cos.security1.config.metrics.AuthMetrics;
+import com.cos.security1.config.oauth.client.OAuth2HttpClient;
+import com.cos.security1.config.oauth.provider.OAuth2Provider;
+import com.cos.security1.config.oauth.provider.OAuth2UserInfo;
+import com.cos.security1.model.UserIdentity;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
+import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserService;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.OAuth2Error;
+import org.springframework.security.oauth2.core.oidc.user.OidcUser;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+/**
+ * OIDC 로그인(scope에 openid 포함, ex. 구글) 후처리
+ * PrincipalOauth2UserService는 super.loadUser()에서 매번 userinfo 엔드포인트를 호출(HTTP 요청)해서 회원 프로필을 받아온다.
+ * 그런데 OIDC 로그인은 토큰 응답에 ID 토큰이 같이 오고, 그 안에 sub, email, name이 이미 들어있다.
+ * ID 토큰은 이 서비스가 호출되기 전에 서명, 발급자(iss), 대상(aud), 만료시간 검증이 끝난 상태이다. (OidcConfig의 JwtDecoderFactory)
+ * => ID 토큰의 값으로 회원을 찾고, 필요한 값(sub, email)이 빠져 있을 때만 userinfo 엔드포인트를 호출한다.
+ */
+@Service
+@Slf4j
+public class PrincipalOidcUserService implements OAuth2UserService<OidcUserRequest, OidcUser> {
+
+    private static final String UNSUPPORTED_PROVIDER = "unsupported_provider";
+    private static final String INVALID_USER_INFO = "invalid_user_info";
+
+    private final OAuth2UserJoinService oAuth2UserJoinService;
+    private final OidcUserService userInfoService; // ID 토큰에 필요한 값이 없을 때만 사용
+    private final AuthMetrics authMetrics;
+    private final AccountStatusUserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
+
+    @Autowired
+    public PrincipalOidcUserService(OAuth2UserJoinService oAuth2UserJoinService, OAuth2HttpClient oAuth2HttpClient, AuthMetrics authMetrics) {
+        this(oAuth2UserJoinService, userInfoService(oAuth2HttpClient), authMetrics);
+    }
+
+    PrincipalOidcUserService(OAuth2UserJoinService oAuth2UserJoinService, OidcUserService userInfoService, AuthMetrics authMetrics) {
+        this.oAuth2UserJoinService = oAuth2UserJoinService;
+        this.userInfoService = userInfoService;
+        this.authMetrics = authMetrics;
+        this.userInfoService.setRetrieveUserInfo(userRequest -> true); // 여기로 넘어왔다면 항상 userinfo를 조회한다.
+    }
+
+    @Override
+    public OidcUser loadUser(OidcUserRequest userRequest) throws OAuth2AuthenticationException {
+        String registrationId = userRequest.getClientRegistration().getRegistrationId();
+        OAuth2Provider oAuth2Provider = OAuth2Provider.from(registrationId)
+                .orElseThrow(() -> new OAuth2AuthenticationException(
+                        new OAuth2Error(UNSUPPORTED_PROVIDER, "지원하지 않는 OAuth 제공자입니다. : " + registrationId, null)));
+
+        OAuth2UserInfo oAuth2UserInfo = oAuth2Provider.extract(userRequest.getIdToken().getClaims());
+        OidcUser remoteUser = null;
+        if (!hasRequiredClaims(oAuth2UserInfo)) {
+            log.info("ID 토큰에 필요한 값이 없어 userinfo를 조회합니다. : {}", registrationId);
+            remoteUser = authMetrics.record(AuthMetrics.OAUTH2_USERINFO, registrationId,
+                    () -> userInfoService.loadUser(userRequest), user -> AuthMetrics.SUCCESS);
+            oAuth2UserInfo = oAuth2Provider.extract(remoteUser.getClaims()); // ID 토큰 + userinfo 값
+        }
+        if (!StringUtils.hasText(oAuth2UserInfo.getProviderId())) {
+            throw new OAuth2AuthenticationException(
+                    new OAuth2Error(INVALID_USER_INFO, "회원 식별값(providerId)이 없습니다. : " + registrationId, null));
+        }
+
+        UserIdentity identity = oAuth2UserJoinService.findOrJoin(oAuth2UserInfo);
+        PrincipalOidcDetails principalDetails = new PrincipalOidcDetails(identity, userRequest.getIdToken(),
+                remoteUser != null ? remoteUser.getUserInfo() : null);
+        accountStatusChecker.check(principalDetails); // 휴면 계정 => DisabledException (폼 로그인과 똑같이 로그인 실패)
+        return principalDetails;
+    }
+
+    // userinfo 조회 요청에 커넥션 풀, 타임아웃, 서킷 브레이커 적용 (OAuth2HttpClient)
+    private static OidcUserService userInfoService(OAuth2HttpClient oAuth2HttpClient) {
+        DefaultOAuth2UserService oAuth2UserService = new DefaultOAuth2UserService();
+        oAuth2UserService.setRestOperations(oAuth2HttpClient.restTemplate());
+        OidcUserService oidcUserService = new OidcUserService();
+        oidcUserService.setOauth2UserService(oAuth2UserService);
+        return oidcUserService;
+    }
+
+    // 회원가입에 필요한 값 : providerId(sub), email
+    private static boolean hasRequiredClaims(OAuth2UserInfo oAuth2UserInfo) {
+        return StringUtils.hasText(oAuth2UserInfo.getProviderId()) && StringUtils.hasText(oAuth2UserInfo.getEmail());
+    }
+}
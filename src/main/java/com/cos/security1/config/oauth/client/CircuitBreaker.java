@@ -0,0 +1,70 @@
+package com.cos.security1.config.oauth.client;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * OAuth 제공자별 서킷 브레이커
+ * 제공자가 느려지거나 죽었을 때 계속 요청을 보내면, 로그인 요청마다 타임아웃까지 기다리면서 요청 스레드가 묶인다.
+ * 연속으로 failureThreshold번 실패하면 openDuration 동안 요청을 보내지 않고 바로 실패시킨다. (open)
+ * openDuration이 지나면 요청 하나만 보내보고(half-open) 성공하면 다시 정상(closed), 실패하면 다시 open
+ * 보내본 요청(PROBE)이 성공도 실패도 아닌 채로 끝나면(풀 대기 타임아웃, 예상 못 한 예외) releaseProbe()로 돌려줘야 다음 요청이 다시 보내볼 수 있다.
+ * 락 없이 atomic 변수로만 상태를 바꾼다.
+ */
+public class CircuitBreaker {
+
+    private static final long CLOSED = Long.MIN_VALUE;
+
+    public enum Permit {
+        DENIED, // open : 보내지 않는다.
+        GRANTED, // closed
+        PROBE // half-open : 이 요청 하나만 보내본다.
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openUntil = new AtomicLong(CLOSED); // System.nanoTime() 기준, CLOSED면 정상
+    private final AtomicBoolean probing = new AtomicBoolean(); // half-open 상태에서 보낸 요청이 있는지
+
+    public CircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = failureThreshold;
+        this.openNanos = openDuration.toNanos();
+    }
+
+    // 요청을 보내도 되는지
+    public Permit tryAcquire() {
+        long until = openUntil.get();
+        if (until == CLOSED) {
+            return Permit.GRANTED;
+        }
+        if (System.nanoTime() - until < 0) {
+            return Permit.DENIED;
+        }
+        return probing.compareAndSet(false, true) ? Permit.PROBE : Permit.DENIED; // half-open : 한 요청만 통과
+    }
+
+    public void onSuccess() {
+        consecutiveFailures.set(0);
+        openUntil.set(CLOSED);
+        probing.set(false);
+    }
+
+    public void onFailure() {
+        if (probing.getAndSet(false) || consecutiveFailures.incrementAndGet() >= failureThreshold) {
+            consecutiveFailures.set(0);
+            openUntil.set(System.nanoTime() + openNanos);
+        }
+    }
+
+    // 결과를 세지 않고 half-open 요청 자리만 돌려준다. (PROBE를 받은 요청만 호출)
+    public void releaseProbe() {
+        probing.set(false);
+    }
+
+    public boolean isOpen() {
+        return openUntil.get() != CLOSED;
+    }
+}
@@ -0,0 +1,15 @@
+package com.cos.security1.config.oauth.client;
+
+import java.io.IOException;
+
+/**
+ * 서킷 브레이커가 열려 있어서 요청을 보내지 않은 경우
+ * IOException이기 때문에 RestTemplate, RestClient가 ResourceAccessException으로 감싸고,
+ * 시큐리티가 OAuth2AuthenticationException으로 바꿔서 로그인 실패 처리한다.
+ */
+public class CircuitBreakerOpenException extends IOException {
+
+    public CircuitBreakerOpenException(String provider) {
+        super("OAuth 제공자 응답이 계속 실패해서 잠시 요청을 보내지 않습니다. : " + provider);
+    }
+}
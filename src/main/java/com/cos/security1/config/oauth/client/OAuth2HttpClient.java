@@ -0,0 +1,256 @@
+package com.cos.security1.config.oauth.client;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.DefaultConnectionKeepAliveStrategy;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.FormHttpMessageConverter;
+import org.springframework.security.oauth2.client.http.OAuth2ErrorResponseErrorHandler;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.http.converter.OAuth2AccessTokenResponseHttpMessageConverter;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OAuth 로그인 중에 제공자(구글, 페이스북, 네이버)로 보내는 HTTP 요청(토큰 발급, 회원 프로필 조회) 전용 클라이언트
+ * 기본 설정은 요청마다 새 연결을 맺고 타임아웃도 없어서, 제공자가 느려지면 로그인 요청 스레드가 끝없이 기다린다.
+ *
+ * 1. 커넥션 풀 : 제공자별 연결을 재사용 (keep-alive), 풀이 가득 차면 acquireTimeout까지만 기다린다.
+ * 2. 제공자별 타임아웃 : 연결(connect), 응답(response) 타임아웃을 제공자마다 따로 설정
+ * 3. 서킷 브레이커 : 제공자별로 연속 실패하면 잠시 요청을 보내지 않고 바로 실패 (CircuitBreaker)
+ * 4. 메트릭 : oauth2.client.requests (provider, uri, outcome 태그, 히스토그램), oauth2.client.rejected, oauth2.client.circuit.open, 커넥션 풀 메트릭
+ *
+ * 어떤 제공자로 가는 요청인지는 ClientRegistration의 token-uri, user-info-uri, jwk-set-uri 주소(host:port)로 구분한다.
+ */
+public class OAuth2HttpClient implements Closeable {
+
+    public static final String UNKNOWN_PROVIDER = "unknown";
+
+    public record Timeouts(Duration connect, Duration response) {
+    }
+
+    private final Map<String, String> providers = new HashMap<>(); // host:port -> registrationId
+    private final Map<String, Timeouts> timeouts;
+    private final Timeouts defaultTimeouts;
+    private final Duration acquireTimeout;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Map<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+    private final Map<String, RequestConfig> requestConfigs = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final PoolingHttpClientConnectionManager connectionManager;
+    private final CloseableHttpClient httpClient;
+    private final HttpComponentsClientHttpRequestFactory requestFactory;
+
+    public OAuth2HttpClient(Iterable<ClientRegistration> registrations,
+                            Timeouts defaultTimeouts, Map<String, Timeouts> timeouts,
+                            int maxTotal, int maxPerRoute, Duration acquireTimeout, Duration keepAlive,
+                            int failureThreshold, Duration openDuration,
+                            MeterRegistry meterRegistry) {
+        for (ClientRegistration registration : registrations) {
+            ClientRegistration.ProviderDetails details = registration.getProviderDetails();
+            for (String uri : new String[]{details.getTokenUri(), details.getUserInfoEndpoint().getUri(), details.getJwkSetUri()}) {
+                if (StringUtils.hasText(uri)) {
+                    URI parsed = URI.create(uri);
+                    providers.put(address(parsed.getScheme(), parsed.getHost(), parsed.getPort()), registration.getRegistrationId());
+                }
+            }
+        }
+        this.defaultTimeouts = defaultTimeouts;
+        this.timeouts = Map.copyOf(timeouts);
+        this.acquireTimeout = acquireTimeout;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.meterRegistry = meterRegistry;
+
+        // 연결 타임아웃은 연결(route)마다 설정된다. => 주소로 제공자를 찾아서 그 제공자의 타임아웃 사용
+        this.connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(maxTotal)
+                .setMaxConnPerRoute(maxPerRoute)
+                .setConnectionConfigResolver(route -> {
+                    HttpHost target = route.getTargetHost();
+                    return ConnectionConfig.custom()
+                            .setConnectTimeout(Timeout.of(timeoutsOf(providerOf(target.getSchemeName(), target.getHostName(), target.getPort())).connect()))
+                            .setValidateAfterInactivity(TimeValue.ofSeconds(2))
+                            .build();
+                })
+                .build();
+        TimeValue maxKeepAlive = TimeValue.of(keepAlive);
+        this.httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setKeepAliveStrategy((response, context) -> { // 제공자가 Keep-Alive를 길게 줘도 keepAlive 이상 놀고 있는 연결은 재사용하지 않는다.
+                    TimeValue offered = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                    return TimeValue.isPositive(offered) && offered.compareTo(maxKeepAlive) < 0 ? offered : maxKeepAlive;
+                })
+                .evictExpiredConnections()
+                .evictIdleConnections(maxKeepAlive)
+                .disableAutomaticRetries() // 재시도하면 그만큼 타임아웃이 늘어난다.
+                .build();
+
+        // 응답 타임아웃은 요청마다 설정된다.
+        this.requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        this.requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(requestConfigs.computeIfAbsent(providerOf(uri), this::requestConfig));
+            return context;
+        });
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "oauth2").bindTo(meterRegistry);
+    }
+
+    /**
+     * 회원 프로필 조회(DefaultOAuth2UserService.setRestOperations)용
+     */
+    public RestTemplate restTemplate() {
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.setErrorHandler(new OAuth2ErrorResponseErrorHandler());
+        restTemplate.setInterceptors(List.of(new ProviderInterceptor()));
+        return restTemplate;
+    }
+
+    /**
+     * 토큰 발급(RestClientAuthorizationCodeTokenResponseClient.setRestClient)용
+     * 메시지 컨버터, 에러 핸들러는 시큐리티 기본 설정과 동일
+     */
+    public RestClient tokenRestClient() {
+        return RestClient.builder()
+                .requestFactory(requestFactory)
+                .messageConverters(converters -> {
+                    converters.clear();
+                    converters.add(new FormHttpMessageConverter());
+                    converters.add(new OAuth2AccessTokenResponseHttpMessageConverter());
+                })
+                .defaultStatusHandler(new OAuth2ErrorResponseErrorHandler())
+                .requestInterceptor(new ProviderInterceptor())
+                .build();
+    }
+
+    public String providerOf(URI uri) {
+        return providerOf(uri.getScheme(), uri.getHost(), uri.getPort());
+    }
+
+    @Override
+    public void close() throws IOException {
+        httpClient.close();
+    }
+
+    private String providerOf(String scheme, String host, int port) {
+        return providers.getOrDefault(address(scheme, host, port), UNKNOWN_PROVIDER);
+    }
+
+    private Timeouts timeoutsOf(String provider) {
+        return timeouts.getOrDefault(provider, defaultTimeouts);
+    }
+
+    private RequestConfig requestConfig(String provider) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(acquireTimeout))
+                .setResponseTimeout(Timeout.of(timeoutsOf(provider).response()))
+                .build();
+    }
+
+    private CircuitBreaker circuitBreaker(String provider) {
+        return circuitBreakers.computeIfAbsent(provider, p -> {
+            CircuitBreaker circuitBreaker = new CircuitBreaker(failureThreshold, openDuration);
+            Gauge.builder("oauth2.client.circuit.open", circuitBreaker, c -> c.isOpen() ? 1 : 0)
+                    .description("서킷 브레이커가 열려 있는지 (1 : 요청 차단 중)")
+                    .tag("provider", p)
+                    .register(meterRegistry);
+            return circuitBreaker;
+        });
+    }
+
+    private static String address(String scheme, String host, int port) {
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(scheme) ? 443 : 80;
+        }
+        return host + ":" + port;
+    }
+
+    /**
+     * 제공자별 서킷 브레이커 확인 + 응답 시간 기록
+     * 5xx, 타임아웃, 연결 실패만 실패로 센다. (4xx는 요청이 잘못된 것이지 제공자 장애가 아니다.)
+     * 커넥션 풀 대기 타임아웃도 세지 않는다. => 우리 쪽 풀이 가득 찬 것이지 제공자 장애가 아니다. (요청이 몰릴 때 서킷이 열리지 않도록)
+     * 세지 않고 끝난 요청이 half-open 요청이었으면 finally에서 자리를 돌려준다. (안 그러면 서킷이 계속 열려 있다.)
+     */
+    private class ProviderInterceptor implements ClientHttpRequestInterceptor {
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+            String provider = providerOf(request.getURI());
+            CircuitBreaker circuitBreaker = circuitBreaker(provider);
+            CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+            if (permit == CircuitBreaker.Permit.DENIED) {
+                meterRegistry.counter("oauth2.client.rejected", "provider", provider).increment();
+                throw new CircuitBreakerOpenException(provider);
+            }
+            long start = System.nanoTime();
+            boolean counted = false;
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                int status = response.getStatusCode().value();
+                if (status >= 500) {
+                    circuitBreaker.onFailure();
+                    record(provider, request, "SERVER_ERROR", start);
+                } else {
+                    circuitBreaker.onSuccess();
+                    record(provider, request, status >= 400 ? "CLIENT_ERROR" : "SUCCESS", start);
+                }
+                counted = true;
+                return response;
+            } catch (ConnectionRequestTimeoutException e) {
+                record(provider, request, "POOL_TIMEOUT", start);
+                throw e;
+            } catch (IOException e) {
+                circuitBreaker.onFailure();
+                counted = true;
+                record(provider, request, e instanceof InterruptedIOException ? "TIMEOUT" : "IO_ERROR", start); // 연결, 응답 타임아웃
+                throw e;
+            } finally {
+                if (!counted && permit == CircuitBreaker.Permit.PROBE) {
+                    circuitBreaker.releaseProbe();
+                }
+            }
+        }
+
+        private void record(String provider, HttpRequest request, String outcome, long start) {
+            Timer.builder("oauth2.client.requests")
+                    .description("OAuth 제공자 요청 응답 시간")
+                    .tag("provider", provider)
+                    .tag("uri", request.getURI().getPath())
+                    .tag("outcome", outcome)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+}
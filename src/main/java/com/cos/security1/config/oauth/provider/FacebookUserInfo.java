@@ -1,18 +1,26 @@
 package com.cos.security1.config.oauth.provider;
 
+import lombok.ToString;
+
 import java.util.Map;
 
+@ToString
 public class FacebookUserInfo implements OAuth2UserInfo {
 
-    private Map<String, Object> attributes; // oauth2User.getAttributes()
+    // oauth2User.getAttributes()에서 필요한 값만 꺼내서 들고 있는다. (attributes 전체는 들고 있지 않는다.)
+    private final String providerId;
+    private final String email;
+    private final String name;
 
     public FacebookUserInfo(Map<String, Object> attributes) {
-        this.attributes = attributes;
+        this.providerId = (String) attributes.get("id");
+        this.email = (String) attributes.get("email");
+        this.name = (String) attributes.get("name");
     }
 
     @Override
     public String getProviderId() {
-        return (String) attributes.get("id");
+        return providerId;
     }
 
     @Override
@@ -22,11 +30,11 @@ public class FacebookUserInfo implements OAuth2UserInfo {
 
     @Override
     public String getEmail() {
-        return (String) attributes.get("email");
+        return email;
     }
 
     @Override
     public String getName() {
-        return (String) attributes.get("name");
+        return name;
     }
 }
@@ -0,0 +1,55 @@
+package com.cos.security1.config.oauth.provider;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 지원하는 OAuth 제공자 목록 (registrationId -> OAuth2UserInfo 변환 방법)
+ * 이전에는 loadUser()에서 registrationId를 if-else로 하나씩 비교했고, 지원하지 않는 제공자면 oAuth2UserInfo가 null이어서 NPE가 났다.
+ * 지금은 클래스 로딩 시점에 registrationId별 Map을 한 번 만들어두고 조회만 한다.
+ * 제공자를 추가하려면 OAuth2UserInfo 구현 클래스를 만들고 여기에 한 줄 추가하면 된다.
+ *
+ * providerId값 추출 시 key값
+ * google : sub
+ * facebook : id
+ * naver : response.id (회원 정보가 response 안에 한 번 더 감싸져서 온다.)
+ */
+public enum OAuth2Provider {
+
+    GOOGLE("google", GoogleUserInfo::new),
+    FACEBOOK("facebook", FacebookUserInfo::new),
+    NAVER("naver", attributes -> new NaverUserInfo(nested(attributes, "response")));
+
+    private static final Map<String, OAuth2Provider> BY_REGISTRATION_ID = Arrays.stream(values())
+            .collect(Collectors.toUnmodifiableMap(OAuth2Provider::getRegistrationId, Function.identity()));
+
+    private final String registrationId;
+    private final Function<Map<String, Object>, OAuth2UserInfo> extractor;
+
+    OAuth2Provider(String registrationId, Function<Map<String, Object>, OAuth2UserInfo> extractor) {
+        this.registrationId = registrationId;
+        this.extractor = extractor;
+    }
+
+    public static Optional<OAuth2Provider> from(String registrationId) {
+        return Optional.ofNullable(BY_REGISTRATION_ID.get(registrationId));
+    }
+
+    public String getRegistrationId() {
+        return registrationId;
+    }
+
+    public OAuth2UserInfo extract(Map<String, Object> attributes) {
+        return extractor.apply(attributes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> nested(Map<String, Object> attributes, String key) {
+        Object value = attributes.get(key);
+        return value instanceof Map ? (Map<String, Object>) value : Collections.emptyMap();
+    }
+}
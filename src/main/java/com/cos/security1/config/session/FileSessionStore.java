@@ -0,0 +1,167 @@
+package com.cos.security1.config.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.ConfigurableObjectInputStream;
+import org.springframework.session.MapSession;
+import org.springframework.util.ClassUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * 세션 하나를 파일 하나로 저장하는 SessionStore
+ * 외부 서비스(Redis 등) 없이 테스트하거나, 한 서버(같은 디렉토리)에 여러 인스턴스를 띄울 때 사용한다.
+ *
+ * 파일 형식 : [마지막 접근 시간(long)][maxInactiveInterval 초(long)][직렬화된 MapSession]
+ * 앞의 16바이트(헤더)만 보고 만료 여부를 알 수 있기 때문에
+ * 마지막 접근 시간 갱신(touch)과 만료 세션 정리는 세션 전체를 읽거나 쓰지 않고 헤더만 읽고 쓴다.
+ * 전체 저장은 임시 파일에 쓴 뒤 rename 하기 때문에 다른 인스턴스가 쓰다 만 파일을 읽는 일이 없다.
+ */
+@Slf4j
+public class FileSessionStore implements SessionStore {
+
+    private static final String SUFFIX = ".session";
+    private static final Pattern SESSION_ID = Pattern.compile("[A-Za-z0-9-]+"); // 경로 조작 방지
+    private static final int HEADER_SIZE = Long.BYTES * 2;
+
+    private final Path directory;
+
+    public FileSessionStore(Path directory) {
+        this.directory = directory;
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException("세션 디렉토리를 만들 수 없습니다. : " + directory, e);
+        }
+    }
+
+    @Override
+    public MapSession load(String id) {
+        Path file = fileOf(id);
+        if (file == null) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file)))) {
+            long lastAccessedTime = in.readLong();
+            in.readLong(); // maxInactiveInterval은 세션 안에도 들어있다.
+            try (ObjectInputStream objectIn = new ConfigurableObjectInputStream(in, ClassUtils.getDefaultClassLoader())) {
+                MapSession session = (MapSession) objectIn.readObject();
+                session.setLastAccessedTime(Instant.ofEpochMilli(lastAccessedTime)); // 헤더(touch로 갱신된 값)가 기준
+                return session;
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | ClassNotFoundException e) {
+            log.warn("세션 파일을 읽을 수 없어 삭제합니다. : {}", file, e);
+            delete(id);
+            return null;
+        }
+    }
+
+    @Override
+    public void save(MapSession session) {
+        Path file = fileOf(session.getId());
+        if (file == null) {
+            return;
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeLong(session.getLastAccessedTime().toEpochMilli());
+                out.writeLong(session.getMaxInactiveInterval().toSeconds());
+                try (ObjectOutputStream objectOut = new ObjectOutputStream(out)) {
+                    objectOut.writeObject(session);
+                }
+            }
+            Path temp = Files.createTempFile(directory, session.getId(), ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("세션을 저장할 수 없습니다. : " + session.getId(), e);
+        }
+    }
+
+    @Override
+    public void touch(Map<String, Instant> lastAccessedTimes) {
+        for (Map.Entry<String, Instant> entry : lastAccessedTimes.entrySet()) {
+            Path file = fileOf(entry.getKey());
+            if (file == null || !Files.exists(file)) {
+                continue; // 이미 삭제(로그아웃, 만료)된 세션
+            }
+            try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+                if (raf.readLong() < entry.getValue().toEpochMilli()) {
+                    raf.seek(0);
+                    raf.writeLong(entry.getValue().toEpochMilli());
+                }
+            } catch (IOException e) {
+                log.debug("세션 접근 시간 갱신 실패 : {}", entry.getKey(), e);
+            }
+        }
+    }
+
+    @Override
+    public void delete(String id) {
+        Path file = fileOf(id);
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("세션 삭제 실패 : {}", id, e);
+        }
+    }
+
+    @Override
+    public int deleteExpired(Instant now) {
+        int deleted = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : files) {
+                if (isExpired(file, now)) {
+                    Files.deleteIfExists(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            log.warn("만료 세션 정리 실패", e);
+        }
+        return deleted;
+    }
+
+    private boolean isExpired(Path file, Instant now) {
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "r")) {
+            if (raf.length() < HEADER_SIZE) {
+                return true;
+            }
+            long lastAccessedTime = raf.readLong();
+            long maxInactiveSeconds = raf.readLong();
+            return maxInactiveSeconds >= 0
+                    && Instant.ofEpochMilli(lastAccessedTime).plus(Duration.ofSeconds(maxInactiveSeconds)).isBefore(now);
+        } catch (IOException e) {
+            return false; // 다른 인스턴스가 교체 중인 파일은 다음 정리 때 다시 확인
+        }
+    }
+
+    private Path fileOf(String id) {
+        if (id == null || !SESSION_ID.matcher(id).matches()) {
+            return null;
+        }
+        return directory.resolve(id + SUFFIX);
+    }
+}
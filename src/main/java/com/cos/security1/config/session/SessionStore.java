@@ -0,0 +1,28 @@
+package com.cos.security1.config.session;
+
+import org.springframework.session.MapSession;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * 세션을 JVM 밖에 저장하는 저장소
+ * 서버 여러 대가 같은 저장소를 바라보면 로드밸런서에 sticky session이 없어도 어느 서버로 요청이 가든 같은 세션을 보게 된다.
+ * 구현체를 바꿔 끼울 수 있도록 인터페이스로 분리 (기본 구현체 : FileSessionStore)
+ */
+public interface SessionStore {
+
+    // 없으면 null
+    MapSession load(String id);
+
+    // 세션 전체 저장 (속성이 바뀐 경우)
+    void save(MapSession session);
+
+    // 마지막 접근 시간만 한꺼번에 갱신 (속성은 건드리지 않는다.)
+    void touch(Map<String, Instant> lastAccessedTimes);
+
+    void delete(String id);
+
+    // 만료된 세션을 지우고 지운 개수를 반환
+    int deleteExpired(Instant now);
+}
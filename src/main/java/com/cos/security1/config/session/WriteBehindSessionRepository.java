@@ -0,0 +1,218 @@
+package com.cos.security1.config.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.session.MapSession;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SessionStore 앞단에서 쓰기 횟수를 줄여주는 스프링 세션(Spring Session) 저장소
+ *
+ * 스프링 세션은 요청이 끝날 때마다 save()를 호출하는데, 대부분은 마지막 접근 시간만 바뀐 경우다.
+ * 1. 속성이 바뀐 경우(로그인, 로그아웃 등) : 바로 저장 => 다음 요청이 다른 서버로 가도 로그인 상태가 보여야 하기 때문
+ * 2. 마지막 접근 시간만 바뀐 경우 : touchInterval 이상 지났을 때만(lazy touch) 모아두었다가 flushInterval마다 한꺼번에(batch) 갱신
+ *    세션 전체가 아니라 접근 시간만 갱신하기 때문에, 그 사이 다른 서버에서 바뀐 속성을 덮어쓰지 않는다.
+ * 3. 만료된 세션은 cleanupInterval마다 백그라운드에서 정리
+ */
+@Slf4j
+public class WriteBehindSessionRepository implements SessionRepository<WriteBehindSessionRepository.StoreSession> {
+
+    private final SessionStore store;
+    private final Duration maxInactiveInterval;
+    private final Duration touchInterval;
+    private final ConcurrentMap<String, Instant> pendingTouches = new ConcurrentHashMap<>(); // 다음 flush 때 갱신할 접근 시간
+    private final ScheduledExecutorService scheduler;
+
+    public WriteBehindSessionRepository(SessionStore store, Duration maxInactiveInterval, Duration touchInterval,
+                                        Duration flushInterval, Duration cleanupInterval) {
+        this.store = store;
+        this.maxInactiveInterval = maxInactiveInterval;
+        this.touchInterval = touchInterval;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "session-store");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        scheduler.scheduleWithFixedDelay(this::cleanup, cleanupInterval.toMillis(), cleanupInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public StoreSession createSession() {
+        MapSession session = new MapSession();
+        session.setMaxInactiveInterval(maxInactiveInterval);
+        return new StoreSession(session, true);
+    }
+
+    @Override
+    public void save(StoreSession session) {
+        if (!session.getId().equals(session.originalId)) { // 로그인 시 세션 고정 공격 방지를 위해 세션 id가 바뀐다.
+            pendingTouches.remove(session.originalId);
+            store.delete(session.originalId);
+            session.originalId = session.getId();
+        }
+        if (session.changed) {
+            pendingTouches.remove(session.getId());
+            store.save(new MapSession(session.delegate));
+            session.changed = false;
+            session.persistedLastAccessedTime = session.getLastAccessedTime();
+        } else if (!session.getLastAccessedTime().isBefore(session.persistedLastAccessedTime.plus(touchInterval))) {
+            pendingTouches.merge(session.getId(), session.getLastAccessedTime(), (a, b) -> a.isAfter(b) ? a : b);
+            session.persistedLastAccessedTime = session.getLastAccessedTime();
+        }
+    }
+
+    @Override
+    public StoreSession findById(String id) {
+        MapSession session = store.load(id);
+        if (session == null) {
+            return null;
+        }
+        Instant pendingTouch = pendingTouches.get(id); // 아직 flush 안 된 접근 시간이 있으면 그게 최신
+        if (pendingTouch != null && pendingTouch.isAfter(session.getLastAccessedTime())) {
+            session.setLastAccessedTime(pendingTouch);
+        }
+        if (session.isExpired()) {
+            deleteById(id);
+            return null;
+        }
+        return new StoreSession(session, false);
+    }
+
+    @Override
+    public void deleteById(String id) {
+        pendingTouches.remove(id);
+        store.delete(id);
+    }
+
+    // 모아둔 접근 시간을 한 번에 저장
+    void flush() {
+        if (pendingTouches.isEmpty()) {
+            return;
+        }
+        Map<String, Instant> batch = new HashMap<>();
+        for (String id : pendingTouches.keySet()) {
+            Instant lastAccessedTime = pendingTouches.remove(id);
+            if (lastAccessedTime != null) {
+                batch.put(id, lastAccessedTime);
+            }
+        }
+        try {
+            store.touch(batch);
+        } catch (RuntimeException e) {
+            log.warn("세션 접근 시간 저장 실패 ({}건)", batch.size(), e);
+        }
+    }
+
+    void cleanup() {
+        try {
+            int deleted = store.deleteExpired(Instant.now());
+            if (deleted > 0) {
+                log.debug("만료 세션 {}건 정리", deleted);
+            }
+        } catch (RuntimeException e) {
+            log.warn("만료 세션 정리 실패", e);
+        }
+    }
+
+    // 빈 소멸 시 스프링이 자동으로 호출한다. 남은 접근 시간을 저장하고 종료
+    public void shutdown() {
+        scheduler.shutdown();
+        flush();
+    }
+
+    /**
+     * MapSession을 감싸서 속성이 바뀌었는지(changed) 기록하는 세션
+     * 속성 변경 : setAttribute, removeAttribute, setMaxInactiveInterval, changeSessionId
+     * 접근 시간 변경(setLastAccessedTime)은 changed로 치지 않는다.
+     */
+    public static final class StoreSession implements Session {
+
+        private final MapSession delegate;
+        private String originalId;
+        private boolean changed;
+        private Instant persistedLastAccessedTime;
+
+        private StoreSession(MapSession delegate, boolean isNew) {
+            this.delegate = delegate;
+            this.originalId = delegate.getId();
+            this.changed = isNew;
+            this.persistedLastAccessedTime = delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public String getId() {
+            return delegate.getId();
+        }
+
+        @Override
+        public String changeSessionId() {
+            changed = true;
+            return delegate.changeSessionId();
+        }
+
+        @Override
+        public <T> T getAttribute(String attributeName) {
+            return delegate.getAttribute(attributeName);
+        }
+
+        @Override
+        public Set<String> getAttributeNames() {
+            return delegate.getAttributeNames();
+        }
+
+        @Override
+        public void setAttribute(String attributeName, Object attributeValue) {
+            delegate.setAttribute(attributeName, attributeValue);
+            changed = true;
+        }
+
+        @Override
+        public void removeAttribute(String attributeName) {
+            delegate.removeAttribute(attributeName);
+            changed = true;
+        }
+
+        @Override
+        public Instant getCreationTime() {
+            return delegate.getCreationTime();
+        }
+
+        @Override
+        public void setLastAccessedTime(Instant lastAccessedTime) {
+            delegate.setLastAccessedTime(lastAccessedTime);
+        }
+
+        @Override
+        public Instant getLastAccessedTime() {
+            return delegate.getLastAccessedTime();
+        }
+
+        @Override
+        public void setMaxInactiveInterval(Duration interval) {
+            delegate.setMaxInactiveInterval(interval);
+            changed = true;
+        }
+
+        @Override
+        public Duration getMaxInactiveInterval() {
+            return delegate.getMaxInactiveInterval();
+        }
+
+        @Override
+        public boolean isExpired() {
+            return delegate.isExpired();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.cos.security1.config.token;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 토큰 모드에서 매 요청마다 access token을 검증해서 SecurityContext에 인증 정보를 넣어주는 필터
+ * 서명과 만료 시간만 확인하기 때문에 세션, DB 조회가 없다.
+ * 토큰이 없거나 유효하지 않으면 인증 없이 그대로 넘긴다. => 권한이 필요한 url이면 시큐리티가 /loginForm으로 보낸다.
+ * (빈으로 등록하면 서블릿 필터로도 한 번 더 등록되기 때문에 SecurityConfig에서 직접 생성한다.)
+ */
+@RequiredArgsConstructor
+public class AuthTokenFilter extends OncePerRequestFilter {
+
+    private final AuthTokenProvider authTokenProvider;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        authTokenProvider.verifyAccessToken(authTokenProvider.resolveAccessToken(request))
+                .ifPresent(principal -> {
+                    SecurityContext context = SecurityContextHolder.createEmptyContext();
+                    context.setAuthentication(UsernamePasswordAuthenticationToken.authenticated(principal, null, principal.getAuthorities()));
+                    SecurityContextHolder.setContext(context);
+                });
+        filterChain.doFilter(request, response);
+    }
+}
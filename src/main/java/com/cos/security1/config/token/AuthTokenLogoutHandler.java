@@ -0,0 +1,26 @@
+package com.cos.security1.config.token;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.logout.LogoutHandler;
+
+/**
+ * 토큰 모드 로그아웃 (/logout)
+ * 세션이 없기 때문에 쿠키를 지우지 않으면 로그아웃 후에도 토큰으로 계속 인증된다.
+ * access token에 들어있는 family를 폐기해서, 지우기 전에 복사된 refresh token으로도 재발급받을 수 없게 한다.
+ * (access token은 만료될 때까지(기본 15분) 서명만으로 통과한다.)
+ */
+@RequiredArgsConstructor
+public class AuthTokenLogoutHandler implements LogoutHandler {
+
+    private final AuthTokenProvider authTokenProvider;
+    private final RefreshTokenStore refreshTokenStore;
+
+    @Override
+    public void logout(HttpServletRequest request, HttpServletResponse response, Authentication authentication) {
+        authTokenProvider.familyOf(authTokenProvider.resolveAccessToken(request)).ifPresent(refreshTokenStore::revoke);
+        authTokenProvider.clearTokenCookies(request, response);
+    }
+}
@@ -0,0 +1,257 @@
+package com.cos.security1.config.token;
+
+import com.cos.security1.config.auth.PrincipalDetails;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.WebUtils;
+
+import java.security.SecureRandom;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 세션 대신 서명된 토큰(JWT, HS256)으로 인증하는 모드 (security.auth.mode=token)
+ * 토큰에 id, username, role, provider가 들어있기 때문에 요청마다 세션이나 DB를 조회하지 않고 서명만 검증하면 된다.
+ * => 서버를 여러 대 띄워도 sticky session이 필요 없다.
+ *
+ * access token : 매 요청 인증에 사용 (짧게, 기본 15분)
+ * refresh token : access token 재발급에만 사용 (길게, 기본 7일, /token/refresh 경로에만 전송)
+ *                 회원 정보 대신 userId, family(sid), jti만 들어있다. => 재발급할 때 회원을 다시 조회하고 jti가 이미 사용됐는지 확인한다. (TokenController, RefreshTokenStore)
+ * typ : access token을 refresh token 자리에(또는 반대로) 보내도 통과하지 않도록 토큰 종류를 넣고 검증한다.
+ *
+ * 키 교체(rotation)
+ * security.token.keys=2025-01:base64키,2025-02:base64키 처럼 여러 개를 등록해두고 security.token.active-key로 서명할 키를 고른다.
+ * 토큰 헤더의 kid로 검증할 키를 찾기 때문에, 새 키로 바꾼 뒤에도 이전 키로 서명된 토큰은 만료될 때까지 그대로 사용할 수 있다.
+ */
+@Component
+@ConditionalOnProperty(name = "security.auth.mode", havingValue = "token")
+@Slf4j
+public class AuthTokenProvider {
+
+    public static final String ACCESS_TOKEN = "ACCESS_TOKEN";
+    public static final String REFRESH_TOKEN = "REFRESH_TOKEN";
+    public static final String REFRESH_PATH = "/token/refresh";
+
+    private static final String BEARER = "Bearer ";
+    private static final String TYPE = "typ";
+    private static final String USER_ID = "uid";
+    private static final String ROLE = "role";
+    private static final String PROVIDER = "provider";
+    private static final String FAMILY = "sid"; // 로그아웃할 때 access token으로 refresh token family를 찾는다.
+
+    private final Map<String, MACVerifier> verifiers = new HashMap<>(); // kid -> 검증기
+    private final String activeKeyId;
+    private final MACSigner signer;
+    private final Duration accessTokenTtl;
+    private final Duration refreshTokenTtl;
+
+    public AuthTokenProvider(@Value("${security.token.keys:}") String keys,
+                             @Value("${security.token.active-key:}") String activeKeyId,
+                             @Value("${security.token.access-ttl:15m}") Duration accessTokenTtl,
+                             @Value("${security.token.refresh-ttl:7d}") Duration refreshTokenTtl) throws JOSEException {
+        Map<String, byte[]> secrets = parseKeys(keys);
+        if (secrets.isEmpty()) {
+            // 키를 설정하지 않으면 서버마다 다른 키가 만들어지기 때문에 여러 대를 띄울 때는 반드시 설정해야 한다.
+            log.warn("security.token.keys가 설정되지 않아 임시 키를 생성합니다. 서버를 재시작하면 기존 토큰은 모두 무효가 됩니다.");
+            byte[] secret = new byte[32];
+            new SecureRandom().nextBytes(secret);
+            secrets.put("local", secret);
+            activeKeyId = "local";
+        }
+        if (!StringUtils.hasText(activeKeyId)) {
+            activeKeyId = secrets.keySet().iterator().next();
+        }
+        if (!secrets.containsKey(activeKeyId)) {
+            throw new IllegalStateException("security.token.active-key에 해당하는 키가 없습니다. : " + activeKeyId);
+        }
+        for (Map.Entry<String, byte[]> secret : secrets.entrySet()) {
+            verifiers.put(secret.getKey(), new MACVerifier(secret.getValue())); // 256bit 미만 키는 여기서 예외
+        }
+        this.activeKeyId = activeKeyId;
+        this.signer = new MACSigner(secrets.get(activeKeyId));
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    public String issueAccessToken(PrincipalDetails principal, String familyId) {
+        return sign(new JWTClaimsSet.Builder()
+                .subject(principal.getUsername())
+                .claim(USER_ID, principal.getId())
+                .claim(ROLE, principal.getRole())
+                .claim(PROVIDER, principal.getProvider())
+                .claim(FAMILY, familyId), ACCESS_TOKEN, accessTokenTtl);
+    }
+
+    public String issueRefreshToken(RefreshTokenClaims refreshToken) {
+        return sign(new JWTClaimsSet.Builder()
+                .subject(String.valueOf(refreshToken.userId()))
+                .claim(USER_ID, refreshToken.userId())
+                .claim(FAMILY, refreshToken.familyId())
+                .jwtID(refreshToken.tokenId()), REFRESH_TOKEN, refreshTokenTtl);
+    }
+
+    public Optional<PrincipalDetails> verifyAccessToken(String token) {
+        return verify(token, ACCESS_TOKEN, true).map(claims -> {
+            try {
+                return PrincipalDetails.of(
+                        claims.getLongClaim(USER_ID),
+                        claims.getSubject(),
+                        claims.getStringClaim(ROLE),
+                        claims.getStringClaim(PROVIDER));
+            } catch (ParseException e) {
+                return null;
+            }
+        });
+    }
+
+    // 서명, 종류(typ), 만료만 확인한다. 이미 사용된 토큰인지는 RefreshTokenStore가 확인한다.
+    public Optional<RefreshTokenClaims> verifyRefreshToken(String token) {
+        return verify(token, REFRESH_TOKEN, true).map(claims -> {
+            try {
+                String familyId = claims.getStringClaim(FAMILY);
+                Long userId = claims.getLongClaim(USER_ID);
+                if (userId == null || familyId == null || claims.getJWTID() == null) {
+                    return null;
+                }
+                return new RefreshTokenClaims(userId, familyId, claims.getJWTID());
+            } catch (ParseException e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 로그아웃 시 access token에 들어있는 refresh token family (refresh token 쿠키는 /token/refresh에만 전송되기 때문)
+     * 만료된 access token으로 로그아웃해도 폐기할 수 있도록 만료 시간은 확인하지 않는다. (서명, 종류는 확인)
+     */
+    public Optional<String> familyOf(String accessToken) {
+        return verify(accessToken, ACCESS_TOKEN, false).map(claims -> {
+            try {
+                return claims.getStringClaim(FAMILY);
+            } catch (ParseException e) {
+                return null;
+            }
+        });
+    }
+
+    /**
+     * 로그인 성공, 토큰 재발급 시 access token, refresh token을 HttpOnly 쿠키로 내려준다.
+     * 브라우저가 아닌 클라이언트는 Authorization: Bearer 헤더로 access token을 보내도 된다.
+     */
+    public void addTokenCookies(HttpServletRequest request, HttpServletResponse response, PrincipalDetails principal,
+                                RefreshTokenClaims refreshToken) {
+        response.addHeader(HttpHeaders.SET_COOKIE,
+                cookie(request, ACCESS_TOKEN, issueAccessToken(principal, refreshToken.familyId()), "/", accessTokenTtl).toString());
+        response.addHeader(HttpHeaders.SET_COOKIE,
+                cookie(request, REFRESH_TOKEN, issueRefreshToken(refreshToken), REFRESH_PATH, refreshTokenTtl).toString());
+    }
+
+    // 로그아웃, 재발급 실패 시 두 쿠키를 모두 지운다. (발급할 때와 같은 path로 maxAge=0)
+    public void clearTokenCookies(HttpServletRequest request, HttpServletResponse response) {
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(request, ACCESS_TOKEN, "", "/", Duration.ZERO).toString());
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie(request, REFRESH_TOKEN, "", REFRESH_PATH, Duration.ZERO).toString());
+    }
+
+    // Authorization 헤더 => ACCESS_TOKEN 쿠키 순서로 찾는다.
+    public String resolveAccessToken(HttpServletRequest request) {
+        String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (authorization != null && authorization.startsWith(BEARER)) {
+            return authorization.substring(BEARER.length());
+        }
+        return cookieValue(request, ACCESS_TOKEN);
+    }
+
+    public String resolveRefreshToken(HttpServletRequest request) {
+        return cookieValue(request, REFRESH_TOKEN);
+    }
+
+    // CookieAuthorizationRequestRepository도 같은 키로 서명, 검증한다. (typ만 다르게)
+    String sign(JWTClaimsSet.Builder builder, String type, Duration ttl) {
+        Instant now = Instant.now();
+        JWTClaimsSet claims = builder
+                .claim(TYPE, type)
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plus(ttl)))
+                .build();
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.HS256).keyID(activeKeyId).build(), claims);
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new IllegalStateException("토큰 서명에 실패했습니다.", e);
+        }
+        return jwt.serialize();
+    }
+
+    Optional<JWTClaimsSet> verify(String token, String type, boolean checkExpiry) {
+        if (!StringUtils.hasText(token)) {
+            return Optional.empty();
+        }
+        try {
+            SignedJWT jwt = SignedJWT.parse(token);
+            MACVerifier verifier = verifiers.get(jwt.getHeader().getKeyID());
+            if (verifier == null || !JWSAlgorithm.HS256.equals(jwt.getHeader().getAlgorithm()) || !jwt.verify(verifier)) {
+                return Optional.empty();
+            }
+            JWTClaimsSet claims = jwt.getJWTClaimsSet();
+            if (!type.equals(claims.getStringClaim(TYPE))
+                    || claims.getExpirationTime() == null
+                    || checkExpiry && claims.getExpirationTime().toInstant().isBefore(Instant.now())) {
+                return Optional.empty();
+            }
+            return Optional.of(claims);
+        } catch (ParseException | JOSEException e) {
+            log.debug("유효하지 않은 토큰 : {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    ResponseCookie cookie(HttpServletRequest request, String name, String value, String path, Duration maxAge) {
+        return ResponseCookie.from(name, value)
+                .httpOnly(true)
+                .secure(request.isSecure())
+                .sameSite("Lax")
+                .path(path)
+                .maxAge(maxAge)
+                .build();
+    }
+
+    String cookieValue(HttpServletRequest request, String name) {
+        Cookie cookie = WebUtils.getCookie(request, name);
+        return cookie != null ? cookie.getValue() : null;
+    }
+
+    // "kid:base64,kid:base64"
+    private static Map<String, byte[]> parseKeys(String keys) {
+        Map<String, byte[]> secrets = new LinkedHashMap<>();
+        for (String key : StringUtils.commaDelimitedListToStringArray(keys)) {
+            String[] pair = key.trim().split(":", 2);
+            if (pair.length != 2) {
+                throw new IllegalStateException("security.token.keys 형식이 잘못되었습니다. (kid:base64)");
+            }
+            secrets.put(pair[0], Base64.getDecoder().decode(pair[1]));
+        }
+        return secrets;
+    }
+}
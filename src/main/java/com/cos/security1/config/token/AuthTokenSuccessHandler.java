@@ -0,0 +1,34 @@
+package com.cos.security1.config.token;
+
+import com.cos.security1.config.auth.PrincipalDetails;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.web.authentication.SimpleUrlAuthenticationSuccessHandler;
+
+import java.io.IOException;
+
+/**
+ * 토큰 모드에서 폼 로그인, OAuth 로그인 성공 시 세션 대신 토큰을 쿠키로 내려주고 "/"로 이동한다.
+ * 로그인할 때마다 refresh token family를 새로 만든다. (RefreshTokenStore)
+ * (PrincipalDetailsService, PrincipalOauth2UserService 둘 다 PrincipalDetails를 반환하기 때문에 하나의 핸들러로 처리 가능)
+ */
+public class AuthTokenSuccessHandler extends SimpleUrlAuthenticationSuccessHandler {
+
+    private final AuthTokenProvider authTokenProvider;
+    private final RefreshTokenStore refreshTokenStore;
+
+    public AuthTokenSuccessHandler(AuthTokenProvider authTokenProvider, RefreshTokenStore refreshTokenStore) {
+        super("/");
+        this.authTokenProvider = authTokenProvider;
+        this.refreshTokenStore = refreshTokenStore;
+    }
+
+    @Override
+    public void onAuthenticationSuccess(HttpServletRequest request, HttpServletResponse response,
+                                        Authentication authentication) throws IOException {
+        PrincipalDetails principal = (PrincipalDetails) authentication.getPrincipal();
+        authTokenProvider.addTokenCookies(request, response, principal, refreshTokenStore.start(principal.getId()));
+        getRedirectStrategy().sendRedirect(request, response, getDefaultTargetUrl());
+    }
+}
@@ -0,0 +1,122 @@
+package com.cos.security1.config.token;
+
+import com.nimbusds.jwt.JWTClaimsSet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.client.web.AuthorizationRequestRepository;
+import org.springframework.security.oauth2.core.endpoint.OAuth2AuthorizationRequest;
+import org.springframework.security.oauth2.core.endpoint.OAuth2ParameterNames;
+import org.springframework.stereotype.Component;
+
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 토큰 모드에서 OAuth 로그인 중인 인가 요청(state, nonce, PKCE code_verifier 등)을 세션 대신 쿠키에 보관한다.
+ * 기본 저장소(HttpSessionOAuth2AuthorizationRequestRepository)는 /oauth2/authorization/{registrationId} 요청마다 HttpSession을 만든다.
+ * => 로그인 후에는 세션을 쓰지 않는데도 OAuth 로그인 시도마다 세션이 하나씩 생긴다.
+ *
+ * 쿠키 값은 AuthTokenProvider와 같은 키로 서명한 JWT (typ = OAUTH2_AUTHORIZATION_REQUEST)
+ * => 다른 토큰을 이 쿠키 자리에 넣거나 내용을 바꾸면 검증에 실패한다.
+ * 제공자 로그인 창에서 돌아오는 동안만 필요하기 때문에 짧게 유지하고(기본 3분), 콜백(/login/oauth2/code/*)에만 전송한다.
+ */
+@Component
+@ConditionalOnProperty(name = "security.auth.mode", havingValue = "token")
+public class CookieAuthorizationRequestRepository implements AuthorizationRequestRepository<OAuth2AuthorizationRequest> {
+
+    public static final String AUTHORIZATION_REQUEST = "OAUTH2_AUTHORIZATION_REQUEST";
+    static final String CALLBACK_PATH = "/login/oauth2/code/";
+
+    private static final String AUTHORIZATION_URI = "authorizationUri";
+    private static final String CLIENT_ID = "clientId";
+    private static final String REDIRECT_URI = "redirectUri";
+    private static final String SCOPES = "scopes";
+    private static final String STATE = "state";
+    private static final String ADDITIONAL_PARAMETERS = "additionalParameters";
+    private static final String ATTRIBUTES = "attributes";
+    private static final String AUTHORIZATION_REQUEST_URI = "authorizationRequestUri";
+
+    private final AuthTokenProvider authTokenProvider;
+    private final Duration ttl;
+
+    public CookieAuthorizationRequestRepository(AuthTokenProvider authTokenProvider,
+                                                @Value("${security.token.authorization-request-ttl:3m}") Duration ttl) {
+        this.authTokenProvider = authTokenProvider;
+        this.ttl = ttl;
+    }
+
+    // 콜백의 state 파라미터와 쿠키에 저장된 state가 같을 때만 반환한다.
+    @Override
+    public OAuth2AuthorizationRequest loadAuthorizationRequest(HttpServletRequest request) {
+        String state = request.getParameter(OAuth2ParameterNames.STATE);
+        if (state == null) {
+            return null;
+        }
+        OAuth2AuthorizationRequest authorizationRequest = authTokenProvider
+                .verify(authTokenProvider.cookieValue(request, AUTHORIZATION_REQUEST), AUTHORIZATION_REQUEST, true)
+                .map(CookieAuthorizationRequestRepository::fromClaims)
+                .orElse(null);
+        return authorizationRequest != null && state.equals(authorizationRequest.getState()) ? authorizationRequest : null;
+    }
+
+    @Override
+    public void saveAuthorizationRequest(OAuth2AuthorizationRequest authorizationRequest, HttpServletRequest request,
+                                         HttpServletResponse response) {
+        if (authorizationRequest == null) {
+            clear(request, response);
+            return;
+        }
+        String token = authTokenProvider.sign(new JWTClaimsSet.Builder()
+                .claim(AUTHORIZATION_URI, authorizationRequest.getAuthorizationUri())
+                .claim(CLIENT_ID, authorizationRequest.getClientId())
+                .claim(REDIRECT_URI, authorizationRequest.getRedirectUri())
+                .claim(SCOPES, List.copyOf(authorizationRequest.getScopes()))
+                .claim(STATE, authorizationRequest.getState())
+                .claim(ADDITIONAL_PARAMETERS, authorizationRequest.getAdditionalParameters())
+                .claim(ATTRIBUTES, authorizationRequest.getAttributes())
+                .claim(AUTHORIZATION_REQUEST_URI, authorizationRequest.getAuthorizationRequestUri()), AUTHORIZATION_REQUEST, ttl);
+        response.addHeader(HttpHeaders.SET_COOKIE,
+                authTokenProvider.cookie(request, AUTHORIZATION_REQUEST, token, CALLBACK_PATH, ttl).toString());
+    }
+
+    // 콜백에서 한 번 꺼내면 쿠키를 지운다. (같은 인가 요청으로 다시 로그인할 수 없도록)
+    @Override
+    public OAuth2AuthorizationRequest removeAuthorizationRequest(HttpServletRequest request, HttpServletResponse response) {
+        OAuth2AuthorizationRequest authorizationRequest = loadAuthorizationRequest(request);
+        if (authorizationRequest != null) {
+            clear(request, response);
+        }
+        return authorizationRequest;
+    }
+
+    private void clear(HttpServletRequest request, HttpServletResponse response) {
+        response.addHeader(HttpHeaders.SET_COOKIE,
+                authTokenProvider.cookie(request, AUTHORIZATION_REQUEST, "", CALLBACK_PATH, Duration.ZERO).toString());
+    }
+
+    private static OAuth2AuthorizationRequest fromClaims(JWTClaimsSet claims) {
+        try {
+            List<String> scopes = claims.getStringListClaim(SCOPES);
+            Map<String, Object> additionalParameters = claims.getJSONObjectClaim(ADDITIONAL_PARAMETERS);
+            Map<String, Object> attributes = claims.getJSONObjectClaim(ATTRIBUTES);
+            return OAuth2AuthorizationRequest.authorizationCode()
+                    .authorizationUri(claims.getStringClaim(AUTHORIZATION_URI))
+                    .clientId(claims.getStringClaim(CLIENT_ID))
+                    .redirectUri(claims.getStringClaim(REDIRECT_URI))
+                    .scopes(scopes != null ? new LinkedHashSet<>(scopes) : null)
+                    .state(claims.getStringClaim(STATE))
+                    .additionalParameters(additionalParameters != null ? additionalParameters : Map.of())
+                    .attributes(attributes != null ? attributes : Map.of())
+                    .authorizationRequestUri(claims.getStringClaim(AUTHORIZATION_REQUEST_URI))
+                    .build();
+        } catch (ParseException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
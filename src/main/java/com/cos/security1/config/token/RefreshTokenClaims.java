@@ -0,0 +1,10 @@
+package com.cos.security1.config.token;
+
+/**
+ * refresh token에 들어있는 값
+ * refresh token은 재발급에만 사용하기 때문에 권한(role)은 넣지 않는다. => 재발급할 때 userId로 회원을 다시 조회한다. (TokenController)
+ * familyId : 로그인 1번에 하나 (RefreshTokenStore)
+ * tokenId : jti (재발급할 때마다 바뀐다.)
+ */
+public record RefreshTokenClaims(Long userId, String familyId, String tokenId) {
+}
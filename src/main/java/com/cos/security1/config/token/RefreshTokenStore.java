@@ -0,0 +1,68 @@
+package com.cos.security1.config.token;
+
+import com.cos.security1.model.RefreshTokenFamily;
+import com.cos.security1.repository.RefreshTokenFamilyRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * refresh token 사용 기록 (refresh_token_family 테이블)
+ * 서명만 확인하면 재발급(rotation) 후에도 이전 refresh token을 만료될 때까지 계속 쓸 수 있다.
+ * => 발급할 때마다 jti를 새로 만들어 저장해두고, 현재 jti로만 한 번 재발급할 수 있게 한다.
+ * 이미 사용된 refresh token이 다시 들어오면(탈취된 토큰을 공격자나 원래 사용자 중 한쪽이 나중에 사용) family 전체를 폐기한다.
+ * DB에 저장하기 때문에 서버가 여러 대여도 똑같이 동작한다.
+ */
+@Component
+@ConditionalOnProperty(name = "security.auth.mode", havingValue = "token")
+@Slf4j
+public class RefreshTokenStore {
+
+    private final RefreshTokenFamilyRepository repository;
+    private final Duration refreshTokenTtl;
+
+    public RefreshTokenStore(RefreshTokenFamilyRepository repository,
+                             @Value("${security.token.refresh-ttl:7d}") Duration refreshTokenTtl) {
+        this.repository = repository;
+        this.refreshTokenTtl = refreshTokenTtl;
+    }
+
+    // 로그인 성공 시 새 family
+    public RefreshTokenClaims start(Long userId) {
+        Instant now = Instant.now();
+        repository.deleteExpired(userId, Timestamp.from(now));
+        RefreshTokenClaims claims = new RefreshTokenClaims(userId, newId(), newId());
+        repository.save(new RefreshTokenFamily(claims.familyId(), userId, claims.tokenId(), Timestamp.from(now.plus(refreshTokenTtl))));
+        return claims;
+    }
+
+    // 재발급 : 현재 jti이면 다음 jti를 돌려주고, 이미 사용된 토큰이면 family를 폐기한다.
+    public Optional<RefreshTokenClaims> rotate(RefreshTokenClaims presented) {
+        Instant now = Instant.now();
+        RefreshTokenClaims next = new RefreshTokenClaims(presented.userId(), presented.familyId(), newId());
+        int rotated = repository.rotate(presented.familyId(), presented.tokenId(), next.tokenId(),
+                Timestamp.from(now.plus(refreshTokenTtl)), Timestamp.from(now));
+        if (rotated == 0) {
+            log.warn("이미 사용되었거나 폐기된 refresh token입니다. family를 폐기합니다. : userId={}, family={}", presented.userId(), presented.familyId());
+            repository.revoke(presented.familyId());
+            return Optional.empty();
+        }
+        return Optional.of(next);
+    }
+
+    // 로그아웃, 탈퇴/휴면 회원의 재발급 요청
+    public void revoke(String familyId) {
+        repository.revoke(familyId);
+    }
+
+    private static String newId() {
+        return UUID.randomUUID().toString();
+    }
+}
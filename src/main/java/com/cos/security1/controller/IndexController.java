@@ -1,14 +1,20 @@
 package com.cos.security1.controller;
 
 import com.cos.security1.config.auth.PrincipalDetails;
+import com.cos.security1.config.auth.UsernameFilter;
+import com.cos.security1.config.logging.LogRedaction;
+import com.cos.security1.config.logging.SamplingTurboFilter;
+import com.cos.security1.config.metrics.AuthMetrics;
 import com.cos.security1.model.User;
 import com.cos.security1.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.oauth2.core.user.OAuth2User;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,10 +23,13 @@ import org.springframework.web.bind.annotation.ResponseBody;
 
 @Controller
 @RequiredArgsConstructor
+@Slf4j
 public class IndexController {
 
     private final UserRepository userRepository;
-    private final BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final PasswordEncoder passwordEncoder;
+    private final AuthMetrics authMetrics;
+    private final UsernameFilter usernameFilter;
 
     /**
      * 일반 로그인 시 Authentication 객체에는 UserDetails 타입의 객체가 들어간다.
@@ -32,13 +41,12 @@ public class IndexController {
     @GetMapping("/test/login")
     public String testLogin(Authentication authentication,
                             @AuthenticationPrincipal PrincipalDetails userDetails) {
-        System.out.println("/test/login ================");
         // Authentication 객체 사용해서 User 객체 추출
         PrincipalDetails principalDetails = (PrincipalDetails) authentication.getPrincipal();
-        System.out.println("authentication : " + principalDetails.getUser());
+        log.debug("/test/login authentication : {}", principalDetails); // PrincipalDetails.toString()은 password, attributes를 출력하지 않는다.
 
         // @AuthenticationPrincipal 어노테이션 사용해서 User 객체 추출
-        System.out.println("userDetails : " + userDetails.getUser());
+        log.debug("/test/login userDetails : {}", userDetails);
 
         return "세션 정보 확인하기";
     }
@@ -53,12 +61,11 @@ public class IndexController {
     @GetMapping("/test/oauth/login")
     public String testOAuthLogin(Authentication authentication,
                                  @AuthenticationPrincipal OAuth2User oAuth) {
-        System.out.println("/test/oauth/login ================");
         // Authentication 객체 사용해서 User 객체 추출
         OAuth2User oAuth2User = (OAuth2User) authentication.getPrincipal();
-        System.out.println("authentication : " + oAuth2User.getAttributes());
+        log.debug("/test/oauth/login authentication : {}", LogRedaction.attributes(oAuth2User.getAttributes()));
 
-        System.out.println("oauth2User : " + oAuth.getAttributes());
+        log.debug("/test/oauth/login oauth2User : {}", LogRedaction.attributes(oAuth.getAttributes()));
 
         return "OAuth 세션 정보 확인하기";
     }
@@ -83,7 +90,7 @@ public class IndexController {
     @ResponseBody
     @GetMapping("/user")
     public String user(@AuthenticationPrincipal PrincipalDetails principalDetails) {
-        System.out.println("principalDetails : " + principalDetails.getUser());
+        log.debug(SamplingTurboFilter.SAMPLED, "principalDetails : {}", principalDetails);
         return "user";
     }
 
@@ -122,11 +129,19 @@ public class IndexController {
          * 암호화 진행
          */
         String rawPassword = user.getPassword();
-        // Bean으로 등록된 BCryptPasswordEncoder를 사용해서 인코딩 진행
-        String encPassword = bCryptPasswordEncoder.encode(rawPassword);
+        // Bean으로 등록된 PasswordEncoder(BCrypt)를 사용해서 인코딩 진행 (대기열이 가득 차면 PasswordHashingRejectedException => 503)
+        String encPassword = passwordEncoder.encode(rawPassword);
 
         user.setPassword(encPassword);
-        userRepository.save(user);
+        usernameFilter.put(user.getUsername()); // 저장 직후 로그인해도 username 필터에 걸리지 않도록 저장 전에 넣는다.
+        // flush까지 해야 유니크 인덱스(ux_user_username) 위반이 record() 안에서 발생한다. (저장 시간 => auth.signup, 위반이면 outcome=duplicate)
+        try {
+            authMetrics.record(AuthMetrics.SIGNUP, AuthMetrics.FORM, () -> userRepository.saveAndFlush(user), saved -> AuthMetrics.CREATED);
+        } catch (DataIntegrityViolationException e) {
+            // 이미 있는 username => 500 대신 회원가입 페이지로 돌려보낸다. (필터에 넣은 username은 그대로 두어도 조회 한 번만 더 할 뿐)
+            log.debug("회원가입 실패 (중복 username) : {}", LogRedaction.mask(user.getUsername()));
+            return "redirect:/joinForm?error";
+        }
 
         return "redirect:/loginForm";
     }
@@ -135,7 +150,7 @@ public class IndexController {
      * @Secured
      * 특정 url에 간단하게 걸 때 사용
      * 하나의 권한만 설정할 때 사용
-     * SecurityConfig에서 @EnableMethodSecurity을 설정했기 때문에 사용할 수 있는 것
+     * MethodSecurityConfig에서 @EnableMethodSecurity을 설정했기 때문에 사용할 수 있는 것
      */
     @Secured("ROLE_ADMIN")
     @ResponseBody
@@ -149,6 +164,7 @@ public class IndexController {
      * 특정 url에 간단하게 걸 때 사용
      * 여러 권한을 설정할 때 사용
      * "ROLE_MANGER"만 적으면 안 됨 (hasRole() 메서드 사용)
+     * 권한 검사만 하는 식이기 때문에 권한 목록별로 결과가 캐싱된다. (CachingPreAuthorizeAuthorizationManager)
      */
     @PreAuthorize("hasRole('ROLE_MANAGER') or hasRole('ROLE_ADMIN')")
     @ResponseBody
@@ -0,0 +1,78 @@
+package com.cos.security1.controller;
+
+import com.cos.security1.config.auth.PrincipalDetails;
+import com.cos.security1.config.token.AuthTokenProvider;
+import com.cos.security1.config.token.RefreshTokenClaims;
+import com.cos.security1.config.token.RefreshTokenStore;
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AccountStatusException;
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Optional;
+
+/**
+ * 토큰 모드(security.auth.mode=token)에서만 등록되는 컨트롤러
+ * access token이 만료되면 refresh token으로 새 토큰을 발급받는다.
+ *
+ * 재발급할 때마다
+ * 1. 회원을 id로 다시 조회한다. => 탈퇴한 회원, 휴면 계정(PrincipalDetails.isEnabled)은 거절하고, 바뀐 권한(role)이 새 access token에 반영된다.
+ * 2. refresh token도 새로 발급하고(rotation) 이전 refresh token은 사용된 것으로 기록한다. (RefreshTokenStore)
+ *    사용된 refresh token이 다시 들어오면 그 로그인(family)에서 발급된 refresh token은 모두 폐기된다.
+ * 실패하면 401 + 토큰 쿠키 삭제
+ */
+@RestController
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "security.auth.mode", havingValue = "token")
+@Slf4j
+public class TokenController {
+
+    private final AuthTokenProvider authTokenProvider;
+    private final RefreshTokenStore refreshTokenStore;
+    private final UserRepository userRepository;
+    private final AccountStatusUserDetailsChecker accountStatusChecker = new AccountStatusUserDetailsChecker();
+
+    @PostMapping(AuthTokenProvider.REFRESH_PATH)
+    public ResponseEntity<Void> refresh(HttpServletRequest request, HttpServletResponse response) {
+        Optional<RefreshTokenClaims> presented = authTokenProvider.verifyRefreshToken(authTokenProvider.resolveRefreshToken(request));
+        if (presented.isEmpty()) {
+            return unauthorized(request, response);
+        }
+        RefreshTokenClaims refreshToken = presented.get();
+
+        User user = userRepository.findById(refreshToken.userId()).orElse(null);
+        if (user == null) {
+            refreshTokenStore.revoke(refreshToken.familyId());
+            return unauthorized(request, response);
+        }
+        PrincipalDetails principal = new PrincipalDetails(user);
+        try {
+            accountStatusChecker.check(principal); // 휴면 계정 => DisabledException
+        } catch (AccountStatusException e) {
+            log.info("토큰 재발급 거절 : userId={}, {}", user.getId(), e.getClass().getSimpleName());
+            refreshTokenStore.revoke(refreshToken.familyId());
+            return unauthorized(request, response);
+        }
+
+        return refreshTokenStore.rotate(refreshToken)
+                .map(next -> {
+                    principal.eraseCredentials();
+                    authTokenProvider.addTokenCookies(request, response, principal, next);
+                    return ResponseEntity.noContent().<Void>build();
+                })
+                .orElseGet(() -> unauthorized(request, response));
+    }
+
+    private ResponseEntity<Void> unauthorized(HttpServletRequest request, HttpServletResponse response) {
+        authTokenProvider.clearTokenCookies(request, response);
+        return ResponseEntity.status(HttpServletResponse.SC_UNAUTHORIZED).build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.cos.security1.controller;
+
+import com.cos.security1.config.bulk.BulkFormat;
+import com.cos.security1.config.bulk.ImportResult;
+import com.cos.security1.config.bulk.UserExporter;
+import com.cos.security1.config.bulk.UserImportException;
+import com.cos.security1.config.bulk.UserImporter;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * 회원 대량 등록/내보내기 (/admin/** => SecurityConfig에서 ADMIN만 접근 가능)
+ * 요청 본문과 응답 본문을 한 줄씩 읽고 쓴다. (파일 전체를 메모리에 올리지 않는다.)
+ *
+ * 등록 : POST /admin/users/import (Content-Type: text/csv 또는 application/x-ndjson)
+ *        실패하면 422와 함께 저장된 위치(committedLine)를 돌려준다. => 같은 파일을 ?importId=... 로 다시 보내면 이어서 등록
+ * 내보내기 : GET /admin/users/export?format=csv|ndjson&includePasswords=false
+ */
+@Controller
+@RequiredArgsConstructor
+public class UserBulkController {
+
+    private final UserImporter userImporter;
+    private final UserExporter userExporter;
+
+    @ResponseBody
+    @PostMapping("/admin/users/import")
+    public ImportResult importUsers(@RequestParam(required = false) String importId,
+                                    @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                    HttpServletRequest request) throws IOException {
+        BulkFormat format = BulkFormat.fromMediaType(contentType);
+        String id = StringUtils.hasText(importId) ? importId : UUID.randomUUID().toString();
+        return userImporter.importUsers(id, format, request.getInputStream());
+    }
+
+    @GetMapping("/admin/users/export")
+    public ResponseEntity<StreamingResponseBody> exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                                                             @RequestParam(defaultValue = "false") boolean includePasswords) {
+        BulkFormat bulkFormat = BulkFormat.valueOf(format.toUpperCase(Locale.ROOT));
+        StreamingResponseBody body = output -> userExporter.export(bulkFormat, includePasswords, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(bulkFormat.mediaType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users." + bulkFormat.name().toLowerCase(Locale.ROOT))
+                .body(body);
+    }
+
+    @ExceptionHandler(UserImportException.class)
+    public ResponseEntity<ImportResult> importFailed(UserImportException e) {
+        return ResponseEntity.unprocessableEntity().body(e.getResult());
+    }
+
+    // 지원하지 않는 형식
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> unsupportedFormat(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+}
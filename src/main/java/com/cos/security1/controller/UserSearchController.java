@@ -0,0 +1,114 @@
+package com.cos.security1.controller;
+
+import com.cos.security1.model.UserSummary;
+import com.cos.security1.repository.UserCursor;
+import com.cos.security1.repository.UserRepository;
+import com.cos.security1.repository.UserSearchCondition;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 회원 목록 조회 (/manager/** => SecurityConfig에서 MANAGER, ADMIN만 접근 가능)
+ * 비밀번호 없이 목록에 필요한 컬럼만 돌려준다. (UserSummary)
+ *
+ * 목록 : GET /manager/users?role=&provider=&createdFrom=&createdTo=&size=50&cursor=
+ *        응답의 nextCursor를 다음 요청의 cursor로 보내면 다음 페이지 (null이면 마지막 페이지)
+ *        offset 대신 cursor(마지막 회원의 createDate, id)로 넘기기 때문에 뒤쪽 페이지도 첫 페이지와 조회 시간이 같다.
+ * 스트리밍 : GET /manager/users/stream?(같은 조건) => 조건에 맞는 회원 전체를 NDJSON으로
+ *           내부에서 cursor로 STREAM_BATCH명씩 조회한다. => 긴 트랜잭션이나 DB 커서를 잡고 있지 않는다.
+ */
+@Controller
+@RequiredArgsConstructor
+public class UserSearchController {
+
+    static final int MAX_SIZE = 1000;
+    static final int STREAM_BATCH = 1000;
+
+    private final UserRepository userRepository;
+    private final ObjectMapper objectMapper;
+
+    public record UserPage(List<UserSummary> users, String nextCursor) {
+    }
+
+    @ResponseBody
+    @GetMapping("/manager/users")
+    public UserPage users(@RequestParam(required = false) String role,
+                          @RequestParam(required = false) String provider,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdFrom,
+                          @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdTo,
+                          @RequestParam(defaultValue = "50") int size,
+                          @RequestParam(required = false) String cursor) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("size는 1 ~ " + MAX_SIZE + " 사이여야 합니다.");
+        }
+        UserSearchCondition condition = condition(role, provider, createdFrom, createdTo);
+        UserCursor after = StringUtils.hasText(cursor) ? UserCursor.decode(cursor) : null;
+
+        // 한 명 더 조회해서 다음 페이지가 있는지 확인 (count 쿼리 없이)
+        List<UserSummary> users = userRepository.search(condition, after, size + 1);
+        if (users.size() <= size) {
+            return new UserPage(users, null);
+        }
+        List<UserSummary> page = users.subList(0, size);
+        return new UserPage(page, UserCursor.after(page.get(size - 1)).encode());
+    }
+
+    @GetMapping("/manager/users/stream")
+    public ResponseEntity<StreamingResponseBody> stream(@RequestParam(required = false) String role,
+                                                        @RequestParam(required = false) String provider,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdFrom,
+                                                        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant createdTo) {
+        UserSearchCondition condition = condition(role, provider, createdFrom, createdTo);
+        StreamingResponseBody body = output -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), 64 * 1024);
+            UserCursor after = null;
+            List<UserSummary> users;
+            do {
+                users = userRepository.search(condition, after, STREAM_BATCH);
+                for (UserSummary user : users) {
+                    writer.write(objectMapper.writeValueAsString(user));
+                    writer.write('\n');
+                }
+                writer.flush(); // 한 묶음씩 클라이언트로 보낸다.
+                if (!users.isEmpty()) {
+                    after = UserCursor.after(users.get(users.size() - 1));
+                }
+            } while (users.size() == STREAM_BATCH);
+        };
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType("application/x-ndjson")).body(body);
+    }
+
+    // 잘못된 size, cursor
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> badRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body(e.getMessage());
+    }
+
+    private UserSearchCondition condition(String role, String provider, Instant createdFrom, Instant createdTo) {
+        if (StringUtils.hasText(role) && !role.startsWith("ROLE_")) {
+            role = "ROLE_" + role; // role=MANAGER => ROLE_MANAGER
+        }
+        return new UserSearchCondition(StringUtils.hasText(role) ? role : null,
+                StringUtils.hasText(provider) ? provider : null,
+                createdFrom != null ? Timestamp.from(createdFrom) : null,
+                createdTo != null ? Timestamp.from(createdTo) : null);
+    }
+}
@@ -0,0 +1,39 @@
+package com.cos.security1.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * 로그인 기록 (성공, 실패)
+ * 저장은 JPA가 아니라 LoginAuditWriter가 JDBC batch insert로 한다. => 여기서는 테이블 구조(ddl-auto)와 조회용으로만 사용
+ * id는 auto increment(IDENTITY) => insert 시 id를 따로 받아올 필요가 없다.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "ix_login_audit_username", columnList = "username, createdAt") // 회원별 로그인 기록 조회
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class LoginAudit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String username; // 실패한 경우에는 입력한 username
+    private Long userId; // 실패한 경우에는 null
+    private String provider; // form, google, facebook, naver
+    private String outcome; // SUCCESS, FAILURE
+    private String reason; // 실패 이유 (예외 이름)
+    private String remoteIp;
+    private Timestamp createdAt;
+}
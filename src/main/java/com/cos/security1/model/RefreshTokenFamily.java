@@ -0,0 +1,38 @@
+package com.cos.security1.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * 토큰 모드의 refresh token 발급 기록 (로그인 1번 = family 1개)
+ * 재발급(rotation)할 때마다 tokenId를 새 값으로 바꾼다. => 현재 tokenId가 아닌 refresh token은 이미 사용된 것
+ * 이미 사용된 refresh token이 다시 들어오면 탈취된 것으로 보고 family 전체를 폐기(revoked)한다. (RefreshTokenStore)
+ */
+@Entity
+@Table(indexes = @Index(name = "ix_refresh_token_family_user", columnList = "userId, expiresAt"))
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class RefreshTokenFamily {
+
+    @Id
+    private String familyId;
+
+    private Long userId;
+    private String tokenId; // 마지막으로 발급한 refresh token의 jti
+    private boolean revoked;
+    private Timestamp expiresAt; // 마지막으로 발급한 refresh token의 만료 시간
+
+    public RefreshTokenFamily(String familyId, Long userId, String tokenId, Timestamp expiresAt) {
+        this.familyId = familyId;
+        this.userId = userId;
+        this.tokenId = tokenId;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -2,13 +2,25 @@ package com.cos.security1.model;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
 import lombok.*;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.sql.Timestamp;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "ux_user_username", columnList = "username", unique = true), // 로그인 시 username으로 조회 + 중복 가입 방지
+        @Index(name = "ux_user_provider", columnList = "provider, providerId", unique = true), // OAuth 로그인 시 (provider, providerId)로 조회 + 동시 첫 로그인 시 중복 insert 방지
+        // 회원 목록 조회(UserRepositoryCustom.search) : (createDate, id) 순서로 페이지를 넘긴다. => 조건별로 같은 순서의 인덱스
+        @Index(name = "ix_user_create_date", columnList = "createDate, id"),
+        @Index(name = "ix_user_role_create_date", columnList = "role, createDate, id"),
+        @Index(name = "ix_user_provider_create_date", columnList = "provider, createDate, id")
+})
 @Builder
 @Data
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
@@ -16,8 +28,22 @@ import java.sql.Timestamp;
 @ToString
 public class User {
 
+    /**
+     * OAuth 회원의 비밀번호 자리에 들어가는 값
+     * bcrypt 형식이 아니기 때문에 어떤 비밀번호를 입력해도 일치하지 않는다. => OAuth 회원은 폼 로그인 불가
+     */
+    public static final String UNUSABLE_PASSWORD = "!oauth2";
+
+    /**
+     * id는 user_seq에서 50개씩 한 번에 받아와서 메모리에서 하나씩 사용한다. (pooled => insert마다 user_seq를 조회하지 않는다.)
+     * MySQL처럼 시퀀스가 없는 DB에서는 user_seq 테이블(next_val)로 대신한다.
+     * 대량 등록(UserRepositoryCustom.insertAll)과 리액티브 버전(reactive 모듈)도 같은 방식으로 id를 받아간다. => 값을 바꾸면 같이 바꿔야 한다.
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_seq")
+    @SequenceGenerator(name = "user_seq", sequenceName = "user_seq", initialValue = 1, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     private String username;
@@ -25,11 +51,13 @@ public class User {
     private String email;
     private String role; // ROLE_USER, ROLE_MANAGER, ROLE_ADMIM => 꼭 ROLE_~ 형태로 저장해야 security가 작동한다.
 
-    private String provider; // 일반적인 사용자인지 Oauth 사용자인지 구분하기 위한 필드
+    private String provider; // 일반적인 사용자인지 Oauth 사용자인지 구분하기 위한 필드 (일반 사용자는 null => 유니크 인덱스에 걸리지 않는다.)
     private String providerId;
 
     @CreationTimestamp
     private Timestamp createDate;
 
+    private Timestamp lastLoginDate; // 마지막 로그인 시간 (로그인 시 바로 저장하지 않고 LoginAuditWriter가 모아서 갱신) => 휴면 계정 판단 (PrincipalDetails.isEnabled)
+
 
 }
@@ -0,0 +1,13 @@
+package com.cos.security1.model;
+
+import java.sql.Timestamp;
+
+/**
+ * 폼 로그인(PrincipalDetailsService.loadUserByUsername)용 조회 결과
+ * 로그인 검증에 필요한 컬럼만 읽는다. (UserRepository.findCredentialsByUsername)
+ * 엔티티가 아니기 때문에 영속성 컨텍스트에 올라가지 않는다. => 스냅샷(변경감지용 복사본), flush 대상이 없다.
+ * 불변 객체라서 캐시(CacheConfig.USERS)에 넣어두고 여러 요청 스레드가 같이 꺼내 써도 안전하다.
+ */
+public record UserCredentials(Long id, String username, String password, String role, String provider,
+                              Timestamp lastLoginDate) {
+}
@@ -0,0 +1,17 @@
+package com.cos.security1.model;
+
+import java.sql.Timestamp;
+
+/**
+ * OAuth 로그인(OAuth2UserJoinService.findOrJoin)용 조회 결과
+ * PrincipalDetails를 만드는 데 필요한 컬럼만 읽는다. (UserRepository.findIdentityByProviderAndProviderId)
+ * 엔티티(@Data User)를 캐시(CacheConfig.USER_IDENTITIES)에 넣으면 꺼내 쓴 쪽에서 setter로 바꾼 값이 다른 요청에도 보인다.
+ * => 불변 객체만 캐싱한다. (UserCredentials와 같은 이유)
+ */
+public record UserIdentity(Long id, String username, String role, String provider, Timestamp lastLoginDate) {
+
+    // 회원가입 직후 저장한 엔티티 => 조회 결과와 같은 형태로 반환
+    public static UserIdentity of(User user) {
+        return new UserIdentity(user.getId(), user.getUsername(), user.getRole(), user.getProvider(), user.getLastLoginDate());
+    }
+}
@@ -0,0 +1,37 @@
+package com.cos.security1.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.sql.Timestamp;
+
+/**
+ * 대량 등록(UserImporter) 진행 상황
+ * 회원 insert와 같은 트랜잭션에서 갱신한다. => 중간에 실패하거나 서버가 죽어도 committedLine까지는 확실히 저장된 것
+ * 같은 importId로 다시 요청하면 committedLine 다음 줄부터 이어서 등록한다.
+ */
+@Entity
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class UserImportCheckpoint {
+
+    @Id
+    private String importId;
+
+    private long committedLine; // 저장이 끝난 마지막 줄 번호 (헤더, 빈 줄 포함)
+    private long importedRows; // 지금까지 등록한 회원 수
+    private Timestamp updatedAt;
+
+    public UserImportCheckpoint(String importId) {
+        this.importId = importId;
+    }
+
+    public void advance(long committedLine, long rows) {
+        this.committedLine = committedLine;
+        this.importedRows += rows;
+        this.updatedAt = new Timestamp(System.currentTimeMillis());
+    }
+}
@@ -0,0 +1,11 @@
+package com.cos.security1.model;
+
+import java.sql.Timestamp;
+
+/**
+ * 회원 목록 조회용 (UserRepositoryCustom.search)
+ * User 엔티티 대신 필요한 컬럼만 읽는다. => 비밀번호 해시를 읽지 않고, 영속성 컨텍스트에도 올라가지 않는다.
+ */
+public record UserSummary(Long id, String username, String email, String role, String provider,
+                          Timestamp createDate, Timestamp lastLoginDate) {
+}
@@ -0,0 +1,35 @@
+package com.cos.security1.repository;
+
+import com.cos.security1.model.RefreshTokenFamily;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+
+public interface RefreshTokenFamilyRepository extends JpaRepository<RefreshTokenFamily, String> {
+
+    /**
+     * 재발급 : 들고 온 jti가 현재 jti일 때만 다음 jti로 바꾼다. (조회 후 수정하지 않고 update 한 번 => 같은 토큰으로 동시에 요청해도 한 번만 성공)
+     * 0이면 이미 사용된 토큰 / 폐기된 family / 만료
+     */
+    @Transactional
+    @Modifying
+    @Query("update RefreshTokenFamily f set f.tokenId = :next, f.expiresAt = :expiresAt"
+            + " where f.familyId = :familyId and f.tokenId = :current and f.revoked = false and f.expiresAt > :now")
+    int rotate(@Param("familyId") String familyId, @Param("current") String current, @Param("next") String next,
+               @Param("expiresAt") Timestamp expiresAt, @Param("now") Timestamp now);
+
+    @Transactional
+    @Modifying
+    @Query("update RefreshTokenFamily f set f.revoked = true where f.familyId = :familyId")
+    int revoke(@Param("familyId") String familyId);
+
+    // 새로 로그인할 때 같은 회원의 만료된 기록을 지운다. (ix_refresh_token_family_user)
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshTokenFamily f where f.userId = :userId and f.expiresAt < :now")
+    int deleteExpired(@Param("userId") Long userId, @Param("now") Timestamp now);
+}
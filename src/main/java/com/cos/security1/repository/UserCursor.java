@@ -0,0 +1,37 @@
+package com.cos.security1.repository;
+
+import com.cos.security1.model.UserSummary;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * 회원 목록의 다음 페이지 위치 (마지막으로 받은 회원의 createDate, id)
+ * offset(몇 번째부터)이 아니라 "이 회원 다음부터"로 조회하기 때문에 뒤쪽 페이지도 인덱스에서 바로 찾아간다.
+ * 클라이언트에는 문자열(base64)로 주고받는다.
+ */
+public record UserCursor(Timestamp createDate, long id) {
+
+    public static UserCursor after(UserSummary last) {
+        return new UserCursor(last.createDate(), last.id());
+    }
+
+    public String encode() {
+        String value = createDate.toInstant() + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 잘못된 값이면 IllegalArgumentException
+    public static UserCursor decode(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('_');
+            return new UserCursor(Timestamp.from(Instant.parse(value.substring(0, separator))),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("잘못된 cursor입니다. : " + cursor, e);
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.cos.security1.repository;
+
+import com.cos.security1.model.UserImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface UserImportCheckpointRepository extends JpaRepository<UserImportCheckpoint, String> {
+}
@@ -1,10 +1,101 @@
 package com.cos.security1.repository;
 
+import com.cos.security1.config.CacheConfig;
 import com.cos.security1.model.User;
+import com.cos.security1.model.UserCredentials;
+import com.cos.security1.model.UserIdentity;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
-public interface UserRepository extends JpaRepository<User, Long> {
+import java.sql.Timestamp;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
+
+    /**
+     * 엔티티 조회 (수정, 삭제할 때)
+     * 로그인은 findCredentialsByUsername을 사용한다.
+     */
     User findByUsername(String username);
 
+    /**
+     * 폼 로그인 시 사용 (PrincipalDetailsService.loadUserByUsername)
+     * 엔티티 대신 로그인에 필요한 컬럼만 읽는다. => 엔티티를 만들지 않아서 변경 감지 스냅샷도 없다. (username은 ux_user_username으로 찾는다.)
+     * readOnly 트랜잭션 : Hibernate 세션이 flush하지 않고(FlushMode.MANUAL), 커넥션도 읽기 전용으로 설정된다. => replica에서 조회 (DataSourceConfig)
+     * 조회 결과를 username 기준으로 캐싱한다.
+     * 없는 회원(null)은 캐싱하지 않는다. => 회원가입 직후 바로 로그인할 수 있어야 하기 때문
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.USERS, key = "#p0", unless = "#result == null")
+    @Query("select new com.cos.security1.model.UserCredentials(u.id, u.username, u.password, u.role, u.provider, u.lastLoginDate)"
+            + " from User u where u.username = :username")
+    UserCredentials findCredentialsByUsername(@Param("username") String username);
+
+    /**
+     * OAuth 로그인 시 사용
+     * provider + "_" + providerId 문자열을 만들어서 username으로 찾는 대신, (provider, providerId) 유니크 인덱스를 타도록 조회한다.
+     * 캐시에 들어가기 때문에 엔티티 대신 불변 객체(UserIdentity)로 읽는다.
+     */
+    @Transactional(readOnly = true) // replica에서 조회 (DataSourceConfig)
+    @Cacheable(cacheNames = CacheConfig.USER_IDENTITIES, key = "#p0 + ':' + #p1", unless = "#result == null")
+    @Query("select new com.cos.security1.model.UserIdentity(u.id, u.username, u.role, u.provider, u.lastLoginDate)"
+            + " from User u where u.provider = :provider and u.providerId = :providerId")
+    Optional<UserIdentity> findIdentityByProviderAndProviderId(@Param("provider") String provider, @Param("providerId") String providerId);
+
+    /**
+     * 회원가입(IndexController.join)과 OAuth 회원가입(PrincipalOauth2UserService.loadUser) 모두 save()를 거치기 때문에
+     * 여기서 캐시를 지워주면 저장 이후의 조회는 항상 DB의 최신 값을 보게 된다.
+     */
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#p0.username"),
+            @CacheEvict(cacheNames = CacheConfig.USER_IDENTITIES, key = "#p0.provider + ':' + #p0.providerId")
+    })
+    <S extends User> S save(S entity);
+
+    @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.USERS, key = "#p0.username"),
+            @CacheEvict(cacheNames = CacheConfig.USER_IDENTITIES, key = "#p0.provider + ':' + #p0.providerId")
+    })
+    <S extends User> S saveAndFlush(S entity);
+
+    /**
+     * username 필터(UsernameFilter) 생성 시 사용
+     * 엔티티가 아니라 username 컬럼만 읽고, fetch size만큼씩 나눠서 가져온다. => 회원 수가 많아도 메모리에 한꺼번에 올리지 않는다.
+     * 트랜잭션 안에서 호출하고 다 쓰면 close 해야 한다.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.username from User u")
+    Stream<String> streamAllUsernames();
+
+    /**
+     * username 필터(UsernameFilter) 갱신 시 사용 : since 이후에 가입한 회원 (ix_user_create_date)
+     * 트랜잭션 안에서 호출하고 다 쓰면 close 해야 한다.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("select u.username from User u where u.createDate >= :since")
+    Stream<String> streamUsernamesCreatedSince(@Param("since") Timestamp since);
+
+    /**
+     * 로그인 시 비밀번호 해시 교체 (PasswordUpgrader)
+     * 엔티티를 조회해서 변경감지로 수정하지 않고 update 쿼리 한 번으로 끝낸다.
+     * 로그인할 때 검증한 해시(current)일 때만 바꾼다. => 그 사이에 바뀐 비밀번호를 예전 비밀번호로 덮어쓰지 않는다.
+     */
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :password where u.username = :username and u.password = :current")
+    @CacheEvict(cacheNames = CacheConfig.USERS, key = "#p0")
+    int updatePassword(@Param("username") String username, @Param("current") String current, @Param("password") String password);
+
 }
@@ -0,0 +1,27 @@
+package com.cos.security1.repository;
+
+import com.cos.security1.model.User;
+import com.cos.security1.model.UserSummary;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * 대량 등록 (UserImporter)
+     * save()처럼 한 건씩 insert하지 않고 JDBC batch로 한 번에 보낸다.
+     * id는 User 엔티티와 같은 생성기(user_seq, 50개씩)에서 받아온다. => JPA로 저장하는 회원과 id가 겹치지 않는다.
+     * 캐시는 지우지 않는다. (없는 회원은 캐싱하지 않기 때문에 새로 등록한 회원은 캐시에 없다.)
+     */
+    @Transactional
+    void insertAll(List<User> users);
+
+    /**
+     * 회원 목록 조회 (최근 가입 순 : createDate desc, id desc)
+     * cursor가 있으면 그 회원 다음부터 limit명 (keyset) => 몇 번째 페이지든 인덱스에서 바로 시작 위치를 찾는다.
+     * 조건마다 같은 순서의 인덱스가 있다. (User @Table의 ix_user_*_create_date)
+     */
+    @Transactional(readOnly = true)
+    List<UserSummary> search(UserSearchCondition condition, UserCursor cursor, int limit);
+}
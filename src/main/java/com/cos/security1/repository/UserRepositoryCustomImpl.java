@@ -0,0 +1,102 @@
+package com.cos.security1.repository;
+
+import com.cos.security1.model.User;
+import com.cos.security1.model.UserSummary;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * UserRepository의 insertAll(), search() 구현 (스프링 데이터 JPA가 이름 규칙(Impl)으로 찾아서 UserRepository에 붙여준다.)
+ *
+ * id : Hibernate가 User 엔티티에 쓰는 생성기를 그대로 꺼내서 사용한다.
+ *      user_seq를 50개마다 한 번만 조회하고, DB 종류(시퀀스 or 테이블)도 Hibernate가 알아서 맞춘다.
+ * insert : JdbcTemplate batch (JPA 트랜잭션에 같이 묶인다.)
+ *          MySQL은 JDBC URL에 rewriteBatchedStatements=true가 있어야 여러 행을 insert 한 번으로 보낸다.
+ */
+class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String INSERT = "insert into user (id, username, password, email, role, provider, provider_id, create_date) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+
+    UserRepositoryCustomImpl(EntityManager entityManager, JdbcTemplate jdbcTemplate) {
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory()
+                .getMappingMetamodel().getEntityDescriptor(User.class).getGenerator();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        for (User user : users) {
+            user.setId((Long) generator.generate(session, user, null, EventType.INSERT));
+            if (user.getCreateDate() == null) {
+                user.setCreateDate(now);
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT, users, users.size(), (ps, user) -> {
+            ps.setLong(1, user.getId());
+            ps.setString(2, user.getUsername());
+            ps.setString(3, user.getPassword());
+            ps.setString(4, user.getEmail());
+            ps.setString(5, user.getRole());
+            ps.setString(6, user.getProvider());
+            ps.setString(7, user.getProviderId());
+            ps.setTimestamp(8, user.getCreateDate());
+        });
+    }
+
+    @Override
+    public List<UserSummary> search(UserSearchCondition condition, UserCursor cursor, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummary> query = cb.createQuery(UserSummary.class);
+        Root<User> user = query.from(User.class);
+        Path<Timestamp> createDate = user.get("createDate");
+        Path<Long> id = user.get("id");
+
+        List<Predicate> where = new ArrayList<>();
+        if (condition.role() != null) {
+            where.add(cb.equal(user.get("role"), condition.role()));
+        }
+        if (condition.provider() != null) {
+            where.add(UserSearchCondition.FORM.equals(condition.provider())
+                    ? cb.isNull(user.get("provider"))
+                    : cb.equal(user.get("provider"), condition.provider()));
+        }
+        if (condition.createdFrom() != null) {
+            where.add(cb.greaterThanOrEqualTo(createDate, condition.createdFrom()));
+        }
+        if (condition.createdTo() != null) {
+            where.add(cb.lessThan(createDate, condition.createdTo()));
+        }
+        if (cursor != null) {
+            // (createDate, id) < (cursor.createDate, cursor.id)
+            where.add(cb.or(cb.lessThan(createDate, cursor.createDate()),
+                    cb.and(cb.equal(createDate, cursor.createDate()), cb.lessThan(id, cursor.id()))));
+        }
+
+        query.select(cb.construct(UserSummary.class, id, user.get("username"), user.get("email"), user.get("role"),
+                        user.get("provider"), createDate, user.get("lastLoginDate")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.desc(createDate), cb.desc(id));
+        return entityManager.createQuery(query).setMaxResults(limit).getResultList();
+    }
+}
@@ -0,0 +1,13 @@
+package com.cos.security1.repository;
+
+import java.sql.Timestamp;
+
+/**
+ * 회원 목록 조회 조건 (null이면 조건 없음)
+ * provider : google, facebook, naver / form이면 일반 회원(provider가 null)
+ * createdFrom <= createDate < createdTo
+ */
+public record UserSearchCondition(String role, String provider, Timestamp createdFrom, Timestamp createdTo) {
+
+    public static final String FORM = "form";
+}
@@ -0,0 +1,120 @@
+package com.cos.security1.config.audit;
+
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * 로그인 기록은 비동기로 저장되기 때문에 DB에 반영될 때까지 기다렸다가 확인한다.
+ */
+@SpringBootTest(properties = "login.audit.linger=20ms")
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class LoginAuditTest {
+
+    static final String USERNAME = "audit_tester";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        User user = userRepository.findByUsername(USERNAME);
+        if (user != null) {
+            userRepository.delete(user);
+        }
+        jdbcTemplate.update("delete from login_audit where username in (?, ?)", USERNAME, "audit_nobody");
+    }
+
+    @Test
+    void 로그인_성공과_실패가_기록되고_마지막_로그인_시간이_갱신된다() throws Exception {
+        join();
+        mockMvc.perform(formLogin("/login").user(USERNAME).password("wrong"))
+                .andExpect(redirectedUrl("/loginForm?error"));
+        mockMvc.perform(formLogin("/login").user(USERNAME).password("1234"))
+                .andExpect(redirectedUrl("/"));
+        mockMvc.perform(formLogin("/login").user("audit_nobody").password("1234"))
+                .andExpect(redirectedUrl("/loginForm?error"));
+
+        awaitCount(() -> count("select count(*) from login_audit where username in (?, ?)", USERNAME, "audit_nobody"), 3);
+
+        assertThat(count("select count(*) from login_audit where username = ? and outcome = 'SUCCESS' and provider = 'form' and user_id is not null", USERNAME)).isEqualTo(1);
+        assertThat(count("select count(*) from login_audit where username = ? and outcome = 'FAILURE' and reason = 'BadCredentialsException'", USERNAME)).isEqualTo(1);
+        assertThat(count("select count(*) from login_audit where username = ? and outcome = 'FAILURE'", "audit_nobody")).isEqualTo(1);
+        assertThat(count("select count(*) from user where username = ? and last_login_date is not null", USERNAME)).isEqualTo(1);
+    }
+
+    @Test
+    void 마지막_로그인이_1년_전인_휴면_계정은_로그인할_수_없다() throws Exception {
+        join();
+        Timestamp dormant = Timestamp.from(Instant.now().minus(Duration.ofDays(400)));
+        jdbcTemplate.update("update user set last_login_date = ? where username = ?", dormant, USERNAME);
+
+        mockMvc.perform(formLogin("/login").user(USERNAME).password("1234"))
+                .andExpect(redirectedUrl("/loginForm?error"));
+
+        awaitCount(() -> count("select count(*) from login_audit where username = ? and reason = 'DisabledException'", USERNAME), 1);
+    }
+
+    /**
+     * 큐에 쌓인 기록은 종료(stop) 시 전부 저장된다.
+     * 큐가 비기 전에 멈추도록 batch를 작게, linger를 길게 잡는다.
+     */
+    @Test
+    void 종료_시_큐에_남은_기록을_모두_저장한다() {
+        LoginAuditWriter writer = new LoginAuditWriter(jdbcTemplate, new SimpleMeterRegistry(),
+                5000, 10, Duration.ofSeconds(1), Duration.ofSeconds(10));
+        writer.start();
+        for (int i = 0; i < 2000; i++) {
+            writer.record(LoginEvent.failure("audit_nobody", LoginAuditListener.FORM, "BadCredentialsException", "127.0.0.1"));
+        }
+        writer.stop();
+
+        assertThat(writer.isRunning()).isFalse();
+        assertThat(count("select count(*) from login_audit where username = ?", "audit_nobody")).isEqualTo(2000);
+    }
+
+    private void join() throws Exception {
+        mockMvc.perform(post("/join")
+                        .param("username", USERNAME)
+                        .param("password", "1234")
+                        .param("email", "audit@example.com"))
+                .andExpect(redirectedUrl("/loginForm"));
+    }
+
+    private long count(String sql, Object... args) {
+        return jdbcTemplate.queryForObject(sql, Long.class, args);
+    }
+
+    private void awaitCount(Supplier<Long> count, long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (count.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertThat(count.get()).isEqualTo(expected);
+    }
+}
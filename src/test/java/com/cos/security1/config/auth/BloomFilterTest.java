@@ -0,0 +1,33 @@
+package com.cos.security1.config.auth;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class BloomFilterTest {
+
+    @Test
+    void 넣은_값은_항상_true이고_오탐률은_fpp_근처다() {
+        int n = 100_000;
+        BloomFilter filter = new BloomFilter(n, 0.01);
+        for (int i = 0; i < n; i++) {
+            filter.put("user" + i);
+        }
+
+        for (int i = 0; i < n; i++) {
+            assertThat(filter.mightContain("user" + i)).isTrue();
+        }
+        int falsePositives = 0;
+        for (int i = 0; i < n; i++) {
+            if (filter.mightContain("nobody" + i)) {
+                falsePositives++;
+            }
+        }
+        double rate = (double) falsePositives / n;
+
+        assertThat(filter.expectedFpp()).isCloseTo(0.01, offset(0.001)); // 해시 수를 정수로 반올림해서 정확히 0.01은 아니다.
+        assertThat(rate).isLessThan(filter.expectedFpp() * 1.5); // 100,000번 측정 => 표준편차는 fpp의 약 10%
+        assertThat(filter.byteSize()).isLessThan(n * 2L); // 회원 1명당 2바이트 미만
+    }
+}
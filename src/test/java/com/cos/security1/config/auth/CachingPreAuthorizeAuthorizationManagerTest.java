@@ -0,0 +1,153 @@
+package com.cos.security1.config.auth;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.expression.EvaluationContext;
+import org.springframework.security.access.expression.method.DefaultMethodSecurityExpressionHandler;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.method.PreAuthorizeAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.util.SimpleMethodInvocation;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 식을 실제로 계산한 횟수는 식 핸들러가 EvaluationContext를 만든 횟수로 센다.
+ */
+class CachingPreAuthorizeAuthorizationManagerTest {
+
+    final AtomicInteger evaluations = new AtomicInteger();
+    final DefaultMethodSecurityExpressionHandler expressionHandler = new DefaultMethodSecurityExpressionHandler() {
+        @Override
+        public EvaluationContext createEvaluationContext(Supplier<Authentication> authentication, MethodInvocation mi) {
+            evaluations.incrementAndGet();
+            return super.createEvaluationContext(authentication, mi);
+        }
+    };
+    final Target target = new Target();
+
+    CachingPreAuthorizeAuthorizationManager manager;
+
+    @BeforeEach
+    void setUp() {
+        StaticApplicationContext applicationContext = new StaticApplicationContext();
+        applicationContext.registerSingleton("guard", Guard.class);
+        applicationContext.refresh();
+        expressionHandler.setApplicationContext(applicationContext);
+
+        PreAuthorizeAuthorizationManager preAuthorize = new PreAuthorizeAuthorizationManager();
+        preAuthorize.setExpressionHandler(expressionHandler);
+        manager = new CachingPreAuthorizeAuthorizationManager(preAuthorize, 100);
+    }
+
+    @Test
+    void 권한_검사만_하는_식은_두_번째부터_계산하지_않는다() {
+        assertThat(check("managerOnly", RoleAuthorities.of(RoleAuthorities.MANAGER))).isTrue();
+        assertThat(check("managerOnly", RoleAuthorities.of(RoleAuthorities.MANAGER))).isTrue();
+
+        assertThat(evaluations).hasValue(1);
+    }
+
+    @Test
+    void 파라미터_인증객체_빈을_참조하는_식은_매번_계산한다() {
+        List<GrantedAuthority> user = RoleAuthorities.of(RoleAuthorities.USER);
+
+        assertThat(check("byId", user, 1L)).isTrue();
+        assertThat(check("byId", user, 2L)).isFalse(); // 같은 권한 목록이라도 파라미터에 따라 결과가 다르다.
+        assertThat(check("byName", user)).isTrue();
+        assertThat(check("byName", user)).isTrue();
+        assertThat(check("byBean", user)).isTrue();
+        assertThat(check("byBean", user)).isTrue();
+
+        assertThat(evaluations).hasValue(6);
+    }
+
+    @Test
+    void 거절된_결과도_권한_목록별로_따로_캐싱된다() {
+        List<GrantedAuthority> user = RoleAuthorities.of(RoleAuthorities.USER);
+        List<GrantedAuthority> admin = RoleAuthorities.of(RoleAuthorities.ADMIN);
+
+        assertThat(check("managerOnly", user)).isFalse();
+        assertThat(check("managerOnly", user)).isFalse();
+        assertThat(evaluations).hasValue(1); // 거절도 캐싱
+
+        assertThat(check("managerOnly", admin)).isTrue(); // USER의 거절 결과를 쓰지 않고 따로 계산
+        assertThat(check("managerOnly", admin)).isTrue();
+        assertThat(check("managerOnly", user)).isFalse();
+        assertThat(evaluations).hasValue(2);
+    }
+
+    @Test
+    void 역할_계층이_바뀌어_펼쳐진_권한_목록이_달라지면_다시_계산한다() {
+        // 계층을 펼치기 전 [ROLE_ADMIN]과 펼친 뒤 [ROLE_ADMIN, ROLE_MANAGER, ROLE_USER]는 다른 키
+        assertThat(check("managerOnly", List.of(new SimpleGrantedAuthority(RoleAuthorities.ADMIN)))).isFalse();
+        assertThat(check("managerOnly", RoleAuthorities.of(RoleAuthorities.ADMIN))).isTrue();
+
+        assertThat(evaluations).hasValue(2);
+    }
+
+    @Test
+    void 식_핸들러의_역할_계층을_바꾸면_invalidateAll_이후_새_계층으로_계산한다() {
+        List<GrantedAuthority> admin = List.of(new SimpleGrantedAuthority(RoleAuthorities.ADMIN));
+        assertThat(check("managerOnly", admin)).isFalse();
+
+        expressionHandler.setRoleHierarchy(RoleHierarchyImpl.withDefaultRolePrefix()
+                .role("ADMIN").implies("MANAGER")
+                .build());
+        manager.invalidateAll();
+
+        assertThat(check("managerOnly", admin)).isTrue();
+        assertThat(evaluations).hasValue(2);
+    }
+
+    @SuppressWarnings("deprecation")
+    private boolean check(String methodName, List<GrantedAuthority> authorities, Object... arguments) {
+        Authentication authentication = new TestingAuthenticationToken("manager", null, authorities);
+        Class<?>[] parameterTypes = arguments.length == 0 ? new Class<?>[0] : new Class<?>[]{Long.class};
+        SimpleMethodInvocation invocation;
+        try {
+            invocation = new SimpleMethodInvocation(target, Target.class.getMethod(methodName, parameterTypes), arguments);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(e);
+        }
+        AuthorizationDecision decision = manager.check(() -> authentication, invocation);
+        return decision != null && decision.isGranted();
+    }
+
+    static class Target {
+
+        @PreAuthorize("hasRole('MANAGER')")
+        public void managerOnly() {
+        }
+
+        @PreAuthorize("#id == 1")
+        public void byId(Long id) {
+        }
+
+        @PreAuthorize("authentication.name == 'manager'")
+        public void byName() {
+        }
+
+        @PreAuthorize("@guard.allow()")
+        public void byBean() {
+        }
+    }
+
+    public static class Guard {
+
+        public boolean allow() {
+            return true;
+        }
+    }
+}
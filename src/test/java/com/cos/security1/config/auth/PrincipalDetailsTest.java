@@ -0,0 +1,115 @@
+package com.cos.security1.config.auth;
+
+import com.cos.security1.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PrincipalDetailsTest {
+
+    @Test
+    void 세션에는_id_username_role_provider만_저장된다() throws Exception {
+        PrincipalDetails principal = new PrincipalDetails(googleUser(), googleAttributes());
+
+        PrincipalDetails restored = (PrincipalDetails) deserialize(serialize(principal));
+
+        assertThat(restored.getId()).isEqualTo(1L);
+        assertThat(restored.getUsername()).isEqualTo("google_104857392018374625");
+        assertThat(restored.getRole()).isEqualTo("ROLE_USER");
+        assertThat(restored.getProvider()).isEqualTo("google");
+        assertThat(restored.getPassword()).isNull();
+        assertThat(restored.getAttributes()).isEmpty(); // 제공자가 준 attributes는 저장하지 않는다.
+    }
+
+    /**
+     * 이전 PrincipalDetails가 세션에 들고 있던 값(User 엔티티의 모든 필드 + OAuth attributes 전체)과
+     * 지금 PrincipalDetails를 직렬화했을 때의 크기를 비교한다.
+     */
+    @Test
+    void 직렬화_크기가_이전보다_작다() throws Exception {
+        User user = googleUser();
+        Map<String, Object> attributes = googleAttributes();
+
+        Map<String, Object> before = new LinkedHashMap<>();
+        before.put("id", user.getId());
+        before.put("username", user.getUsername());
+        before.put("password", user.getPassword());
+        before.put("email", user.getEmail());
+        before.put("role", user.getRole());
+        before.put("provider", user.getProvider());
+        before.put("providerId", user.getProviderId());
+        before.put("createDate", user.getCreateDate());
+        before.put("attributes", attributes);
+
+        PrincipalDetails principal = new PrincipalDetails(user, attributes);
+        principal.eraseCredentials();
+
+        int beforeSize = serialize(before).length;
+        int principalSize = serialize(principal).length;
+
+        assertThat(principalSize).isLessThan(beforeSize / 2);
+        assertThat(principalSize).isLessThan(384);
+    }
+
+    @Test
+    void 마지막_로그인이_1년_전이면_휴면_계정이다() {
+        User user = googleUser();
+        assertThat(new PrincipalDetails(user).isEnabled()).isTrue(); // 로그인 기록 없음
+
+        user.setLastLoginDate(Timestamp.from(Instant.now().minus(Duration.ofDays(30))));
+        assertThat(new PrincipalDetails(user).isEnabled()).isTrue();
+
+        user.setLastLoginDate(Timestamp.from(Instant.now().minus(PrincipalDetails.DORMANT_AFTER).minus(Duration.ofDays(1))));
+        assertThat(new PrincipalDetails(user).isEnabled()).isFalse();
+    }
+
+    private User googleUser() {
+        return User.builder()
+                .id(1L)
+                .username("google_104857392018374625")
+                .password("!oauth2")
+                .email("developer@gmail.com")
+                .role("ROLE_USER")
+                .provider("google")
+                .providerId("104857392018374625")
+                .createDate(new Timestamp(System.currentTimeMillis()))
+                .build();
+    }
+
+    private Map<String, Object> googleAttributes() {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("sub", "104857392018374625");
+        attributes.put("name", "홍길동");
+        attributes.put("given_name", "길동");
+        attributes.put("family_name", "홍");
+        attributes.put("picture", "https://lh3.googleusercontent.com/a/ACg8ocJ1x9Qm4sY2pVh7K3fJ0lq8y1Z5k2n6w4t8r0e3u7i9o1p=s96-c");
+        attributes.put("email", "developer@gmail.com");
+        attributes.put("email_verified", true);
+        attributes.put("locale", "ko");
+        return attributes;
+    }
+
+    private byte[] serialize(Object object) throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        return bytes.toByteArray();
+    }
+
+    private Object deserialize(byte[] bytes) throws Exception {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+}
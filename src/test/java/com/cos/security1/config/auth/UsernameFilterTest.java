@@ -0,0 +1,100 @@
+package com.cos.security1.config.auth;
+
+import com.cos.security1.config.UsernameFilterConfig;
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({UsernameFilterConfig.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // 필터는 별도 트랜잭션에서 user 테이블을 읽는다.
+class UsernameFilterTest {
+
+    @Autowired
+    UsernameFilter usernameFilter;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void user_테이블의_username으로_만들고_대소문자는_구분하지_않는다() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            users.add(User.builder().username("filter_user" + i).password("!").role("ROLE_USER").build());
+        }
+        userRepository.saveAll(users);
+
+        usernameFilter.rebuild();
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(usernameFilter.mightContain("filter_user" + i)).isTrue();
+        }
+        assertThat(usernameFilter.mightContain("FILTER_USER7")).isTrue(); // DB(MySQL)도 대소문자를 구분하지 않는다.
+        assertThat(usernameFilter.mightContain("filter_user7 ")).isTrue();
+        assertThat(usernameFilter.mightContain("fïltér_üser7")).isTrue(); // 악센트도 구분하지 않는다. (utf8mb4_0900_ai_ci)
+        assertThat(usernameFilter.mightContain("filter_nobody")).isFalse();
+        assertThat(meterRegistry.get("username.filter.memory").gauge().value()).isPositive();
+    }
+
+    @Test
+    void 가입할_때_넣은_username은_다시_만들어도_남아있다() {
+        usernameFilter.rebuild();
+        usernameFilter.put("filter_joined"); // 저장 전에 넣는다. => 다시 만들 때 아직 커밋 전이어도 빠지지 않아야 한다.
+
+        usernameFilter.rebuild();
+
+        assertThat(usernameFilter.mightContain("filter_joined")).isTrue();
+    }
+
+    @Test
+    void 다른_서버나_SQL로_넣은_회원은_갱신하면_들어온다() {
+        usernameFilter.rebuild();
+        // put()을 거치지 않는 insert (다른 서버, reactive 앱, 직접 실행한 SQL)
+        jdbcTemplate.update("insert into user (username, password, role, create_date) values (?, ?, ?, current_timestamp)",
+                "filter_elsewhere", "!", "ROLE_USER");
+        assertThat(usernameFilter.mightContain("filter_elsewhere")).isFalse();
+
+        usernameFilter.refresh();
+
+        assertThat(usernameFilter.mightContain("filter_elsewhere")).isTrue();
+    }
+
+    @Test
+    void 규칙을_따라갈_수_없는_username은_필터로_판단하지_않는다() {
+        usernameFilter.rebuild();
+
+        assertThat(UsernameFilter.normalize("José ")).isEqualTo("jose");
+        assertThat(UsernameFilter.normalize("Straße")).isEqualTo("strasse");
+        assertThat(UsernameFilter.normalize("회원")).isNull();
+        assertThat(usernameFilter.mightContain("회원")).isTrue(); // => DB 조회
+    }
+}
@@ -0,0 +1,183 @@
+package com.cos.security1.config.bulk;
+
+import com.cos.security1.config.auth.PrincipalDetails;
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 대량 등록 시간을 줄이기 위해 대부분의 회원은 이미 암호화된 비밀번호(cost 4)로 등록하고, bulk_plain만 평문으로 등록한다.
+ */
+@SpringBootTest(properties = {"bulk.import.batch-size=100", "bulk.import.hashing-threads=2"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserBulkTest {
+
+    static final String HASH = new BCryptPasswordEncoder(4).encode("1234");
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from user where username like 'bulk\\_%' or username = 'bulk-joined'");
+        jdbcTemplate.update("delete from user_import_checkpoint");
+    }
+
+    @Test
+    void NDJSON으로_등록하면_batch_insert되고_id가_겹치지_않는다() throws Exception {
+        StringBuilder body = new StringBuilder();
+        body.append("{\"username\":\"bulk_plain\",\"password\":\"1234\",\"email\":\"plain@example.com\"}\n");
+        for (int i = 1; i < 250; i++) {
+            body.append("{\"username\":\"bulk_").append(i).append("\",\"password\":\"").append(HASH).append("\",\"role\":\"ROLE_MANAGER\"}\n");
+        }
+
+        mockMvc.perform(post("/admin/users/import").with(admin())
+                        .contentType("application/x-ndjson")
+                        .content(body.toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.importedRows").value(250))
+                .andExpect(jsonPath("$.rowsPerSecond").isNumber());
+
+        List<Long> ids = jdbcTemplate.queryForList("select id from user where username like 'bulk\\_%'", Long.class);
+        assertThat(ids).hasSize(250).doesNotHaveDuplicates();
+
+        // 대량 등록 후 JPA로 저장한 회원과 id가 겹치지 않는다.
+        User joined = userRepository.save(User.builder().username("bulk-joined").password(HASH).role("ROLE_USER").build());
+        assertThat(ids).doesNotContain(joined.getId());
+
+        // 평문 비밀번호는 암호화되고, 등록 직후 바로 로그인할 수 있다.
+        assertThat(jdbcTemplate.queryForObject("select password from user where username = 'bulk_plain'", String.class)).startsWith("{bcrypt}");
+        mockMvc.perform(formLogin("/login").user("bulk_plain").password("1234")).andExpect(redirectedUrl("/"));
+        mockMvc.perform(formLogin("/login").user("bulk_7").password("1234")).andExpect(redirectedUrl("/"));
+    }
+
+    @Test
+    void 실패하면_저장된_위치를_알려주고_같은_importId로_이어서_등록한다() throws Exception {
+        String broken = csv(151);
+
+        mockMvc.perform(post("/admin/users/import").with(admin())
+                        .param("importId", "resume-test")
+                        .contentType("text/csv")
+                        .content(broken))
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(jsonPath("$.committedLine").value(101)) // 헤더 1줄 + 100명
+                .andExpect(jsonPath("$.importedRows").value(100));
+        assertThat(count()).isEqualTo(100);
+
+        mockMvc.perform(post("/admin/users/import").with(admin())
+                        .param("importId", "resume-test")
+                        .contentType("text/csv")
+                        .content(csv(-1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.resumedFrom").value(101))
+                .andExpect(jsonPath("$.importedRows").value(150))
+                .andExpect(jsonPath("$.committedLine").value(251));
+        assertThat(count()).isEqualTo(250);
+    }
+
+    @Test
+    void 내보내기는_스트리밍으로_응답하고_비밀번호는_기본으로_빠진다() throws Exception {
+        mockMvc.perform(post("/admin/users/import").with(admin()).contentType("text/csv").content(csv(-1)))
+                .andExpect(status().isOk());
+
+        MvcResult ndjson = mockMvc.perform(get("/admin/users/export").with(admin()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String exported = mockMvc.perform(asyncDispatch(ndjson)).andReturn().getResponse().getContentAsString();
+        assertThat(exported.lines().filter(line -> line.contains("\"bulk_"))).hasSize(250);
+        assertThat(exported).doesNotContain("\"password\"");
+
+        MvcResult csv = mockMvc.perform(get("/admin/users/export").with(admin()).param("format", "csv").param("includePasswords", "true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String exportedCsv = mockMvc.perform(asyncDispatch(csv)).andReturn().getResponse().getContentAsString();
+        assertThat(exportedCsv).startsWith("username,password,email,role,provider,providerId\n");
+        assertThat(exportedCsv).contains("bulk_1," + HASH + ",bulk1@example.com,ROLE_USER,,\n");
+    }
+
+    @Test
+    void bcrypt_해시만_그대로_저장하고_모르는_role은_거절한다() throws Exception {
+        String body = "username,password,email,role,provider,providerId\n"
+                + "bulk_prefixed,{bcrypt}" + HASH + ",,ROLE_USER,,\n"
+                + "bulk_noop,{noop}1234,,ROLE_USER,,\n"
+                + "bulk_fake,{bcrypt}1234,,ROLE_USER,,\n";
+        mockMvc.perform(post("/admin/users/import").with(admin()).contentType("text/csv").content(body))
+                .andExpect(status().isOk());
+
+        assertThat(password("bulk_prefixed")).isEqualTo("{bcrypt}" + HASH);
+        // bcrypt 해시가 아니면 접두어가 있어도 평문으로 보고 암호화한다.
+        assertThat(password("bulk_noop")).startsWith("{bcrypt}$2").isNotEqualTo("{noop}1234");
+        assertThat(password("bulk_fake")).startsWith("{bcrypt}$2").isNotEqualTo("{bcrypt}1234");
+        mockMvc.perform(formLogin("/login").user("bulk_noop").password("{noop}1234")).andExpect(redirectedUrl("/"));
+
+        mockMvc.perform(post("/admin/users/import").with(admin())
+                        .contentType("text/csv")
+                        .content("username,password,email,role,provider,providerId\nbulk_root,1234,,ROLE_ROOT,,\n"))
+                .andExpect(status().isUnprocessableEntity());
+        assertThat(jdbcTemplate.queryForObject("select count(*) from user where username = 'bulk_root'", Long.class)).isZero();
+    }
+
+    @Test
+    void ADMIN이_아니면_등록할_수_없다() throws Exception {
+        mockMvc.perform(post("/admin/users/import").with(user(PrincipalDetails.of(1L, "manager", "ROLE_MANAGER", null)))
+                        .contentType("text/csv")
+                        .content(csv(-1)))
+                .andExpect(status().isForbidden());
+        assertThat(count()).isZero();
+    }
+
+    // 헤더 + 250명, brokenLine번째 줄은 username이 없는 잘못된 줄
+    private String csv(int brokenLine) {
+        StringBuilder body = new StringBuilder("username,password,email,role,provider,providerId\n");
+        for (int i = 1; i <= 250; i++) {
+            if (i + 1 == brokenLine) {
+                body.append(",").append(HASH).append(",,,,\n");
+            } else {
+                body.append("bulk_").append(i).append(',').append(HASH).append(",bulk").append(i).append("@example.com,ROLE_USER,,\n");
+            }
+        }
+        return body.toString();
+    }
+
+    private String password(String username) {
+        return jdbcTemplate.queryForObject("select password from user where username = ?", String.class, username);
+    }
+
+    private long count() {
+        return jdbcTemplate.queryForObject("select count(*) from user where username like 'bulk\\_%'", Long.class);
+    }
+
+    private RequestPostProcessor admin() {
+        return user(PrincipalDetails.of(1L, "admin", "ROLE_ADMIN", null));
+    }
+}
@@ -0,0 +1,45 @@
+package com.cos.security1.config.crypto;
+
+import com.cos.security1.config.EncoderConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BCryptStrengthCalibratorTest {
+
+    @Test
+    void 목표_시간에_맞는_cost를_고르고_범위를_넘지_않는다() {
+        assertThat(BCryptStrengthCalibrator.calibrate(Duration.ofNanos(1), 4, 8)).isEqualTo(4); // 측정값이 이미 목표보다 길다.
+        assertThat(BCryptStrengthCalibrator.calibrate(Duration.ofHours(1), 4, 8)).isEqualTo(8); // 목표가 아무리 길어도 max까지
+
+        int strength = BCryptStrengthCalibrator.calibrate(Duration.ofMillis(50), 4, 12);
+        assertThat(strength).isBetween(4, 12);
+    }
+
+    @Test
+    void 저장된_해시에서_cost를_꺼낸다() {
+        assertThat(BCryptStrengthCalibrator.strengthOf(new BCryptPasswordEncoder(5).encode("1234"))).isEqualTo(5);
+        assertThat(BCryptStrengthCalibrator.strengthOf("$2a$10$abcdefghijklmnopqrstuv")).isEqualTo(10);
+        assertThat(BCryptStrengthCalibrator.strengthOf("$2a$xx$abcdefghijklmnopqrstuv")).isEqualTo(-1);
+        assertThat(BCryptStrengthCalibrator.strengthOf("plain")).isEqualTo(-1);
+        assertThat(BCryptStrengthCalibrator.strengthOf(null)).isEqualTo(-1);
+    }
+
+    @Test
+    void 현재_cost보다_낮은_해시만_다시_암호화한다() {
+        // min = max = 5 => cost 5로 고정
+        PasswordEncoder encoder = new EncoderConfig().encodePwd(new SimpleMeterRegistry(), 1, 10, Duration.ofMillis(1), 5, 5);
+
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(4).encode("1234"))).isTrue();
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(5).encode("1234"))).isFalse();
+        // cost를 더 높게 측정한 서버가 저장한 해시 => 낮추지 않는다. (서버마다 번갈아 바꾸지 않도록)
+        assertThat(encoder.upgradeEncoding("{bcrypt}" + new BCryptPasswordEncoder(6).encode("1234"))).isFalse();
+        assertThat(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("1234"))).isTrue(); // 접두어 없는 예전 해시
+        assertThat(encoder.encode("1234")).startsWith("{bcrypt}$2a$05$");
+    }
+}
@@ -0,0 +1,132 @@
+package com.cos.security1.config.datasource;
+
+import com.cos.security1.config.auth.UsernameFilter;
+import com.cos.security1.model.UserCredentials;
+import com.cos.security1.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+/**
+ * primary(security1), replica(replica) 두 개의 H2 인메모리 DB로 읽기/쓰기 분리를 확인한다.
+ * 복제는 하지 않는다. (테이블만 primary와 똑같이 만들어둔다.) => 한쪽에만 있는 회원으로 어느 DB에서 읽었는지 알 수 있다.
+ */
+@SpringBootTest(properties = {
+        "datasource.replica.url=jdbc:h2:mem:replica;MODE=MySQL;NON_KEYWORDS=USER;DB_CLOSE_DELAY=-1",
+        "datasource.replica.username=sa"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    UsernameFilter usernameFilter;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    DataSource primaryDataSource;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+
+    JdbcTemplate primary;
+    JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        primary = new JdbcTemplate(primaryDataSource);
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("drop all objects");
+        primary.queryForList("script nodata", String.class).stream()
+                .filter(sql -> !sql.startsWith("--"))
+                .forEach(replica::execute); // primary와 같은 테이블 생성
+    }
+
+    @AfterEach
+    void tearDown() {
+        primary.update("delete from user where username like 'replica\\_%'");
+    }
+
+    @Test
+    void readOnly_조회는_replica에서_읽는다() {
+        replica.update("insert into user (id, username, password, role, create_date) values (-1, 'replica_only', '{noop}1234', 'ROLE_USER', current_timestamp)");
+
+        UserCredentials credentials = userRepository.findCredentialsByUsername("replica_only");
+
+        assertThat(credentials).isNotNull();
+        assertThat(credentials.id()).isEqualTo(-1L);
+        assertThat(primary.queryForObject("select count(*) from user where username = 'replica_only'", Long.class)).isZero();
+    }
+
+    @Test
+    void 회원가입은_primary에_저장되고_replica에_없어도_바로_로그인된다() throws Exception {
+        double fallbacks = meterRegistry.counter("datasource.replica.fallback").count();
+
+        mockMvc.perform(post("/join")
+                        .param("username", "replica_joined")
+                        .param("password", "1234")
+                        .param("email", "replica@example.com"))
+                .andExpect(redirectedUrl("/loginForm"));
+        mockMvc.perform(formLogin("/login").user("replica_joined").password("1234"))
+                .andExpect(redirectedUrl("/"));
+
+        assertThat(primary.queryForObject("select count(*) from user where username = 'replica_joined'", Long.class)).isOne();
+        assertThat(replica.queryForObject("select count(*) from user where username = 'replica_joined'", Long.class)).isZero();
+        assertThat(meterRegistry.counter("datasource.replica.fallback").count()).isEqualTo(fallbacks + 1);
+    }
+
+    @Test
+    void 다른_서버에서_가입한_회원은_username_필터가_갱신된_뒤에_로그인된다() throws Exception {
+        usernameFilter.rebuild();
+        String password = "{bcrypt}" + new BCryptPasswordEncoder(4).encode("1234");
+        // 다른 서버에서 가입 => primary에만 있고 이 서버의 username 필터에는 없다. (replica에는 아직 복제되지 않음)
+        primary.update("insert into user (username, password, role, create_date) values ('replica_elsewhere', ?, 'ROLE_USER', current_timestamp)", password);
+
+        mockMvc.perform(formLogin("/login").user("replica_elsewhere").password("1234"))
+                .andExpect(redirectedUrl("/loginForm?error")); // 필터가 갱신되기 전에는 DB를 조회하지 않는다.
+
+        // 복제된 뒤 필터 갱신 (필터도 replica에서 읽는다.)
+        Long id = primary.queryForObject("select id from user where username = 'replica_elsewhere'", Long.class);
+        replica.update("insert into user (id, username, password, role, create_date) values (?, 'replica_elsewhere', ?, 'ROLE_USER', current_timestamp)", id, password);
+        usernameFilter.refresh();
+
+        mockMvc.perform(formLogin("/login").user("replica_elsewhere").password("1234"))
+                .andExpect(redirectedUrl("/"));
+    }
+
+    @Test
+    void 풀별_커넥션_지연_시간이_기록된다() {
+        userRepository.findCredentialsByUsername("replica_nobody");
+        userRepository.findByUsername("replica_nobody");
+
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "replica").timer()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "primary").timer()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.usage").tag("pool", "replica").timer().count()).isPositive();
+    }
+}
@@ -0,0 +1,33 @@
+package com.cos.security1.config.logging;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LogRedactionTest {
+
+    @Test
+    void attributes는_키와_값의_타입만_남기고_민감한_값은_가린다() {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("sub", "104857392018374625");
+        attributes.put("email", "developer@gmail.com");
+        attributes.put("email_verified", true);
+        attributes.put("access_token", "ya29.a0AfH6SMBx");
+        attributes.put("refreshToken", "1//0gdxyz");
+
+        String logged = LogRedaction.attributes(attributes).toString();
+
+        assertThat(logged).isEqualTo("{sub=String, email=String, email_verified=Boolean, access_token=****, refreshToken=****}");
+        assertThat(logged).doesNotContain("developer@gmail.com", "ya29", "1//0g");
+    }
+
+    @Test
+    void mask는_앞_4글자만_남긴다() {
+        assertThat(LogRedaction.mask("ya29.a0AfH6SMBx")).isEqualTo("ya29****");
+        assertThat(LogRedaction.mask("abc")).isEqualTo("****");
+        assertThat(LogRedaction.mask(null)).isNull();
+    }
+}
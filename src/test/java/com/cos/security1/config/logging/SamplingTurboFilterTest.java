@@ -0,0 +1,41 @@
+package com.cos.security1.config.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingTurboFilterTest {
+
+    @Test
+    void SAMPLED_마커가_붙은_로그는_rate건_중_1건만_출력된다() {
+        LoggerContext context = new LoggerContext();
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setRate(10);
+        filter.start();
+        context.addTurboFilter(filter);
+        ListAppender<ILoggingEvent> appender = new ListAppender<>();
+        appender.setContext(context);
+        appender.start();
+        Logger logger = context.getLogger("login");
+        logger.setLevel(Level.DEBUG);
+        logger.addAppender(appender);
+
+        for (int i = 0; i < 100; i++) {
+            logger.info(SamplingTurboFilter.SAMPLED, "login {}", i);
+        }
+        logger.info("not sampled");
+        logger.warn(SamplingTurboFilter.SAMPLED, "warn");
+        logger.trace(SamplingTurboFilter.SAMPLED, "disabled"); // 꺼진 레벨은 카운트하지 않는다.
+        logger.info(SamplingTurboFilter.SAMPLED, "login {}", 100);
+
+        assertThat(appender.list).extracting(ILoggingEvent::getFormattedMessage)
+                .containsExactly("login 0", "login 10", "login 20", "login 30", "login 40",
+                        "login 50", "login 60", "login 70", "login 80", "login 90",
+                        "not sampled", "warn", "login 100");
+    }
+}
@@ -0,0 +1,141 @@
+package com.cos.security1.config.metrics;
+
+import com.cos.security1.config.auth.PrincipalDetails;
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 회원가입, 폼 로그인, 인가 검사를 실제로 실행하고 단계별 메트릭이 기록되는지 확인한다.
+ * 다른 테스트와 스프링 컨텍스트(MeterRegistry)를 같이 쓰기 때문에 실행 전후의 차이로 비교한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthMetricsTest {
+
+    static final String USERNAME = "metrics_tester";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        User user = userRepository.findByUsername(USERNAME);
+        if (user != null) {
+            userRepository.delete(user);
+        }
+    }
+
+    @Test
+    void 회원가입과_폼_로그인의_단계별_시간이_기록된다() throws Exception {
+        // 시큐리티는 첫 로그인 때 타이밍 공격 방지용 해시를 한 번 만든다. (encode) => 측정 전에 미리 한 번 로그인
+        mockMvc.perform(formLogin("/login").user("nobody").password("1234"));
+
+        long signups = timerCount(AuthMetrics.SIGNUP, "provider", "form", "outcome", "created");
+        long encodes = timerCount("password.hashing", "operation", "encode", "outcome", "success");
+        long lookups = timerCount(AuthMetrics.USER_LOOKUP, "provider", "form", "outcome", "found");
+        long misses = misses();
+        long matches = timerCount("password.hashing", "operation", "matches", "outcome", "match");
+        long mismatches = timerCount("password.hashing", "operation", "matches", "outcome", "mismatch");
+
+        mockMvc.perform(post("/join")
+                        .param("username", USERNAME)
+                        .param("password", "1234")
+                        .param("email", "metrics@example.com"))
+                .andExpect(redirectedUrl("/loginForm"));
+        mockMvc.perform(formLogin("/login").user(USERNAME).password("1234"))
+                .andExpect(redirectedUrl("/"));
+        mockMvc.perform(formLogin("/login").user(USERNAME).password("wrong"))
+                .andExpect(redirectedUrl("/loginForm?error"));
+        mockMvc.perform(formLogin("/login").user("nobody").password("1234"))
+                .andExpect(redirectedUrl("/loginForm?error"));
+
+        assertThat(timerCount(AuthMetrics.SIGNUP, "provider", "form", "outcome", "created")).isEqualTo(signups + 1);
+        assertThat(timerCount("password.hashing", "operation", "encode", "outcome", "success")).isEqualTo(encodes + 1);
+        assertThat(timerCount(AuthMetrics.USER_LOOKUP, "provider", "form", "outcome", "found")).isEqualTo(lookups + 2);
+        assertThat(misses()).isEqualTo(misses + 1);
+        assertThat(timerCount("password.hashing", "operation", "matches", "outcome", "match")).isEqualTo(matches + 1);
+        assertThat(timerCount("password.hashing", "operation", "matches", "outcome", "mismatch")).isEqualTo(mismatches + 1);
+    }
+
+    @Test
+    void 이미_있는_username으로_가입하면_duplicate로_기록된다() throws Exception {
+        mockMvc.perform(post("/join").param("username", USERNAME).param("password", "1234"))
+                .andExpect(redirectedUrl("/loginForm"));
+        long duplicates = timerCount(AuthMetrics.SIGNUP, "provider", "form", "outcome", AuthMetrics.DUPLICATE);
+
+        assertThatThrownBy(() -> mockMvc.perform(post("/join").param("username", USERNAME).param("password", "1234")))
+                .hasCauseInstanceOf(DataIntegrityViolationException.class);
+
+        assertThat(timerCount(AuthMetrics.SIGNUP, "provider", "form", "outcome", AuthMetrics.DUPLICATE)).isEqualTo(duplicates + 1);
+    }
+
+    @Test
+    void 요청과_메서드의_인가_결정_수가_기록된다() throws Exception {
+        long requestDenied = counterCount("request", "denied");
+        long methodGranted = counterCount("method", "granted");
+        long methodDenied = counterCount("method", "denied");
+
+        mockMvc.perform(get("/manager").with(user(PrincipalDetails.of(1L, "tester", "ROLE_USER", null))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/data").with(user(PrincipalDetails.of(1L, "tester", "ROLE_MANAGER", null))))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/info").with(user(PrincipalDetails.of(1L, "tester", "ROLE_USER", null))))
+                .andExpect(status().isForbidden());
+
+        assertThat(counterCount("request", "denied")).isGreaterThan(requestDenied);
+        assertThat(counterCount("method", "granted")).isEqualTo(methodGranted + 1); // @PreAuthorize
+        assertThat(counterCount("method", "denied")).isEqualTo(methodDenied + 1); // @Secured
+    }
+
+    @Test
+    void 메트릭_엔드포인트는_ADMIN만_조회할_수_있다() throws Exception {
+        mockMvc.perform(get("/actuator/metrics/" + AuthMetrics.USER_LOOKUP).with(user(PrincipalDetails.of(1L, "tester", "ROLE_USER", null))))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(formLogin("/login").user("nobody").password("1234")); // 메트릭이 하나도 없으면 404이기 때문에 미리 기록
+        mockMvc.perform(get("/actuator/metrics/" + AuthMetrics.USER_LOOKUP).with(user(PrincipalDetails.of(1L, "admin", "ROLE_ADMIN", null))))
+                .andExpect(status().isOk());
+    }
+
+    // 없는 회원 : username 필터에서 걸러지거나(filtered), 필터를 만들기 전이면 DB 조회(not_found)
+    private long misses() {
+        return timerCount(AuthMetrics.USER_LOOKUP, "provider", "form", "outcome", AuthMetrics.NOT_FOUND)
+                + timerCount(AuthMetrics.USER_LOOKUP, "provider", "form", "outcome", AuthMetrics.FILTERED);
+    }
+
+    private long timerCount(String name, String... tags) {
+        Timer timer = meterRegistry.find(name).tags(tags).timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private long counterCount(String target, String outcome) {
+        Counter counter = meterRegistry.find(AuthMetrics.AUTHORIZATION).tags("target", target, "outcome", outcome).counter();
+        return counter != null ? (long) counter.count() : 0;
+    }
+}
@@ -0,0 +1,91 @@
+package com.cos.security1.config.oauth;
+
+import com.cos.security1.config.DataSourceConfig;
+import com.cos.security1.config.UsernameFilterConfig;
+import com.cos.security1.config.metrics.AuthMetrics;
+import com.cos.security1.model.User;
+import com.cos.security1.model.UserIdentity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import com.cos.security1.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({OAuth2UserJoinService.class, AuthMetrics.class, UsernameFilterConfig.class, DataSourceConfig.class, SimpleMeterRegistry.class})
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // 테스트 트랜잭션으로 묶으면 동시 insert를 재현할 수 없다.
+class OAuth2UserJoinServiceTest {
+
+    @Autowired
+    OAuth2UserJoinService oAuth2UserJoinService;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAllInBatch();
+    }
+
+    @Test
+    void 재로그인_시_기존_회원을_반환한다() {
+        UserIdentity first = oAuth2UserJoinService.findOrJoin("google", "1234", () -> newUser("google", "1234"));
+        UserIdentity second = oAuth2UserJoinService.findOrJoin("google", "1234", () -> {
+            throw new AssertionError("이미 가입된 회원은 회원가입을 하면 안 된다.");
+        });
+
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    void 동시에_첫_로그인을_해도_회원은_한_명만_가입된다() throws Exception {
+        int threads = 16;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<UserIdentity>> results = new ArrayList<>();
+
+        for (int i = 0; i < threads; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return oAuth2UserJoinService.findOrJoin("naver", "5678", () -> newUser("naver", "5678"));
+            }));
+        }
+        start.countDown();
+
+        List<Long> ids = new ArrayList<>();
+        for (Future<UserIdentity> result : results) {
+            ids.add(result.get().id());
+        }
+        executor.shutdown();
+
+        assertThat(ids).containsOnly(ids.get(0));
+        assertThat(userRepository.count()).isEqualTo(1);
+    }
+
+    private User newUser(String provider, String providerId) {
+        return User.builder()
+                .username(provider + "_" + providerId)
+                .password("password")
+                .role("ROLE_USER")
+                .provider(provider)
+                .providerId(providerId)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.cos.security1.config.oauth;
+
+import com.cos.security1.config.auth.PrincipalDetails;
+import com.cos.security1.config.metrics.AuthMetrics;
+import com.cos.security1.config.oauth.provider.OAuth2UserInfo;
+import com.cos.security1.model.UserIdentity;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * userinfo 응답은 MockRestServiceServer로 대신한다.
+ */
+class PrincipalOauth2UserServiceTest {
+
+    static final String USER_INFO_URI = "https://idp.example.com/userinfo";
+
+    MockRestServiceServer userInfoEndpoint;
+    PrincipalOauth2UserService principalOauth2UserService;
+    Timestamp lastLoginDate; // 가입된 회원의 마지막 로그인 시간
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        userInfoEndpoint = MockRestServiceServer.bindTo(restTemplate).build();
+        userInfoEndpoint.expect(requestTo(USER_INFO_URI))
+                .andRespond(withSuccess("{\"sub\":\"104857392018374625\",\"email\":\"tester@gmail.com\",\"name\":\"tester\"}",
+                        MediaType.APPLICATION_JSON));
+
+        OAuth2UserJoinService joinService = mock(OAuth2UserJoinService.class);
+        when(joinService.findOrJoin(any(OAuth2UserInfo.class))).thenAnswer(invocation -> {
+            OAuth2UserInfo userInfo = invocation.getArgument(0);
+            return new UserIdentity(1L, userInfo.getProvider() + "_" + userInfo.getProviderId(), "ROLE_USER",
+                    userInfo.getProvider(), lastLoginDate);
+        });
+        principalOauth2UserService = new PrincipalOauth2UserService(joinService, restTemplate, new AuthMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void userinfo로_회원을_찾는다() {
+        lastLoginDate = Timestamp.from(Instant.now().minus(Duration.ofDays(1)));
+
+        PrincipalDetails principal = (PrincipalDetails) principalOauth2UserService.loadUser(request());
+
+        assertThat(principal.getUsername()).isEqualTo("google_104857392018374625");
+        assertThat(principal.isEnabled()).isTrue();
+        userInfoEndpoint.verify();
+    }
+
+    @Test
+    void 휴면_계정은_로그인할_수_없다() {
+        lastLoginDate = Timestamp.from(Instant.now().minus(PrincipalDetails.DORMANT_AFTER).minus(Duration.ofDays(1)));
+
+        assertThatThrownBy(() -> principalOauth2UserService.loadUser(request())).isInstanceOf(DisabledException.class);
+    }
+
+    private static OAuth2UserRequest request() {
+        ClientRegistration registration = ClientRegistration.withRegistrationId("google")
+                .clientId("stub-client")
+                .clientSecret("stub-secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .scope("profile", "email")
+                .authorizationUri("https://idp.example.com/authorize")
+                .tokenUri("https://idp.example.com/token")
+                .userInfoUri(USER_INFO_URI)
+                .userNameAttributeName("sub")
+                .build();
+        Instant now = Instant.now();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "stub-access-token",
+                now, now.plusSeconds(300), Set.of("profile", "email"));
+        return new OAuth2UserRequest(registration, accessToken);
+    }
+}
@@ -0,0 +1,202 @@
+package com.cos.security1.config.oauth;
+
+import com.cos.security1.config.OidcConfig;
+import com.cos.security1.config.auth.PrincipalDetails;
+import com.cos.security1.config.auth.PrincipalOidcDetails;
+import com.cos.security1.config.metrics.AuthMetrics;
+import com.cos.security1.config.oauth.provider.OAuth2UserInfo;
+import com.cos.security1.model.UserIdentity;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.JWKSet;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.authentication.DisabledException;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserRequest;
+import org.springframework.security.oauth2.client.oidc.userinfo.OidcUserService;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.oidc.OidcIdToken;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtDecoderFactory;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 로컬에 띄운 가짜 OIDC 제공자(JWKS, userinfo 엔드포인트)로 테스트한다.
+ */
+class PrincipalOidcUserServiceTest {
+
+    static final String CLIENT_ID = "stub-client";
+
+    HttpServer identityProvider;
+    AtomicInteger jwksRequests = new AtomicInteger();
+    AtomicInteger userInfoRequests = new AtomicInteger();
+    RSAKey signingKey;
+    String issuer;
+    ClientRegistration registration;
+    JwtDecoderFactory<ClientRegistration> decoderFactory;
+    PrincipalOidcUserService principalOidcUserService;
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    Timestamp lastLoginDate; // 가입된 회원의 마지막 로그인 시간
+
+    @BeforeEach
+    void setUp() throws Exception {
+        signingKey = new RSAKeyGenerator(2048).keyID("stub-key").generate();
+        identityProvider = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        identityProvider.createContext("/jwks", exchange -> {
+            jwksRequests.incrementAndGet();
+            respond(exchange, new JWKSet(signingKey.toPublicJWK()).toString());
+        });
+        identityProvider.createContext("/userinfo", exchange -> {
+            userInfoRequests.incrementAndGet();
+            respond(exchange, "{\"sub\":\"104857392018374625\",\"email\":\"tester@gmail.com\",\"name\":\"tester\"}");
+        });
+        identityProvider.start();
+        issuer = "http://127.0.0.1:" + identityProvider.getAddress().getPort();
+
+        registration = ClientRegistration.withRegistrationId("google")
+                .clientId(CLIENT_ID)
+                .clientSecret("stub-secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .scope("openid", "profile", "email")
+                .authorizationUri(issuer + "/authorize")
+                .tokenUri(issuer + "/token")
+                .userInfoUri(issuer + "/userinfo")
+                .userNameAttributeName("sub")
+                .jwkSetUri(issuer + "/jwks")
+                .build();
+        decoderFactory = new OidcConfig().idTokenDecoderFactory(Duration.ofHours(1), Duration.ofMinutes(5), Duration.ofSeconds(5));
+
+        OAuth2UserJoinService joinService = mock(OAuth2UserJoinService.class);
+        when(joinService.findOrJoin(any(OAuth2UserInfo.class))).thenAnswer(invocation -> {
+            OAuth2UserInfo userInfo = invocation.getArgument(0);
+            return new UserIdentity(1L, userInfo.getProvider() + "_" + userInfo.getProviderId(), "ROLE_USER",
+                    userInfo.getProvider(), lastLoginDate);
+        });
+        principalOidcUserService = new PrincipalOidcUserService(joinService, new OidcUserService(), new AuthMetrics(meterRegistry));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ((DisposableBean) decoderFactory).destroy();
+        identityProvider.stop(0);
+    }
+
+    @Test
+    void ID토큰에_email이_있으면_userinfo를_조회하지_않는다() throws Exception {
+        PrincipalOidcDetails principal = (PrincipalOidcDetails) principalOidcUserService.loadUser(request(true));
+
+        assertThat(principal.getUsername()).isEqualTo("google_104857392018374625");
+        assertThat(principal.getEmail()).isEqualTo("tester@gmail.com");
+        assertThat(principal.getUserInfo()).isNull();
+        assertThat(userInfoRequests).hasValue(0);
+    }
+
+    @Test
+    void ID토큰에_email이_없으면_userinfo를_조회한다() throws Exception {
+        PrincipalOidcDetails principal = (PrincipalOidcDetails) principalOidcUserService.loadUser(request(false));
+
+        assertThat(principal.getUsername()).isEqualTo("google_104857392018374625");
+        assertThat(principal.getUserInfo().getEmail()).isEqualTo("tester@gmail.com");
+        assertThat(userInfoRequests).hasValue(1);
+        assertThat(meterRegistry.get(AuthMetrics.OAUTH2_USERINFO).tag("provider", "google").tag("outcome", "success").timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void 휴면_계정은_로그인할_수_없다() {
+        lastLoginDate = Timestamp.from(Instant.now().minus(PrincipalDetails.DORMANT_AFTER).minus(Duration.ofDays(1)));
+
+        assertThatThrownBy(() -> principalOidcUserService.loadUser(request(true))).isInstanceOf(DisabledException.class);
+    }
+
+    @Test
+    void 공개키는_한_번만_받아온다() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            request(true);
+        }
+
+        assertThat(jwksRequests).hasValue(1);
+    }
+
+    @Test
+    void 다른_키로_서명한_ID토큰은_거부한다() throws Exception {
+        RSAKey otherKey = new RSAKeyGenerator(2048).keyID("stub-key").generate();
+        String token = sign(otherKey, claims(true));
+
+        assertThatThrownBy(() -> decoderFactory.createDecoder(registration).decode(token))
+                .isInstanceOf(JwtException.class);
+    }
+
+    // 실제 로그인처럼 ID 토큰을 서명 검증(JwtDecoderFactory)한 뒤에 OidcUserRequest를 만든다.
+    private OidcUserRequest request(boolean includeEmail) throws JOSEException {
+        JwtDecoder decoder = decoderFactory.createDecoder(registration);
+        Jwt jwt = decoder.decode(sign(signingKey, claims(includeEmail)));
+        OidcIdToken idToken = new OidcIdToken(jwt.getTokenValue(), jwt.getIssuedAt(), jwt.getExpiresAt(), jwt.getClaims());
+        Instant now = Instant.now();
+        OAuth2AccessToken accessToken = new OAuth2AccessToken(OAuth2AccessToken.TokenType.BEARER, "stub-access-token",
+                now, now.plusSeconds(300), Set.of("openid", "profile", "email"));
+        return new OidcUserRequest(registration, accessToken, idToken);
+    }
+
+    private JWTClaimsSet claims(boolean includeEmail) {
+        Instant now = Instant.now();
+        JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+                .issuer(issuer)
+                .audience(CLIENT_ID)
+                .subject("104857392018374625")
+                .issueTime(Date.from(now))
+                .expirationTime(Date.from(now.plusSeconds(300)))
+                .claim("name", "tester");
+        if (includeEmail) {
+            claims.claim("email", "tester@gmail.com");
+        }
+        return claims.build();
+    }
+
+    private static String sign(RSAKey key, JWTClaimsSet claims) throws JOSEException {
+        SignedJWT jwt = new SignedJWT(new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(key.getKeyID()).build(), claims);
+        jwt.sign(new RSASSASigner(key));
+        return jwt.serialize();
+    }
+
+    private static void respond(HttpExchange exchange, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
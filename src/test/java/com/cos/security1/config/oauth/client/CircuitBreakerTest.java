@@ -0,0 +1,45 @@
+package com.cos.security1.config.oauth.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * openDuration = 0 => 열리자마자 half-open
+ */
+class CircuitBreakerTest {
+
+    final CircuitBreaker circuitBreaker = new CircuitBreaker(2, Duration.ZERO);
+
+    @Test
+    void half_open에서는_한_요청만_보내보고_결과에_따라_닫거나_다시_연다() {
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.isOpen()).isFalse();
+        circuitBreaker.onFailure();
+        assertThat(circuitBreaker.isOpen()).isTrue();
+
+        assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.PROBE);
+        assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.DENIED);
+        circuitBreaker.onFailure(); // 보내본 요청이 실패 => 다시 open
+        assertThat(circuitBreaker.isOpen()).isTrue();
+
+        assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.PROBE);
+        circuitBreaker.onSuccess();
+        assertThat(circuitBreaker.isOpen()).isFalse();
+        assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.GRANTED);
+    }
+
+    @Test
+    void 결과_없이_끝난_half_open_요청은_자리를_돌려준다() {
+        circuitBreaker.onFailure();
+        circuitBreaker.onFailure();
+
+        assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.PROBE);
+        circuitBreaker.releaseProbe();
+
+        assertThat(circuitBreaker.isOpen()).isTrue(); // 상태는 그대로
+        assertThat(circuitBreaker.tryAcquire()).isEqualTo(CircuitBreaker.Permit.PROBE); // 다음 요청이 다시 보내본다.
+    }
+}
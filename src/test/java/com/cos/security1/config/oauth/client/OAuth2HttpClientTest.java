@@ -0,0 +1,203 @@
+package com.cos.security1.config.oauth.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.client.registration.ClientRegistration;
+import org.springframework.security.oauth2.client.userinfo.DefaultOAuth2UserService;
+import org.springframework.security.oauth2.client.userinfo.OAuth2UserRequest;
+import org.springframework.security.oauth2.core.AuthorizationGrantType;
+import org.springframework.security.oauth2.core.OAuth2AccessToken;
+import org.springframework.security.oauth2.core.OAuth2AuthenticationException;
+import org.springframework.security.oauth2.core.user.OAuth2User;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 로컬에 띄운 가짜 구글, 페이스북, 네이버 userinfo 엔드포인트(응답 지연을 넣을 수 있다.)로 테스트한다.
+ */
+class OAuth2HttpClientTest {
+
+    static final List<String> PROVIDERS = List.of("google", "facebook", "naver");
+
+    Map<String, HttpServer> servers = new HashMap<>();
+    Map<String, AtomicLong> delays = new HashMap<>(); // 제공자별 응답 지연(ms)
+    Map<String, AtomicInteger> requests = new HashMap<>();
+    Map<String, ClientRegistration> registrations = new HashMap<>();
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    OAuth2HttpClient oAuth2HttpClient;
+    DefaultOAuth2UserService userService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        for (String provider : PROVIDERS) {
+            AtomicLong delay = new AtomicLong();
+            AtomicInteger count = new AtomicInteger();
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.setExecutor(Executors.newCachedThreadPool());
+            server.createContext("/userinfo", exchange -> {
+                count.incrementAndGet();
+                try {
+                    Thread.sleep(delay.get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                byte[] body = ("{\"id\":\"" + provider + "-id\",\"email\":\"tester@" + provider + ".com\"}").getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                } catch (IOException ignored) {
+                    // 클라이언트가 타임아웃으로 먼저 끊은 경우
+                }
+            });
+            server.start();
+            servers.put(provider, server);
+            delays.put(provider, delay);
+            requests.put(provider, count);
+            registrations.put(provider, registration(provider, server.getAddress().getPort()));
+        }
+
+        // 네이버만 응답 타임아웃을 짧게 설정
+        oAuth2HttpClient = new OAuth2HttpClient(new ArrayList<>(registrations.values()),
+                new OAuth2HttpClient.Timeouts(Duration.ofSeconds(1), Duration.ofSeconds(2)),
+                Map.of("naver", new OAuth2HttpClient.Timeouts(Duration.ofSeconds(1), Duration.ofMillis(200))),
+                10, 5, Duration.ofSeconds(1), Duration.ofSeconds(30),
+                3, Duration.ofMinutes(1), meterRegistry);
+        userService = new DefaultOAuth2UserService();
+        userService.setRestOperations(oAuth2HttpClient.restTemplate());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        oAuth2HttpClient.close();
+        servers.values().forEach(server -> server.stop(0));
+    }
+
+    @Test
+    void 제공자별로_응답_시간을_기록한다() {
+        for (String provider : PROVIDERS) {
+            OAuth2User user = userService.loadUser(request(provider));
+            assertThat(user.getAttributes()).containsEntry("email", "tester@" + provider + ".com");
+        }
+
+        for (String provider : PROVIDERS) {
+            assertThat(meterRegistry.get("oauth2.client.requests")
+                    .tag("provider", provider).tag("outcome", "SUCCESS").timer().count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void 제공자별_응답_타임아웃이_적용된다() {
+        delays.get("naver").set(1_000);
+        delays.get("google").set(500);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> userService.loadUser(request("naver")))
+                .isInstanceOf(OAuth2AuthenticationException.class);
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(900));
+
+        assertThat(userService.loadUser(request("google")).getAttributes()).containsKey("id"); // 구글은 기본 타임아웃(2s)
+        assertThat(meterRegistry.get("oauth2.client.requests")
+                .tag("provider", "naver").tag("outcome", "TIMEOUT").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void 연속으로_실패하면_요청을_보내지_않고_바로_실패한다() {
+        delays.get("naver").set(1_000);
+        for (int i = 0; i < 3; i++) {
+            assertThatThrownBy(() -> userService.loadUser(request("naver")))
+                    .isInstanceOf(OAuth2AuthenticationException.class);
+        }
+        int sent = requests.get("naver").get();
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> userService.loadUser(request("naver")))
+                .isInstanceOf(OAuth2AuthenticationException.class)
+                .hasRootCauseInstanceOf(CircuitBreakerOpenException.class);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(100));
+        assertThat(requests.get("naver")).hasValue(sent);
+        assertThat(meterRegistry.get("oauth2.client.circuit.open").tag("provider", "naver").gauge().value()).isEqualTo(1);
+        // 다른 제공자는 영향 없음
+        assertThat(userService.loadUser(request("facebook")).getAttributes()).containsKey("id");
+    }
+
+    @Test
+    void 커넥션_풀_대기_타임아웃은_실패로_세지_않는다() throws Exception {
+        SimpleMeterRegistry singleConnectionMeters = new SimpleMeterRegistry();
+        // 제공자별 연결 1개, 풀 대기 100ms, 한 번만 실패해도 열리는 서킷
+        try (OAuth2HttpClient singleConnection = new OAuth2HttpClient(new ArrayList<>(registrations.values()),
+                new OAuth2HttpClient.Timeouts(Duration.ofSeconds(1), Duration.ofSeconds(2)), Map.of(),
+                10, 1, Duration.ofMillis(100), Duration.ofSeconds(30),
+                1, Duration.ofMinutes(1), singleConnectionMeters)) {
+            DefaultOAuth2UserService singleConnectionUserService = new DefaultOAuth2UserService();
+            singleConnectionUserService.setRestOperations(singleConnection.restTemplate());
+            delays.get("google").set(500);
+
+            CompletableFuture<OAuth2User> holding = CompletableFuture.supplyAsync(() -> singleConnectionUserService.loadUser(request("google")));
+            while (requests.get("google").get() == 0) { // 연결 하나를 쓰고 있는 중
+                Thread.sleep(1);
+            }
+            assertThatThrownBy(() -> singleConnectionUserService.loadUser(request("google")))
+                    .isInstanceOf(OAuth2AuthenticationException.class);
+
+            assertThat(singleConnectionMeters.get("oauth2.client.requests")
+                    .tag("provider", "google").tag("outcome", "POOL_TIMEOUT").timer().count()).isEqualTo(1);
+            assertThat(holding.get(5, TimeUnit.SECONDS).getAttributes()).containsKey("id");
+            assertThat(singleConnectionUserService.loadUser(request("google")).getAttributes()).containsKey("id"); // 서킷은 닫혀 있다.
+            assertThat(singleConnectionMeters.find("oauth2.client.rejected").counter()).isNull();
+        }
+    }
+
+    @Test
+    void 연결을_재사용한다() {
+        for (int i = 0; i < 10; i++) {
+            userService.loadUser(request("google"));
+        }
+
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tag("httpclient", "oauth2").tag("state", "available").gauge().value()).isEqualTo(1);
+    }
+
+    private OAuth2UserRequest request(String provider) {
+        Instant now = Instant.now();
+        return new OAuth2UserRequest(registrations.get(provider), new OAuth2AccessToken(
+                OAuth2AccessToken.TokenType.BEARER, "stub-access-token", now, now.plusSeconds(300), Set.of("email")));
+    }
+
+    private static ClientRegistration registration(String provider, int port) {
+        String baseUrl = "http://127.0.0.1:" + port;
+        return ClientRegistration.withRegistrationId(provider)
+                .clientId(provider + "-client")
+                .clientSecret("stub-secret")
+                .authorizationGrantType(AuthorizationGrantType.AUTHORIZATION_CODE)
+                .redirectUri("{baseUrl}/login/oauth2/code/{registrationId}")
+                .scope("email")
+                .authorizationUri(baseUrl + "/authorize")
+                .tokenUri(baseUrl + "/token")
+                .userInfoUri(baseUrl + "/userinfo")
+                .userNameAttributeName("id")
+                .build();
+    }
+}
@@ -0,0 +1,50 @@
+package com.cos.security1.config.oauth.provider;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OAuth2ProviderTest {
+
+    @Test
+    void registrationId로_제공자를_찾는다() {
+        assertThat(OAuth2Provider.from("google")).contains(OAuth2Provider.GOOGLE);
+        assertThat(OAuth2Provider.from("facebook")).contains(OAuth2Provider.FACEBOOK);
+        assertThat(OAuth2Provider.from("naver")).contains(OAuth2Provider.NAVER);
+        assertThat(OAuth2Provider.from("kakao")).isEmpty();
+    }
+
+    @Test
+    void 구글은_sub를_providerId로_사용한다() {
+        OAuth2UserInfo userInfo = OAuth2Provider.GOOGLE.extract(Map.of(
+                "sub", "104857392018374625",
+                "email", "tester@gmail.com",
+                "name", "테스터",
+                "picture", "https://lh3.googleusercontent.com/a/photo.jpg"));
+
+        assertThat(userInfo.getProvider()).isEqualTo("google");
+        assertThat(userInfo.getProviderId()).isEqualTo("104857392018374625");
+        assertThat(userInfo.getEmail()).isEqualTo("tester@gmail.com");
+        assertThat(userInfo.getName()).isEqualTo("테스터");
+    }
+
+    @Test
+    void 네이버는_response_안의_값을_사용한다() {
+        OAuth2UserInfo userInfo = OAuth2Provider.NAVER.extract(Map.of(
+                "resultcode", "00",
+                "response", Map.of("id", "naver-id", "email", "tester@naver.com", "name", "테스터")));
+
+        assertThat(userInfo.getProvider()).isEqualTo("naver");
+        assertThat(userInfo.getProviderId()).isEqualTo("naver-id");
+        assertThat(userInfo.getEmail()).isEqualTo("tester@naver.com");
+    }
+
+    @Test
+    void 네이버_response가_없으면_providerId가_없다() {
+        OAuth2UserInfo userInfo = OAuth2Provider.NAVER.extract(Map.of("resultcode", "024"));
+
+        assertThat(userInfo.getProviderId()).isNull();
+    }
+}
@@ -0,0 +1,211 @@
+package com.cos.security1.config.session;
+
+import com.cos.security1.config.session.WriteBehindSessionRepository.StoreSession;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.session.MapSession;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * flush, cleanup은 스케줄러 대신 직접 호출한다. (주기는 1시간으로 두어 테스트 중에 돌지 않게 한다.)
+ * 저장소는 FileSessionStore를 감싸서 save, touch 호출을 기록한다.
+ */
+class WriteBehindSessionRepositoryTest {
+
+    static final Duration MAX_INACTIVE_INTERVAL = Duration.ofMinutes(30);
+    static final Duration TOUCH_INTERVAL = Duration.ofMinutes(1);
+
+    @TempDir
+    Path directory;
+
+    RecordingStore store;
+    WriteBehindSessionRepository repository;
+    Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS); // 파일에는 밀리초까지 저장된다.
+
+    @BeforeEach
+    void setUp() {
+        store = new RecordingStore(new FileSessionStore(directory));
+        repository = newRepository(store);
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.shutdown();
+    }
+
+    @Test
+    void 속성이_바뀌면_바로_저장하고_접근_시간만_바뀌면_flush_때_한꺼번에_갱신한다() {
+        String first = login("first");
+        String second = login("second");
+        assertThat(store.saves).isEqualTo(2);
+
+        access(first, now.plus(Duration.ofMinutes(2)));
+        access(second, now.plus(Duration.ofMinutes(3)));
+        assertThat(store.saves).isEqualTo(2); // 접근 시간만 바뀐 경우는 전체 저장하지 않는다.
+        assertThat(store.touches).isEmpty();
+
+        repository.flush();
+
+        assertThat(store.touches).containsExactly(Map.of(
+                first, now.plus(Duration.ofMinutes(2)),
+                second, now.plus(Duration.ofMinutes(3))));
+        assertThat(store.load(first).getLastAccessedTime()).isEqualTo(now.plus(Duration.ofMinutes(2)));
+        assertThat(store.load(first).<String>getAttribute("user")).isEqualTo("first"); // 헤더만 갱신, 속성은 그대로
+
+        repository.flush();
+        assertThat(store.touches).hasSize(1); // 모아둔 게 없으면 저장소를 부르지 않는다.
+    }
+
+    @Test
+    void touchInterval_안의_접근은_건너뛰고_같은_세션의_접근은_최신_값_하나로_합친다() {
+        String id = login("user");
+
+        access(id, now.plus(Duration.ofSeconds(30))); // 저장된 값과 1분 미만 차이 => 건너뜀
+        repository.flush();
+        assertThat(store.touches).isEmpty();
+
+        // 같은 세션에 동시에 들어온 요청 두 개
+        StoreSession request1 = repository.findById(id);
+        StoreSession request2 = repository.findById(id);
+        request2.setLastAccessedTime(now.plus(Duration.ofMinutes(3)));
+        repository.save(request2);
+        request1.setLastAccessedTime(now.plus(Duration.ofMinutes(2)));
+        repository.save(request1);
+
+        // flush 전에도 모아둔 접근 시간이 보인다.
+        assertThat(repository.findById(id).getLastAccessedTime()).isEqualTo(now.plus(Duration.ofMinutes(3)));
+
+        repository.flush();
+        assertThat(store.touches).containsExactly(Map.of(id, now.plus(Duration.ofMinutes(3))));
+    }
+
+    @Test
+    void 세션_id가_바뀌면_이전_id의_파일을_지운다() throws IOException {
+        String oldId = login("user");
+        access(oldId, now.plus(Duration.ofMinutes(2))); // flush 전에 id가 바뀌는 경우
+
+        StoreSession session = repository.findById(oldId);
+        String newId = session.changeSessionId();
+        repository.save(session);
+        repository.flush();
+
+        assertThat(repository.findById(oldId)).isNull();
+        assertThat(repository.findById(newId).<String>getAttribute("user")).isEqualTo("user");
+        assertThat(store.touches).isEmpty(); // 이전 id로 모아둔 접근 시간도 버린다.
+        assertThat(sessionFiles()).containsExactly(newId + ".session");
+    }
+
+    @Test
+    void 만료된_세션만_정리한다() throws IOException {
+        String active = login("active");
+        String expired = login("expired");
+        StoreSession session = repository.findById(expired);
+        session.setMaxInactiveInterval(Duration.ofSeconds(1));
+        session.setLastAccessedTime(now.minus(Duration.ofHours(1)));
+        repository.save(session);
+
+        repository.cleanup();
+
+        assertThat(sessionFiles()).containsExactly(active + ".session");
+        assertThat(repository.findById(expired)).isNull();
+
+        // 만료 여부는 헤더(touch로 갱신된 접근 시간)로 판단한다.
+        access(active, now.plus(Duration.ofMinutes(10)));
+        repository.flush();
+        assertThat(store.deleteExpired(now.plus(MAX_INACTIVE_INTERVAL).plus(Duration.ofMinutes(5)))).isZero();
+        assertThat(store.deleteExpired(now.plus(MAX_INACTIVE_INTERVAL).plus(Duration.ofMinutes(15)))).isEqualTo(1);
+    }
+
+    @Test
+    void 재시작해도_저장된_세션과_접근_시간이_남아있다() {
+        String id = login("user");
+        access(id, now.plus(Duration.ofMinutes(5)));
+
+        repository.shutdown(); // 남은 접근 시간을 저장하고 종료
+        repository = newRepository(new FileSessionStore(directory));
+
+        StoreSession session = repository.findById(id);
+        assertThat(session.<String>getAttribute("user")).isEqualTo("user");
+        assertThat(session.getLastAccessedTime()).isEqualTo(now.plus(Duration.ofMinutes(5)));
+        assertThat(session.getMaxInactiveInterval()).isEqualTo(MAX_INACTIVE_INTERVAL);
+    }
+
+    private WriteBehindSessionRepository newRepository(SessionStore sessionStore) {
+        return new WriteBehindSessionRepository(sessionStore, MAX_INACTIVE_INTERVAL, TOUCH_INTERVAL,
+                Duration.ofHours(1), Duration.ofHours(1));
+    }
+
+    // 로그인 => 속성이 바뀐 새 세션
+    private String login(String username) {
+        StoreSession session = repository.createSession();
+        session.setLastAccessedTime(now);
+        session.setAttribute("user", username);
+        repository.save(session);
+        return session.getId();
+    }
+
+    // 로그인 이후의 요청 => 접근 시간만 바뀐다.
+    private void access(String id, Instant lastAccessedTime) {
+        StoreSession session = repository.findById(id);
+        session.setLastAccessedTime(lastAccessedTime);
+        repository.save(session);
+    }
+
+    private List<String> sessionFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).filter(name -> name.endsWith(".session")).toList();
+        }
+    }
+
+    static class RecordingStore implements SessionStore {
+
+        final SessionStore delegate;
+        final List<Map<String, Instant>> touches = new ArrayList<>();
+        int saves;
+
+        RecordingStore(SessionStore delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public MapSession load(String id) {
+            return delegate.load(id);
+        }
+
+        @Override
+        public void save(MapSession session) {
+            saves++;
+            delegate.save(session);
+        }
+
+        @Override
+        public void touch(Map<String, Instant> lastAccessedTimes) {
+            touches.add(Map.copyOf(lastAccessedTimes));
+            delegate.touch(lastAccessedTimes);
+        }
+
+        @Override
+        public void delete(String id) {
+            delegate.delete(id);
+        }
+
+        @Override
+        public int deleteExpired(Instant now) {
+            return delegate.deleteExpired(now);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.cos.security1.config.token;
+
+import com.cos.security1.config.auth.PrincipalDetails;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuthTokenProviderTest {
+
+    static final String KEY_1 = "2025-01:" + Base64.getEncoder().encodeToString("0123456789abcdef0123456789abcdef".getBytes());
+    static final String KEY_2 = "2025-02:" + Base64.getEncoder().encodeToString("fedcba9876543210fedcba9876543210".getBytes());
+    static final PrincipalDetails PRINCIPAL = PrincipalDetails.of(7L, "google_123", "ROLE_MANAGER", "google");
+    static final RefreshTokenClaims REFRESH = new RefreshTokenClaims(7L, "family-1", "jti-1");
+
+    @Test
+    void 서명한_토큰을_검증하면_같은_값이_나온다() throws Exception {
+        AuthTokenProvider provider = provider(KEY_1, "2025-01", Duration.ofMinutes(15));
+
+        PrincipalDetails principal = provider.verifyAccessToken(provider.issueAccessToken(PRINCIPAL, "family-1")).orElseThrow();
+        assertThat(principal.getId()).isEqualTo(7L);
+        assertThat(principal.getUsername()).isEqualTo("google_123");
+        assertThat(principal.getRole()).isEqualTo("ROLE_MANAGER");
+        assertThat(principal.getProvider()).isEqualTo("google");
+
+        assertThat(provider.verifyRefreshToken(provider.issueRefreshToken(REFRESH))).contains(REFRESH);
+        assertThat(provider.familyOf(provider.issueAccessToken(PRINCIPAL, "family-1"))).contains("family-1");
+    }
+
+    @Test
+    void 변조된_토큰은_거절한다() throws Exception {
+        AuthTokenProvider provider = provider(KEY_1, "2025-01", Duration.ofMinutes(15));
+        String token = provider.issueAccessToken(PRINCIPAL, "family-1");
+        String[] parts = token.split("\\.");
+        String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(new String(Base64.getUrlDecoder().decode(parts[1])).replace("ROLE_MANAGER", "ROLE_ADMIN").getBytes());
+
+        assertThat(provider.verifyAccessToken(parts[0] + "." + forgedPayload + "." + parts[2])).isEmpty();
+        assertThat(provider.verifyAccessToken("not-a-token")).isEmpty();
+        assertThat(provider.verifyAccessToken(null)).isEmpty();
+    }
+
+    @Test
+    void 만료된_토큰은_거절하지만_로그아웃용_family는_꺼낼_수_있다() throws Exception {
+        AuthTokenProvider provider = provider(KEY_1, "2025-01", Duration.ofSeconds(-1));
+
+        String accessToken = provider.issueAccessToken(PRINCIPAL, "family-1");
+        assertThat(provider.verifyAccessToken(accessToken)).isEmpty();
+        assertThat(provider.verifyRefreshToken(provider.issueRefreshToken(REFRESH))).isEmpty();
+        assertThat(provider.familyOf(accessToken)).contains("family-1");
+    }
+
+    @Test
+    void 키를_교체해도_이전_키로_서명한_토큰은_검증되고_모르는_kid는_거절한다() throws Exception {
+        AuthTokenProvider before = provider(KEY_1, "2025-01", Duration.ofMinutes(15));
+        AuthTokenProvider after = provider(KEY_1 + "," + KEY_2, "2025-02", Duration.ofMinutes(15));
+
+        assertThat(after.verifyAccessToken(before.issueAccessToken(PRINCIPAL, "family-1"))).isPresent();
+        assertThat(after.verifyAccessToken(after.issueAccessToken(PRINCIPAL, "family-1"))).isPresent();
+        assertThat(before.verifyAccessToken(after.issueAccessToken(PRINCIPAL, "family-1"))).isEmpty(); // 2025-02를 모르는 서버
+    }
+
+    @Test
+    void access_token을_refresh_token으로_보내거나_반대로_보내면_거절한다() throws Exception {
+        AuthTokenProvider provider = provider(KEY_1, "2025-01", Duration.ofMinutes(15));
+
+        assertThat(provider.verifyRefreshToken(provider.issueAccessToken(PRINCIPAL, "family-1"))).isEmpty();
+        assertThat(provider.verifyAccessToken(provider.issueRefreshToken(REFRESH))).isEmpty();
+        assertThat(provider.familyOf(provider.issueRefreshToken(REFRESH))).isEmpty();
+    }
+
+    @Test
+    void active_key가_없거나_키가_짧으면_시작하지_않는다() {
+        assertThatThrownBy(() -> provider(KEY_1, "2025-02", Duration.ofMinutes(15))).isInstanceOf(IllegalStateException.class);
+        String shortKey = "short:" + Base64.getEncoder().encodeToString("too-short".getBytes());
+        assertThatThrownBy(() -> provider(shortKey, "short", Duration.ofMinutes(15))).isInstanceOf(Exception.class);
+    }
+
+    private static AuthTokenProvider provider(String keys, String activeKey, Duration ttl) throws Exception {
+        return new AuthTokenProvider(keys, activeKey, ttl, ttl);
+    }
+}
@@ -0,0 +1,153 @@
+package com.cos.security1.config.token;
+
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 토큰 모드의 OAuth 로그인 전체 흐름 (인가 요청 -> 콜백 -> 토큰 쿠키)에서 HttpSession이 만들어지지 않는지 확인한다.
+ * 구글의 token, userinfo 엔드포인트는 로컬에 띄운 가짜 서버로 바꾼다.
+ */
+@SpringBootTest(properties = {"security.auth.mode=token", "login.audit.linger=20ms"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenOAuthLoginTest {
+
+    static final String PROVIDER_ID = "900001";
+    static final HttpServer google = startGoogle();
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @DynamicPropertySource
+    static void googleEndpoints(DynamicPropertyRegistry registry) {
+        String baseUrl = "http://127.0.0.1:" + google.getAddress().getPort();
+        registry.add("spring.security.oauth2.client.provider.google.token-uri", () -> baseUrl + "/token");
+        registry.add("spring.security.oauth2.client.provider.google.user-info-uri", () -> baseUrl + "/userinfo");
+    }
+
+    @AfterAll
+    static void stopGoogle() {
+        google.stop(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        User user = userRepository.findByUsername("google_" + PROVIDER_ID);
+        if (user != null) {
+            jdbcTemplate.update("delete from refresh_token_family where user_id = ?", user.getId());
+            userRepository.delete(user);
+        }
+    }
+
+    @Test
+    void 토큰_모드의_OAuth_로그인은_세션을_만들지_않는다() throws Exception {
+        MvcResult authorization = mockMvc.perform(get("/oauth2/authorization/google"))
+                .andExpect(status().is3xxRedirection())
+                .andReturn();
+        assertThat(authorization.getRequest().getSession(false)).isNull();
+        Cookie authorizationRequest = authorization.getResponse().getCookie(CookieAuthorizationRequestRepository.AUTHORIZATION_REQUEST);
+        assertThat(authorizationRequest.getValue()).isNotBlank();
+        assertThat(authorizationRequest.getMaxAge()).isPositive();
+
+        MvcResult callback = mockMvc.perform(get("/login/oauth2/code/google")
+                        .param("code", "stub-code")
+                        .param("state", stateOf(authorization))
+                        .cookie(authorizationRequest))
+                .andExpect(redirectedUrl("/"))
+                .andReturn();
+
+        assertThat(callback.getRequest().getSession(false)).isNull();
+        assertThat(callback.getResponse().getCookie(AuthTokenProvider.ACCESS_TOKEN).getValue()).isNotBlank();
+        assertThat(callback.getResponse().getCookie(CookieAuthorizationRequestRepository.AUTHORIZATION_REQUEST).getMaxAge()).isZero(); // 한 번 쓰면 지운다.
+    }
+
+    @Test
+    void 인가_요청_쿠키가_없거나_state가_다르면_세션_없이_로그인_실패로_처리한다() throws Exception {
+        MvcResult authorization = mockMvc.perform(get("/oauth2/authorization/google")).andReturn();
+        Cookie authorizationRequest = authorization.getResponse().getCookie(CookieAuthorizationRequestRepository.AUTHORIZATION_REQUEST);
+
+        MvcResult withoutCookie = mockMvc.perform(get("/login/oauth2/code/google")
+                        .param("code", "stub-code")
+                        .param("state", stateOf(authorization)))
+                .andExpect(redirectedUrl("/loginForm?error"))
+                .andReturn();
+        assertThat(withoutCookie.getRequest().getSession(false)).isNull();
+
+        mockMvc.perform(get("/login/oauth2/code/google")
+                        .param("code", "stub-code")
+                        .param("state", "other-state")
+                        .cookie(authorizationRequest))
+                .andExpect(redirectedUrl("/loginForm?error"));
+
+        // 서명이 맞지 않는 쿠키
+        mockMvc.perform(get("/login/oauth2/code/google")
+                        .param("code", "stub-code")
+                        .param("state", stateOf(authorization))
+                        .cookie(new Cookie(CookieAuthorizationRequestRepository.AUTHORIZATION_REQUEST, authorizationRequest.getValue() + "x")))
+                .andExpect(redirectedUrl("/loginForm?error"));
+        assertThat(userRepository.findByUsername("google_" + PROVIDER_ID)).isNull();
+    }
+
+    private static String stateOf(MvcResult authorization) {
+        String location = authorization.getResponse().getRedirectedUrl();
+        String state = UriComponentsBuilder.fromUriString(location).build().getQueryParams().getFirst("state");
+        return URLDecoder.decode(state, StandardCharsets.UTF_8);
+    }
+
+    private static HttpServer startGoogle() {
+        try {
+            HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+            server.createContext("/token", exchange -> respond(exchange,
+                    "{\"access_token\":\"stub-access-token\",\"token_type\":\"Bearer\",\"expires_in\":300,\"scope\":\"email profile\"}"));
+            server.createContext("/userinfo", exchange -> respond(exchange,
+                    "{\"sub\":\"" + PROVIDER_ID + "\",\"email\":\"cookie@example.com\",\"name\":\"tester\"}"));
+            server.start();
+            return server;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.cos.security1.config.token;
+
+import com.cos.security1.config.auth.PrincipalDetails;
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestBuilders.formLogin;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+@SpringBootTest(properties = {"security.auth.mode=token", "login.audit.linger=20ms"})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class TokenRefreshTest {
+
+    static final String USERNAME = "token_tester";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    AuthTokenProvider authTokenProvider;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc.perform(post("/join")
+                        .param("username", USERNAME)
+                        .param("password", "1234")
+                        .param("email", "token@example.com"))
+                .andExpect(redirectedUrl("/loginForm"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        User user = userRepository.findByUsername(USERNAME);
+        if (user != null) {
+            jdbcTemplate.update("delete from refresh_token_family where user_id = ?", user.getId());
+            userRepository.delete(user);
+        }
+    }
+
+    @Test
+    void 재발급하면_새_토큰이_나오고_사용된_refresh_token을_다시_쓰면_family가_폐기된다() throws Exception {
+        Cookie first = login().getCookie(AuthTokenProvider.REFRESH_TOKEN);
+
+        MockHttpServletResponse refreshed = refresh(first);
+        assertThat(refreshed.getStatus()).isEqualTo(204);
+        Cookie second = refreshed.getCookie(AuthTokenProvider.REFRESH_TOKEN);
+        assertThat(second.getValue()).isNotEqualTo(first.getValue());
+        assertThat(refreshed.getCookie(AuthTokenProvider.ACCESS_TOKEN).getValue()).isNotBlank();
+
+        // 이미 사용된 refresh token => 거절 + family 폐기 (새로 받은 refresh token도 더 이상 사용할 수 없다.)
+        assertThat(refresh(first).getStatus()).isEqualTo(401);
+        assertThat(refresh(second).getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void 재발급할_때_회원을_다시_조회해서_바뀐_권한을_반영한다() throws Exception {
+        Cookie refreshToken = login().getCookie(AuthTokenProvider.REFRESH_TOKEN);
+        jdbcTemplate.update("update user set role = 'ROLE_MANAGER' where username = ?", USERNAME);
+
+        MockHttpServletResponse refreshed = refresh(refreshToken);
+
+        PrincipalDetails principal = authTokenProvider.verifyAccessToken(refreshed.getCookie(AuthTokenProvider.ACCESS_TOKEN).getValue()).orElseThrow();
+        assertThat(principal.getRole()).isEqualTo("ROLE_MANAGER");
+    }
+
+    @Test
+    void 탈퇴한_회원은_재발급받을_수_없다() throws Exception {
+        Cookie refreshToken = login().getCookie(AuthTokenProvider.REFRESH_TOKEN);
+        jdbcTemplate.update("delete from refresh_token_family where user_id = (select id from user where username = ?)", USERNAME);
+        userRepository.delete(userRepository.findByUsername(USERNAME));
+
+        MockHttpServletResponse refreshed = refresh(refreshToken);
+
+        assertThat(refreshed.getStatus()).isEqualTo(401);
+        assertThat(refreshed.getCookie(AuthTokenProvider.REFRESH_TOKEN).getMaxAge()).isZero();
+    }
+
+    @Test
+    void 휴면_계정은_재발급받을_수_없다() throws Exception {
+        Cookie refreshToken = login().getCookie(AuthTokenProvider.REFRESH_TOKEN);
+        awaitLastLoginDate(); // 로그인 기록(LoginAuditWriter)이 last_login_date를 갱신한 뒤에 휴면으로 바꾼다.
+        jdbcTemplate.update("update user set last_login_date = ? where username = ?",
+                Timestamp.from(Instant.now().minus(Duration.ofDays(400))), USERNAME);
+
+        assertThat(refresh(refreshToken).getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void 로그아웃하면_토큰_쿠키가_지워지고_refresh_token이_폐기된다() throws Exception {
+        MockHttpServletResponse login = login();
+        Cookie accessToken = login.getCookie(AuthTokenProvider.ACCESS_TOKEN);
+        Cookie refreshToken = login.getCookie(AuthTokenProvider.REFRESH_TOKEN);
+
+        MockHttpServletResponse logout = mockMvc.perform(post("/logout").cookie(accessToken))
+                .andExpect(redirectedUrl("/loginForm?logout"))
+                .andReturn().getResponse();
+
+        assertThat(logout.getCookie(AuthTokenProvider.ACCESS_TOKEN).getMaxAge()).isZero();
+        assertThat(logout.getCookie(AuthTokenProvider.REFRESH_TOKEN).getMaxAge()).isZero();
+        assertThat(logout.getCookie(AuthTokenProvider.REFRESH_TOKEN).getPath()).isEqualTo(AuthTokenProvider.REFRESH_PATH);
+        assertThat(refresh(refreshToken).getStatus()).isEqualTo(401);
+    }
+
+    @Test
+    void access_token으로는_재발급받을_수_없다() throws Exception {
+        Cookie accessToken = login().getCookie(AuthTokenProvider.ACCESS_TOKEN);
+
+        assertThat(refresh(new Cookie(AuthTokenProvider.REFRESH_TOKEN, accessToken.getValue())).getStatus()).isEqualTo(401);
+    }
+
+    private MockHttpServletResponse login() throws Exception {
+        return mockMvc.perform(formLogin("/login").user(USERNAME).password("1234"))
+                .andExpect(redirectedUrl("/"))
+                .andReturn().getResponse();
+    }
+
+    private MockHttpServletResponse refresh(Cookie refreshToken) throws Exception {
+        return mockMvc.perform(post(AuthTokenProvider.REFRESH_PATH).cookie(refreshToken))
+                .andReturn().getResponse();
+    }
+
+    private void awaitLastLoginDate() throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (jdbcTemplate.queryForObject("select count(*) from user where username = ? and last_login_date is not null",
+                Long.class, USERNAME) == 0) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            Thread.sleep(10);
+        }
+    }
+}
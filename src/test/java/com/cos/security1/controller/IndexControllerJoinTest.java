@@ -0,0 +1,54 @@
+package com.cos.security1.controller;
+
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IndexControllerJoinTest {
+
+    static final String USERNAME = "join_tester";
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @AfterEach
+    void tearDown() {
+        User user = userRepository.findByUsername(USERNAME);
+        if (user != null) {
+            userRepository.delete(user);
+        }
+    }
+
+    @Test
+    void 이미_있는_username으로_가입하면_회원가입_페이지로_돌아간다() throws Exception {
+        join("first@example.com").andExpect(redirectedUrl("/loginForm"));
+
+        join("second@example.com").andExpect(redirectedUrl("/joinForm?error")); // 유니크 인덱스 위반 => 500이 아니다.
+
+        assertThat(userRepository.findByUsername(USERNAME).getEmail()).isEqualTo("first@example.com");
+    }
+
+    private ResultActions join(String email) throws Exception {
+        return mockMvc.perform(post("/join")
+                .param("username", USERNAME)
+                .param("password", "1234")
+                .param("email", email));
+    }
+}
@@ -0,0 +1,37 @@
+package com.cos.security1.controller;
+
+import com.cos.security1.config.auth.PrincipalDetails;
+import com.cos.security1.spec.Outcome;
+import com.cos.security1.spec.RouteRoleSpec;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * 서블릿 버전 경로/권한 테스트 (리액티브 버전과 같은 규칙 : RouteRoleSpec)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class IndexControllerRouteTest extends RouteRoleSpec {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Override
+    protected Outcome request(String path, String role) throws Exception {
+        MockHttpServletRequestBuilder request = get(path);
+        if (role != null) {
+            request.with(user(PrincipalDetails.of(1L, "tester", role, null)));
+        }
+        MockHttpServletResponse response = mockMvc.perform(request).andReturn().getResponse();
+        return Outcome.of(response.getStatus(), response.getRedirectedUrl());
+    }
+}
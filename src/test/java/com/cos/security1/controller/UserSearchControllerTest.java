@@ -0,0 +1,157 @@
+package com.cos.security1.controller;
+
+import com.cos.security1.config.auth.PrincipalDetails;
+import com.cos.security1.model.User;
+import com.cos.security1.repository.UserRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * 다른 테스트의 회원과 섞이지 않도록 2001년에 가입한 회원(search_0 ~ search_119)만 조회한다.
+ * 3명씩 가입 시간이 같다. => 가입 시간이 같아도 id로 순서가 정해져서 페이지 경계에서 빠지거나 겹치지 않아야 한다.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class UserSearchControllerTest {
+
+    static final Instant START = Instant.parse("2001-01-01T00:00:00Z");
+    static final int USERS = 120;
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            boolean google = i % 2 == 0;
+            User user = User.builder()
+                    .username("search_" + i)
+                    .password(User.UNUSABLE_PASSWORD)
+                    .email("search" + i + "@example.com")
+                    .role(i % 4 == 0 ? "ROLE_MANAGER" : "ROLE_USER")
+                    .provider(google ? "google" : null)
+                    .providerId(google ? "search-" + i : null)
+                    .build();
+            user.setCreateDate(Timestamp.from(START.plusSeconds(60L * (i / 3))));
+            users.add(user);
+        }
+        userRepository.insertAll(users);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from user where username like 'search\\_%'");
+    }
+
+    @Test
+    void cursor로_끝까지_넘기면_모든_회원이_최근_가입_순으로_한_번씩_나온다() throws Exception {
+        List<JsonNode> users = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = search().param("size", "50");
+            if (cursor != null) {
+                request.param("cursor", cursor);
+            }
+            JsonNode page = page(request);
+            page.get("users").forEach(users::add);
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3); // 50 + 50 + 20
+        assertThat(users).hasSize(USERS);
+        assertThat(users.stream().map(user -> user.get("username").asText())).doesNotHaveDuplicates();
+        assertThat(users.get(0).get("username").asText()).isEqualTo("search_119");
+        assertThat(users.get(USERS - 1).get("username").asText()).isEqualTo("search_0");
+        assertThat(users.get(0).has("password")).isFalse();
+    }
+
+    @Test
+    void 권한_가입_경로_가입_기간으로_조회한다() throws Exception {
+        JsonNode managers = page(search().param("role", "MANAGER").param("size", "1000"));
+        assertThat(managers.get("users")).hasSize(USERS / 4)
+                .allMatch(user -> user.get("role").asText().equals("ROLE_MANAGER"));
+
+        JsonNode form = page(search().param("provider", "form").param("size", "1000"));
+        assertThat(form.get("users")).hasSize(USERS / 2).allMatch(user -> user.get("provider").isNull());
+
+        // 처음 10분 (0 ~ 29번 회원)
+        JsonNode firstTenMinutes = page(get("/manager/users").with(manager())
+                .param("createdFrom", START.toString())
+                .param("createdTo", START.plusSeconds(600).toString())
+                .param("size", "1000"));
+        assertThat(firstTenMinutes.get("users")).hasSize(30);
+    }
+
+    @Test
+    void 스트리밍은_조건에_맞는_회원_전체를_NDJSON으로_보낸다() throws Exception {
+        MvcResult stream = mockMvc.perform(get("/manager/users/stream").with(manager())
+                        .param("provider", "google")
+                        .param("createdFrom", START.toString())
+                        .param("createdTo", START.plusSeconds(3600).toString()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String body = mockMvc.perform(asyncDispatch(stream)).andReturn().getResponse().getContentAsString();
+        assertThat(body.lines()).hasSize(USERS / 2).allMatch(line -> line.contains("\"provider\":\"google\""));
+    }
+
+    @Test
+    void 잘못된_cursor나_size는_400이고_USER는_조회할_수_없다() throws Exception {
+        mockMvc.perform(search().param("cursor", "not-a-cursor")).andExpect(status().isBadRequest());
+        mockMvc.perform(search().param("size", "0")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/manager/users").with(user(PrincipalDetails.of(1L, "tester", "ROLE_USER", null))))
+                .andExpect(status().isForbidden());
+    }
+
+    // 2001년에 가입한 회원만
+    private MockHttpServletRequestBuilder search() {
+        return get("/manager/users").with(manager())
+                .param("createdFrom", START.toString())
+                .param("createdTo", START.plusSeconds(365L * 24 * 3600).toString());
+    }
+
+    private JsonNode page(MockHttpServletRequestBuilder request) throws Exception {
+        String body = mockMvc.perform(request).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body);
+    }
+
+    private static RequestPostProcessor manager() {
+        return user(PrincipalDetails.of(1L, "manager", "ROLE_MANAGER", null));
+    }
+}